@@ -0,0 +1,40 @@
+#!/bin/sh
+set -e
+
+# Runs the JMH benchmarks under benchmark/ against src/.
+#   ./benchmark.sh                         run everything
+#   ./benchmark.sh MapBenchmark -p size=100  any extra arguments are passed to JMH
+#   BASELINE=baseline.json ./benchmark.sh  compare the results against a previous run
+# Results are written as JSON (with the GC profiler's allocation rates) to build/artifacts/benchmarks.json
+
+JAVA_VERSION=${JAVA_VERSION-7}
+type -t setjava > /dev/null && setjava -q ${JAVA_VERSION} || if [ -n "${JAVA_HOME}" ]; then PATH=${JAVA_HOME}/bin:${PATH}; fi
+
+lib=lib/benchmark
+out=build/benchmark
+results=${RESULTS-build/artifacts/benchmarks.json}
+threshold=${THRESHOLD-10}
+
+mkdir -p ${lib} ${out}/classes $(dirname ${results})
+cat build/*.dependencies | grep '^mvn:' | while read dependency; do
+	coordinates=${dependency#mvn:}
+	group=$(echo ${coordinates} | cut -d: -f1)
+	artifact=$(echo ${coordinates} | cut -d: -f2)
+	version=$(echo ${coordinates} | cut -d: -f4)
+	jar=${lib}/${artifact}-${version}.jar
+	url=https://repo1.maven.org/maven2/$(echo ${group} | tr . /)/${artifact}/${version}/${artifact}-${version}.jar
+	if [ ! -f ${jar} ]; then
+		wget -O ${jar} ${url} || curl -o ${jar} ${url}
+	fi
+done
+
+classpath=$(ls ${lib}/*.jar | tr '\n' ':')
+find src benchmark -name '*.java' > ${out}/sources
+javac -nowarn -source ${JAVA_VERSION} -target ${JAVA_VERSION} -encoding UTF-8 -cp "${classpath}" -d ${out}/classes @${out}/sources
+(cd src && find . -type f ! -name '*.java' -exec cp --parents {} ../${out}/classes \;)
+
+java -cp "${out}/classes:${classpath}" org.openjdk.jmh.Main -prof gc -rf json -rff ${results} "$@"
+
+if [ -n "${BASELINE}" ]; then
+	exec java -cp "${out}/classes:${classpath}" com.googlecode.totallylazy.BenchmarkComparison ${BASELINE} ${results} ${threshold}
+fi
@@ -0,0 +1,72 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.json.Json;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BenchmarkComparison {
+    private static final String ALLOCATION = "·gc.alloc.rate.norm";
+
+    public static void main(String... arguments) {
+        if (arguments.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <results.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = arguments.length > 2 ? Double.parseDouble(arguments[2]) : 10;
+        Map<String, Score> baseline = scores(new File(arguments[0]));
+        Map<String, Score> results = scores(new File(arguments[1]));
+        int regressions = 0;
+        System.out.println(String.format("%-80s %14s %14s %9s %14s", "Benchmark", "Baseline", "Result", "Change", "B/op"));
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score result = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(String.format("%-80s %14s %14.3f %9s %14.1f", entry.getKey(), "-", result.score, "new", result.allocation));
+                continue;
+            }
+            double change = result.improvementOver(before);
+            boolean regression = change < -threshold;
+            if (regression) regressions++;
+            System.out.println(String.format("%-80s %14.3f %14.3f %+8.1f%% %14.1f%s", entry.getKey(), before.score, result.score, change, result.allocation, regression ? " REGRESSION" : ""));
+        }
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static Map<String, Score> scores(File file) {
+        List<Map<String, Object>> runs = Json.list(Strings.toString(file));
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        for (Map<String, Object> run : runs) scores.put(name(run), new Score(run));
+        return scores;
+    }
+
+    private static String name(Map<String, Object> run) {
+        Object params = run.get("params");
+        return params == null ? run.get("benchmark").toString() : run.get("benchmark") + " " + params;
+    }
+
+    private static class Score {
+        private final boolean higherIsBetter;
+        private final double score;
+        private final double allocation;
+
+        private Score(Map<String, Object> run) {
+            higherIsBetter = "thrpt".equals(run.get("mode"));
+            score = score(run.get("primaryMetric"));
+            Map<String, Object> secondary = Unchecked.cast(run.get("secondaryMetrics"));
+            allocation = secondary == null || !secondary.containsKey(ALLOCATION) ? Double.NaN : score(secondary.get(ALLOCATION));
+        }
+
+        private double improvementOver(Score baseline) {
+            double change = (score - baseline.score) / baseline.score * 100;
+            return higherIsBetter ? change : -change;
+        }
+
+        private static double score(Object metric) {
+            Map<String, Object> map = Unchecked.cast(metric);
+            return ((Number) map.get("score")).doubleValue();
+        }
+    }
+}
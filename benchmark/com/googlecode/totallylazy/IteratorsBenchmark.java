@@ -0,0 +1,40 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import static com.googlecode.totallylazy.numbers.Numbers.even;
+
+@State(Scope.Benchmark)
+public class IteratorsBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Number> numbers;
+
+    @Setup
+    public void setup() {
+        numbers = Numbers.range(1, size).toList();
+    }
+
+    @Benchmark
+    public List<Number> mapAndFilter() {
+        return Iterators.toList(Iterators.filter(Iterators.map(numbers.iterator(), Numbers.multiply(3)), even()));
+    }
+
+    @Benchmark
+    public Number fold() {
+        return Iterators.fold(numbers.iterator(), 0, Numbers.sum());
+    }
+
+    @Benchmark
+    public int size() {
+        return Iterators.size(Iterators.filter(numbers.iterator(), even()));
+    }
+}
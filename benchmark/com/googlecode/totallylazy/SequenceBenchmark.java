@@ -0,0 +1,59 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.numbers.Numbers.even;
+
+@State(Scope.Benchmark)
+public class SequenceBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Sequence<Number> numbers;
+    private Sequence<Number> shuffled;
+
+    @Setup
+    public void setup() {
+        List<Number> list = Numbers.range(1, size).toList();
+        numbers = sequence(list);
+        shuffled = sequence(Randoms.integers().take(size).<Number>unsafeCast().toList());
+    }
+
+    @Benchmark
+    public List<Number> map() {
+        return numbers.map(Numbers.multiply(2)).toList();
+    }
+
+    @Benchmark
+    public List<Number> filter() {
+        return numbers.filter(even()).toList();
+    }
+
+    @Benchmark
+    public Number fold() {
+        return numbers.fold(0, Numbers.sum());
+    }
+
+    @Benchmark
+    public List<Number> sortBy() {
+        return shuffled.sortBy(Numbers.intValue).toList();
+    }
+
+    @Benchmark
+    public List<Group<Number, Number>> groupBy() {
+        return numbers.groupBy(Numbers.mod(10)).toList();
+    }
+
+    @Benchmark
+    public List<Number> unique() {
+        return numbers.map(Numbers.mod(1000)).unique().toList();
+    }
+}
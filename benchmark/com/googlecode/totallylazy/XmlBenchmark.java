@@ -0,0 +1,43 @@
+package com.googlecode.totallylazy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class XmlBenchmark {
+    @Param({"100", "10000"})
+    public int size;
+
+    private String xml;
+    private Document document;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("<root>");
+        for (int i = 0; i < size; i++) builder.append("<item id=\"").append(i).append("\"><name>Item ").append(i).append("</name></item>");
+        xml = builder.append("</root>").toString();
+        document = Xml.document(xml);
+    }
+
+    @Benchmark
+    public Document document() {
+        return Xml.document(xml);
+    }
+
+    @Benchmark
+    public List<Node> selectNodes() {
+        return Xml.selectNodes(document, "/root/item/name").toList();
+    }
+
+    @Benchmark
+    public String selectContents() {
+        return Xml.selectContents(document, "/root/item[@id='" + (size / 2) + "']/name");
+    }
+}
@@ -0,0 +1,53 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@State(Scope.Benchmark)
+public abstract class AbstractMapBenchmark {
+    private MapFactory<Integer, Integer, ? extends PersistentMap<Integer, Integer>> factory;
+    private List<Pair<Integer, Integer>> pairs;
+    private PersistentMap<Integer, Integer> map;
+    private int[] keys;
+
+    protected void setup(MapFactory<Integer, Integer, ? extends PersistentMap<Integer, Integer>> factory, int size) {
+        this.factory = factory;
+        pairs = new ArrayList<Pair<Integer, Integer>>();
+        for (int i = 0; i < size; i++) pairs.add(Pair.pair(i, i));
+        Collections.shuffle(pairs, new Random(42));
+        map = factory.map(pairs);
+        keys = new int[size];
+        Random random = new Random(7);
+        for (int i = 0; i < size; i++) keys[i] = random.nextInt(size);
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> insert() {
+        PersistentMap<Integer, Integer> result = factory.empty();
+        for (Pair<Integer, Integer> pair : pairs) result = result.insert(pair.first(), pair.second());
+        return result;
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> bulkBuild() {
+        return factory.map(pairs);
+    }
+
+    @Benchmark
+    public int lookup() {
+        int found = 0;
+        for (int key : keys) {
+            Option<Integer> value = map.lookup(key);
+            if (!value.isEmpty()) found++;
+        }
+        return found;
+    }
+}
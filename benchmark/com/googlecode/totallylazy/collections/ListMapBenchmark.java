@@ -0,0 +1,15 @@
+package com.googlecode.totallylazy.collections;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+// ListMap is linear, so it gets its own smaller sizes rather than sharing MapBenchmark's
+public class ListMapBenchmark extends AbstractMapBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    @Setup
+    public void setup() {
+        setup(ListMap.<Integer, Integer>factory(), size);
+    }
+}
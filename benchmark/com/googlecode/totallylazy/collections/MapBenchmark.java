@@ -0,0 +1,26 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.comparators.Comparators;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+public class MapBenchmark extends AbstractMapBenchmark {
+    @Param({"TreeMap", "AVLTree", "HashTreeMap", "HashTrieMap"})
+    public String type;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Setup
+    public void setup() {
+        setup(factory(type), size);
+    }
+
+    private static MapFactory<Integer, Integer, ? extends PersistentMap<Integer, Integer>> factory(String type) {
+        if (type.equals("TreeMap")) return TreeMapFactory.<Integer, Integer, TreeMap<Integer, Integer>>treeMapFactory(TreeMap.constructors.factory, Comparators.<Integer>ascending());
+        if (type.equals("AVLTree")) return AVLTree.constructors.<Integer, Integer>factory();
+        if (type.equals("HashTreeMap")) return HashTreeMap.factory();
+        if (type.equals("HashTrieMap")) return HashTrieMap.factory();
+        throw new IllegalArgumentException(type);
+    }
+}
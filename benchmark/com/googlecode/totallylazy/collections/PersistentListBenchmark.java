@@ -0,0 +1,52 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class PersistentListBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Number> numbers;
+    private PersistentList<Number> list;
+
+    @Setup
+    public void setup() {
+        numbers = Numbers.range(1, size).toList();
+        list = PersistentList.constructors.list(numbers);
+    }
+
+    @Benchmark
+    public PersistentList<Number> build() {
+        return PersistentList.constructors.list(numbers);
+    }
+
+    @Benchmark
+    public PersistentList<Number> cons() {
+        PersistentList<Number> result = PersistentList.constructors.empty();
+        for (Number number : numbers) result = result.cons(number);
+        return result;
+    }
+
+    @Benchmark
+    public PersistentList<Number> treeList() {
+        return TreeList.treeList(numbers);
+    }
+
+    @Benchmark
+    public Number fold() {
+        return list.fold(0, Numbers.sum());
+    }
+
+    @Benchmark
+    public PersistentList<Number> reverse() {
+        return list.reverse();
+    }
+}
@@ -0,0 +1,51 @@
+package com.googlecode.totallylazy.json;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    @Param({"10", "1000"})
+    public int size;
+
+    private String json;
+    private List<Map<String, Object>> values;
+
+    @Setup
+    public void setup() {
+        values = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> value = new LinkedHashMap<String, Object>();
+            value.put("id", i);
+            value.put("name", "Item \"" + i + "\"");
+            value.put("price", i * 1.5);
+            value.put("active", i % 2 == 0);
+            value.put("tags", java.util.Arrays.asList("a", "b", "c"));
+            values.add(value);
+        }
+        json = Json.json(values);
+    }
+
+    @Benchmark
+    public List<Object> parse() {
+        return Json.list(json);
+    }
+
+    @Benchmark
+    public List<Object> parsePrimitiveNumbers() {
+        return Json.list(JsonReader.jsonReader(json).numbers(JsonReader.NumberMode.primitive));
+    }
+
+    @Benchmark
+    public String write() {
+        return Json.json(values);
+    }
+}
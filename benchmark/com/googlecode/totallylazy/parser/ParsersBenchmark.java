@@ -0,0 +1,41 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Callables;
+import com.googlecode.totallylazy.Characters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import static com.googlecode.totallylazy.parser.Parsers.character;
+import static com.googlecode.totallylazy.parser.Parsers.isChar;
+import static com.googlecode.totallylazy.parser.Parsers.or;
+import static com.googlecode.totallylazy.parser.Parsers.string;
+
+@State(Scope.Benchmark)
+public class ParsersBenchmark {
+    @Param({"10", "1000"})
+    public int size;
+
+    private final Parser<List<String>> words = or(string("alpha"), string("beta"), string("gamma"), isChar(Characters.digit).map(Callables.asString())).sepBy(character(','));
+    private String input;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder();
+        String[] values = {"alpha", "beta", "gamma", "7"};
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(values[i % values.length]);
+        }
+        input = builder.toString();
+    }
+
+    @Benchmark
+    public Result<List<String>> sepBy() {
+        return words.parse(input);
+    }
+}
@@ -1,35 +1,35 @@
 package com.googlecode.totallylazy;
 
-import com.googlecode.totallylazy.concurrent.NamedExecutors;
+import com.googlecode.totallylazy.concurrent.Concurrency;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
 
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.totallylazy.Sequences.sequence;
 
 public final class Callers {
     public static <T> Function<T> callConcurrently(Callable<? extends T> callable) {
-        ExecutorService service = executorService();
-        try {
-            final Future<? extends T> future = service.submit(callable);
-            return new Function<T>() {
-                @Override
-                public T call() throws Exception {
-                    return future.get();
-                }
-            };
-        } finally {
-            service.shutdown();
-        }
-    }
-
-    private static ExecutorService executorService() {
-        return NamedExecutors.newCachedThreadPool(Callers.class);
+        final Future<? extends T> future = Concurrency.executor().submit(callable);
+        return new Function<T>() {
+            @Override
+            public T call() throws Exception {
+                return Concurrency.await(future);
+            }
+        };
     }
 
     public static <T> Sequence<T> callConcurrently(final Callable<? extends T> first, final Callable<? extends T> second) {
@@ -53,19 +53,47 @@ public final class Callers {
     }
 
     public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables) {
-        ExecutorService service = executorService();
-        try {
-            return callConcurrently(callables, service);
-        } finally {
-            service.shutdown();
-        }
+        return callConcurrently(callables, Concurrency.executor());
+    }
+
+    // Limits the tasks in flight for this call only, unlike callConcurrently(callables, Concurrency.bounded(executor, n)) which submits every task up front
+    public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight) {
+        return callConcurrently(callables, maxInFlight, Concurrency.executor());
+    }
+
+    // Keeps at most maxInFlight tasks submitted, pulling from callables only as results are consumed
+    public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight, final Executor executor) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("Max in flight must be positive");
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new OrderedIterator<T>(Unchecked.<Iterator<Callable<T>>>cast(callables.iterator()), maxInFlight, executor);
+            }
+        };
+    }
+
+    public static <T> Sequence<T> callInCompletionOrder(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight) {
+        return callInCompletionOrder(callables, maxInFlight, Concurrency.executor());
+    }
+
+    public static <T> Sequence<T> callInCompletionOrder(final Iterable<? extends Callable<? extends T>> callables, final int maxInFlight, final Executor executor) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("Max in flight must be positive");
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new CompletionIterator<T>(Unchecked.<Iterator<Callable<T>>>cast(callables.iterator()), maxInFlight, executor);
+            }
+        };
     }
 
     public static <T> Sequence<T> callConcurrently(final Iterable<? extends Callable<? extends T>> callables, final Executor executor) {
-        return Sequences.sequence(callables).<Callable<T>>unsafeCast().map(Callers.<T>asFutureTask()).
-                map(Callers.<T>executeWith(executor)).
-                realise().
-                map(Callers.<T>realiseFuture());
+        final Submitted<T> submitted = new Submitted<T>(Sequences.sequence(callables).<Callable<T>>unsafeCast().toList(), executor);
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new SubmittedIterator<T>(submitted);
+            }
+        };
     }
 
     public static <T> Function1<FutureTask<T>, Future<T>> executeWith(final Executor executor) {
@@ -88,7 +116,7 @@ public final class Callers {
     public static <T> Function1<Future<T>, T> realiseFuture() {
         return new Function1<Future<T>, T>() {
             public final T call(final Future<T> future) throws Exception {
-                return future.get();
+                return Concurrency.await(future);
             }
         };
     }
@@ -124,4 +152,183 @@ public final class Callers {
     public static <A, B, C, D, E, F> F call(final Callable5<? super A, ? super B, ? super C, ? super D, ? super E, ? extends F> callable, final A a, final B b, final C c, final D d, final E e) {
         return Functions.call(callable, a, b, c, d, e);
     }
-}
\ No newline at end of file
+
+    // Tasks are submitted up front and each runs at most once. Stopping early skips tasks that have not started (running
+    // ones finish); if the sequence is iterated again the skipped tasks are submitted again, and a FutureTask only ever runs once
+    private static final class Submitted<T> {
+        private final List<FutureTask<T>> futures;
+        private final Executor executor;
+        private volatile boolean stopped;
+
+        private Submitted(List<Callable<T>> callables, Executor executor) {
+            this.executor = executor;
+            this.futures = new ArrayList<FutureTask<T>>(callables.size());
+            for (Callable<T> callable : callables) futures.add(new FutureTask<T>(callable));
+            for (final FutureTask<T> future : futures) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!stopped) future.run();
+                    }
+                });
+            }
+        }
+
+        private int size() {
+            return futures.size();
+        }
+
+        private T get(int index) throws Exception {
+            if (stopped) resume(index);
+            return Concurrency.await(futures.get(index));
+        }
+
+        private void stop() {
+            stopped = true;
+        }
+
+        private synchronized void resume(int from) {
+            if (!stopped) return;
+            stopped = false;
+            for (int i = from; i < size(); i++) {
+                if (!futures.get(i).isDone()) executor.execute(futures.get(i));
+            }
+        }
+    }
+
+    // Closing the iterator (or a failed task) skips every task that has not started yet
+    private static final class SubmittedIterator<T> extends StatefulIterator<T> implements Closeable {
+        private final Submitted<T> submitted;
+        private int index;
+
+        private SubmittedIterator(Submitted<T> submitted) {
+            this.submitted = submitted;
+        }
+
+        @Override
+        protected T getNext() throws Exception {
+            if (index == submitted.size()) return finished();
+            try {
+                return submitted.get(index++);
+            } catch (Exception e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            submitted.stop();
+            index = submitted.size();
+        }
+    }
+
+    private static abstract class WindowIterator<T> extends StatefulIterator<T> implements Closeable {
+        private final Iterator<Callable<T>> callables;
+        private final int maxInFlight;
+        private final Executor executor;
+        protected int inFlight;
+
+        private WindowIterator(Iterator<Callable<T>> callables, int maxInFlight, Executor executor) {
+            this.callables = callables;
+            this.maxInFlight = maxInFlight;
+            this.executor = executor;
+        }
+
+        protected abstract FutureTask<T> task(Callable<T> callable);
+
+        protected abstract Future<T> nextDone() throws InterruptedException;
+
+        protected abstract void cancel();
+
+        @Override
+        protected T getNext() throws Exception {
+            try {
+                fill();
+                if (inFlight == 0) return finished();
+                // A task stays in flight until its result is handed out, so the window never exceeds maxInFlight
+                T result = Concurrency.await(nextDone());
+                inFlight--;
+                fill();
+                return result;
+            } catch (Exception e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void fill() {
+            while (inFlight < maxInFlight && callables.hasNext()) {
+                executor.execute(task(callables.next()));
+                inFlight++;
+            }
+        }
+
+        @Override
+        public void close() {
+            cancel();
+            inFlight = 0;
+            if (callables instanceof Closeable) Closeables.safeClose((Closeable) callables);
+        }
+    }
+
+    private static final class OrderedIterator<T> extends WindowIterator<T> {
+        private final ArrayDeque<FutureTask<T>> window = new ArrayDeque<FutureTask<T>>();
+
+        private OrderedIterator(Iterator<Callable<T>> callables, int maxInFlight, Executor executor) {
+            super(callables, maxInFlight, executor);
+        }
+
+        @Override
+        protected FutureTask<T> task(Callable<T> callable) {
+            FutureTask<T> task = new FutureTask<T>(callable);
+            window.add(task);
+            return task;
+        }
+
+        @Override
+        protected Future<T> nextDone() {
+            return window.poll();
+        }
+
+        @Override
+        protected void cancel() {
+            for (FutureTask<T> task : window) task.cancel(true);
+            window.clear();
+        }
+    }
+
+    private static final class CompletionIterator<T> extends WindowIterator<T> {
+        private final Set<FutureTask<T>> running = Collections.newSetFromMap(new ConcurrentHashMap<FutureTask<T>, Boolean>());
+        private final BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<Future<T>>();
+
+        private CompletionIterator(Iterator<Callable<T>> callables, int maxInFlight, Executor executor) {
+            super(callables, maxInFlight, executor);
+        }
+
+        @Override
+        protected FutureTask<T> task(Callable<T> callable) {
+            FutureTask<T> task = new FutureTask<T>(callable) {
+                @Override
+                protected void done() {
+                    running.remove(this);
+                    completed.add(this);
+                }
+            };
+            running.add(task);
+            return task;
+        }
+
+        @Override
+        protected Future<T> nextDone() throws InterruptedException {
+            return Concurrency.take(completed);
+        }
+
+        @Override
+        protected void cancel() {
+            for (FutureTask<T> task : running) task.cancel(true);
+            running.clear();
+            completed.clear();
+        }
+    }
+}
@@ -1,43 +1,50 @@
 package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.numbers.Numbers;
-import com.googlecode.totallylazy.predicates.LogicalPredicate;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
-import static com.googlecode.totallylazy.Callables.flip;
-import static com.googlecode.totallylazy.Callables.pair;
-import static com.googlecode.totallylazy.Callables.toClass;
+import static com.googlecode.totallylazy.LazyException.lazyException;
 import static com.googlecode.totallylazy.Methods.methodName;
-import static com.googlecode.totallylazy.Methods.parameterTypes;
 import static com.googlecode.totallylazy.Predicates.is;
-import static com.googlecode.totallylazy.Predicates.not;
-import static com.googlecode.totallylazy.Predicates.notNullValue;
-import static com.googlecode.totallylazy.Predicates.nullValue;
 import static com.googlecode.totallylazy.Predicates.where;
-import static com.googlecode.totallylazy.Sequences.sequence;
-import static com.googlecode.totallylazy.comparators.Comparators.by;
-import static com.googlecode.totallylazy.numbers.Numbers.ascending;
-import static com.googlecode.totallylazy.numbers.Numbers.minimum;
-import static com.googlecode.totallylazy.numbers.Numbers.sum;
 
 public class Dispatcher {
-    private final Class<?> aClass;
+    private static final int POLYMORPHIC_LIMIT = 8;
+    private static final ClassValue<ConcurrentMap<String, CallSites>> named = new ClassValue<ConcurrentMap<String, CallSites>>() {
+        @Override
+        protected ConcurrentMap<String, CallSites> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, CallSites>();
+        }
+    };
+    private static final ClassValue<Map<Class<?>, Integer>> depths = new ClassValue<Map<Class<?>, Integer>>() {
+        @Override
+        protected Map<Class<?>, Integer> computeValue(Class<?> type) {
+            return supertypeDepths(type);
+        }
+    };
+
     private final Object instance;
-    private final Predicate<? super Method> predicate;
-    private final ConcurrentMap<List<?>, Option<Method>> cache = new ConcurrentHashMap<List<?>, Option<Method>>();
+    private final CallSites callSites;
 
-    private Dispatcher(Class<?> aClass, Object instance, Predicate<? super Method> predicate) {
-        this.aClass = aClass;
+    private Dispatcher(Object instance, CallSites callSites) {
         this.instance = instance;
-        this.predicate = predicate;
+        this.callSites = callSites;
     }
 
     public static Dispatcher dispatcher(Class<?> aClass, String name) {
-        return dispatcher(aClass, where(methodName(), is(name)));
+        return new Dispatcher(null, named(aClass, name));
     }
 
     public static Dispatcher dispatcher(Class<?> aClass, Predicate<? super Method> predicate) {
@@ -45,7 +52,7 @@ public class Dispatcher {
     }
 
     public static Dispatcher dispatcher(Object instance, String name) {
-        return dispatcher(instance, where(methodName(), is(name)));
+        return new Dispatcher(instance, named(instance.getClass(), name));
     }
 
     public static Dispatcher dispatcher(Object instance, Predicate<? super Method> predicate) {
@@ -53,7 +60,11 @@ public class Dispatcher {
     }
 
     public static Dispatcher dispatcher(Class<?> aClass, Object instance, Predicate<? super Method> predicate) {
-        return new Dispatcher(aClass, instance, predicate);
+        return new Dispatcher(instance, new CallSites(aClass, predicate));
+    }
+
+    Dispatcher bind(Object instance) {
+        return new Dispatcher(instance, callSites);
     }
 
     public <T> T invoke(Object... args) {
@@ -61,70 +72,173 @@ public class Dispatcher {
     }
 
     public <T> Option<T> invokeOption(Object... args) {
-        final List<Class<?>> argumentClasses = sequence(args).map(toClass()).toList();
-        return computeIfAbsent(cache, argumentClasses, new Function<Option<Method>>() {
-            @Override
-            public Option<Method> call() throws Exception {
-                return Methods.allMethods(aClass).
-                        filter(predicate).
-                        filter(where(parameterTypes(), matches(argumentClasses))).
-                        sort(by(distanceFrom(argumentClasses), ascending())).
-                        headOption();
-            }
-        }).map(Methods.<T>invokeOn(instance, args));
+        CallSite site = callSites.lookup(args);
+        if (site.handle == null) return Option.none();
+        return Option.option(site.<T>invoke(instance, args));
     }
 
-    // Backported from Java 8
-    private <K,V> V computeIfAbsent(ConcurrentMap<K, V> cache, K key, Function<V> function) {
-        V v, newValue;
-        return ((v = cache.get(key)) == null &&
-                (newValue = function.apply()) != null &&
-                (v = cache.putIfAbsent(key, newValue)) == null) ? newValue : v;
+    private static CallSites named(Class<?> aClass, String name) {
+        ConcurrentMap<String, CallSites> sites = named.get(aClass);
+        CallSites callSites = sites.get(name);
+        if (callSites != null) return callSites;
+        CallSites newSites = new CallSites(aClass, where(methodName(), is(name)));
+        callSites = sites.putIfAbsent(name, newSites);
+        return callSites == null ? newSites : callSites;
+    }
 
+    private static double distanceFrom(Class<?>[] argumentClasses, Class<?>[] parameterTypes) {
+        double total = 0;
+        for (int i = 0; i < argumentClasses.length; i++) total += distanceBetween(argumentClasses[i], parameterTypes[i]).doubleValue();
+        return total;
     }
-    private static Mapper<Method, Number> distanceFrom(final Iterable<Class<?>> argumentClasses) {
-        return new Mapper<Method, Number>() {
-            @Override
-            public Number call(Method method) throws Exception {
-                return distanceFrom(argumentClasses, sequence(method.getParameterTypes()));
-            }
-        };
+
+    static Number distanceBetween(Class<?> argument, Class<?> parameterType) {
+        Integer depth = depths.get(argument).get(parameterType);
+        if (depth == null) return Numbers.POSITIVE_INFINITY;
+        if (depth == 0 || parameterType.isInterface()) return depth;
+        return depth * 1.1;
+    }
+
+    private static Map<Class<?>, Integer> supertypeDepths(Class<?> type) {
+        Map<Class<?>, Integer> result = new HashMap<Class<?>, Integer>();
+        ArrayDeque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        result.put(type, 0);
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.remove();
+            int depth = result.get(current) + 1;
+            for (Class<?> anInterface : current.getInterfaces()) visit(anInterface, depth, result, queue);
+            if (current.getSuperclass() != null) visit(current.getSuperclass(), depth, result, queue);
+        }
+        return result;
+    }
+
+    private static void visit(Class<?> type, int depth, Map<Class<?>, Integer> result, ArrayDeque<Class<?>> queue) {
+        if (result.containsKey(type)) return;
+        result.put(type, depth);
+        queue.add(type);
     }
 
-    static Number distanceFrom(Iterable<Class<?>> argumentClasses, Iterable<Class<?>> parameterTypes) {
-        return sequence(argumentClasses).zip(parameterTypes).map(distanceBetween().pair()).reduce(sum);
+    private static Class<?> classOf(Object value) {
+        return value == null ? Void.class : value.getClass();
     }
 
-    private static Function2<Class<?>, Class<?>, Number> distanceBetween() {
-        return new Function2<Class<?>, Class<?>, Number>() {
-            @Override
-            public Number call(Class<?> argument, Class<?> parameter) throws Exception {
-                return distanceBetween(argument, parameter);
+    private static final class CallSites {
+        private final Class<?> aClass;
+        private final Predicate<? super Method> predicate;
+        private volatile Method[] candidates;
+        private volatile CallSite[] polymorphic = new CallSite[0];
+        private final ConcurrentMap<List<Class<?>>, CallSite> megamorphic = new ConcurrentHashMap<List<Class<?>>, CallSite>();
+
+        private CallSites(Class<?> aClass, Predicate<? super Method> predicate) {
+            this.aClass = aClass;
+            this.predicate = predicate;
+        }
+
+        private CallSite lookup(Object[] args) {
+            CallSite[] sites = polymorphic;
+            for (CallSite site : sites) {
+                if (site.matches(args)) return site;
             }
-        };
+            Class<?>[] types = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) types[i] = classOf(args[i]);
+            if (sites.length == POLYMORPHIC_LIMIT) {
+                List<Class<?>> key = Arrays.asList(types);
+                CallSite site = megamorphic.get(key);
+                if (site != null) return site;
+                site = resolve(types);
+                CallSite existing = megamorphic.putIfAbsent(key, site);
+                return existing == null ? site : existing;
+            }
+            return add(resolve(types));
+        }
+
+        private synchronized CallSite add(CallSite site) {
+            CallSite[] sites = polymorphic;
+            for (CallSite existing : sites) {
+                if (Arrays.equals(existing.types, site.types)) return existing;
+            }
+            if (sites.length == POLYMORPHIC_LIMIT) {
+                CallSite existing = megamorphic.putIfAbsent(Arrays.<Class<?>>asList(site.types), site);
+                return existing == null ? site : existing;
+            }
+            CallSite[] grown = Arrays.copyOf(sites, sites.length + 1);
+            grown[sites.length] = site;
+            polymorphic = grown;
+            return site;
+        }
+
+        private CallSite resolve(Class<?>[] types) {
+            Method best = null;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (Method method : candidates()) {
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (!assignable(parameterTypes, types)) continue;
+                double distance = distanceFrom(types, parameterTypes);
+                if (best == null || distance < bestDistance) {
+                    best = method;
+                    bestDistance = distance;
+                }
+            }
+            return new CallSite(types, best == null ? null : handle(best));
+        }
+
+        private Method[] candidates() {
+            Method[] methods = candidates;
+            if (methods == null) candidates = methods = Methods.allMethods(aClass).filter(predicate).toArray(Method.class);
+            return methods;
+        }
+
+        private static boolean assignable(Class<?>[] parameterTypes, Class<?>[] types) {
+            if (parameterTypes.length != types.length) return false;
+            for (int i = 0; i < types.length; i++) {
+                if (!parameterTypes[i].isAssignableFrom(types[i])) return false;
+            }
+            return true;
+        }
+
+        private static MethodHandle handle(Method method) {
+            try {
+                method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                int arity = method.getParameterTypes().length;
+                handle = Modifier.isStatic(method.getModifiers()) ?
+                        MethodHandles.dropArguments(handle, 0, Object.class) :
+                        handle.asType(handle.type().changeParameterType(0, Object.class));
+                return handle.asType(MethodType.genericMethodType(arity + 1)).asSpreader(Object[].class, arity);
+            } catch (IllegalAccessException e) {
+                throw lazyException(e);
+            }
+        }
     }
 
-    static Number distanceBetween(Class<?> argument, Class<?> parameterType) {
-        if (argument.equals(parameterType)) return 0;
-        return Numbers.add(parameterType.isInterface() ? 1 : 1.1, sequence(argument.getInterfaces()).
-                append(argument.getSuperclass()).
-                filter(not(nullValue())).
-                map(distanceBetween().flip().apply(parameterType)).
-                reduce(minimum));
-    }
-
-    private static LogicalPredicate<Class<?>[]> matches(final Iterable<Class<?>> argumentClasses) {
-        return new LogicalPredicate<Class<?>[]>() {
-            @Override
-            public boolean matches(Class<?>[] classes) {
-                return sequence(classes).equals(argumentClasses, new LogicalPredicate<Pair<Class<?>, Class<?>>>() {
-                    @Override
-                    public boolean matches(Pair<Class<?>, Class<?>> pair) {
-                        return pair.first().isAssignableFrom(pair.second());
-                    }
-                });
+    private static final class CallSite {
+        private final Class<?>[] types;
+        private final MethodHandle handle;
+
+        private CallSite(Class<?>[] types, MethodHandle handle) {
+            this.types = types;
+            this.handle = handle;
+        }
+
+        private boolean matches(Object[] args) {
+            if (args.length != types.length) return false;
+            for (int i = 0; i < args.length; i++) {
+                if (classOf(args[i]) != types[i]) return false;
+            }
+            return true;
+        }
+
+        private <T> T invoke(Object instance, Object[] args) {
+            try {
+                return Unchecked.cast((Object) handle.invokeExact(instance, args));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw lazyException(e);
             }
-        };
+        }
     }
 }
-
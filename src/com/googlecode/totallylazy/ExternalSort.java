@@ -0,0 +1,172 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.ArrayIterator;
+import com.googlecode.totallylazy.iterators.MergeIterator;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.googlecode.totallylazy.Closeables.safeClose;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+class ExternalSort<T> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int RESET_EVERY = 1024;
+    private static final int MINIMUM_PARALLEL_CHUNK = 8192;
+    private final Comparator<Object> comparator;
+    private final SortOptions options;
+
+    ExternalSort(Comparator<? super T> comparator, SortOptions options) {
+        this.comparator = cast(comparator);
+        this.options = options;
+    }
+
+    Iterator<T> sort(Iterator<? extends T> iterator) {
+        List<Iterator<T>> runs = new ArrayList<Iterator<T>>();
+        try {
+            while (true) {
+                Object[] run = fill(iterator);
+                if (!iterator.hasNext() && runs.isEmpty()) return new ArrayIterator<T>(Unchecked.<T[]>cast(run));
+                if (!iterator.hasNext()) {
+                    runs.add(new ArrayIterator<T>(Unchecked.<T[]>cast(run)));
+                    return new MergeIterator<T>(runs, comparator);
+                }
+                runs.add(spill(run));
+            }
+        } catch (RuntimeException e) {
+            for (Iterator<T> run : runs) {
+                if (run instanceof Closeable) safeClose((Closeable) run);
+            }
+            throw e;
+        }
+    }
+
+    private Object[] fill(Iterator<? extends T> iterator) {
+        int limit = options.runSize();
+        Object[] run = new Object[Math.min(limit, 1024)];
+        int size = 0;
+        while (size < limit && iterator.hasNext()) {
+            if (size == run.length) run = Arrays.copyOf(run, (int) Math.min(limit, size * 2L));
+            run[size++] = iterator.next();
+        }
+        if (size < run.length) run = Arrays.copyOf(run, size);
+        sort(run);
+        return run;
+    }
+
+    private void sort(Object[] values) {
+        if (!options.parallel() || values.length <= MINIMUM_PARALLEL_CHUNK) {
+            Arrays.sort(values, comparator);
+            return;
+        }
+        ForkJoinPool pool = ParallelSequence.pool();
+        int threshold = Math.max(values.length / (pool.getParallelism() * 4), MINIMUM_PARALLEL_CHUNK);
+        pool.invoke(new ParallelSort(values, new Object[values.length], 0, values.length, threshold));
+    }
+
+    private Iterator<T> spill(Object[] run) {
+        // Not Files.temporaryFile: File.deleteOnExit keeps an entry per run for the life of the JVM, the shared
+        // shutdown hook forgets each run once it is deleted and only catches runs whose iterator was abandoned
+        File file = Files.deleteOnExit(new File(options.directory(), Files.randomFilename()));
+        SortOptions.Codec<T> codec = options.codec();
+        ObjectOutputStream output = null;
+        try {
+            output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            output.writeInt(run.length);
+            for (int i = 0; i < run.length; i++) {
+                codec.write(Unchecked.<T>cast(run[i]), output);
+                if (i % RESET_EVERY == RESET_EVERY - 1) output.reset();
+            }
+            output.close();
+            return new RunIterator<T>(file, codec);
+        } catch (Exception e) {
+            safeClose(output);
+            if (Files.delete(file)) Files.cancelDeleteOnExit(file);
+            throw LazyException.lazyException(e);
+        }
+    }
+
+    private static class RunIterator<T> extends StatefulIterator<T> implements Closeable {
+        private final File file;
+        private final SortOptions.Codec<T> codec;
+        private ObjectInputStream input;
+        private int remaining = -1;
+
+        private RunIterator(File file, SortOptions.Codec<T> codec) {
+            this.file = file;
+            this.codec = codec;
+        }
+
+        @Override
+        protected T getNext() throws Exception {
+            if (remaining == -1) {
+                input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+                remaining = input.readInt();
+            }
+            if (remaining == 0) {
+                close();
+                return finished();
+            }
+            remaining--;
+            return codec.read(input);
+        }
+
+        @Override
+        public void close() throws IOException {
+            remaining = 0;
+            safeClose(input);
+            if (Files.delete(file)) Files.cancelDeleteOnExit(file);
+        }
+    }
+
+    // Stable merge sort: ties keep the left half first, matching Arrays.sort
+    private class ParallelSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Object[] values;
+        private final Object[] scratch;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private ParallelSort(Object[] values, Object[] scratch, int from, int to, int threshold) {
+            this.values = values;
+            this.scratch = scratch;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                Arrays.sort(values, from, to, comparator);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParallelSort(values, scratch, from, middle, threshold),
+                    new ParallelSort(values, scratch, middle, to, threshold));
+            if (comparator.compare(values[middle - 1], values[middle]) <= 0) return;
+            System.arraycopy(values, from, scratch, from, middle - from);
+            int left = from, right = middle, index = from;
+            while (left < middle && right < to) {
+                values[index++] = comparator.compare(values[right], scratch[left]) < 0 ? values[right++] : scratch[left++];
+            }
+            System.arraycopy(scratch, left, values, index, middle - left);
+        }
+    }
+}
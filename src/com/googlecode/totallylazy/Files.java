@@ -233,6 +233,11 @@ public class Files {
         return directory;
     }
 
+    public static File cancelDeleteOnExit(File file) {
+        delete.remove(file);
+        return file;
+    }
+
     private static Set<File> delete = Sets.concurrentSet();
 
     static {
@@ -3,6 +3,7 @@ package com.googlecode.totallylazy;
 import com.googlecode.totallylazy.collections.PersistentList;
 import com.googlecode.totallylazy.iterators.FilterIterator;
 import com.googlecode.totallylazy.iterators.FlattenIterator;
+import com.googlecode.totallylazy.iterators.GroupAdjacentIterator;
 import com.googlecode.totallylazy.iterators.InitIterator;
 import com.googlecode.totallylazy.iterators.IterateIterator;
 import com.googlecode.totallylazy.iterators.MapIterator;
@@ -20,6 +21,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -410,10 +412,58 @@ public class Iterators {
         });
     }
 
+    public static <T, Key, R> Map<Key, R> groupBy(final Iterator<? extends T> iterator, final Callable1<? super T, ? extends Key> callable, final Reducer<? super T, R> reducer) {
+        Map<Key, R> result = new LinkedHashMap<Key, R>();
+        while (iterator.hasNext()) {
+            T value = iterator.next();
+            Key key = Callers.call(callable, value);
+            R accumulator = result.get(key);
+            if (accumulator == null && !result.containsKey(key)) accumulator = reducer.identity();
+            result.put(key, Callers.call(reducer, accumulator, value));
+        }
+        return result;
+    }
+
+    public static <T, Key> Sequence<Group<Key, T>> groupAdjacent(final Iterator<? extends T> iterator, final Callable1<? super T, ? extends Key> callable) {
+        return Sequences.forwardOnly(groupAdjacent(iterator, callable, Iterators.<T>appendToList())).map(new Callable1<Pair<Key, List<T>>, Group<Key, T>>() {
+            @Override
+            public Group<Key, T> call(Pair<Key, List<T>> pair) throws Exception {
+                return new Group<Key, T>(pair.first(), pair.second());
+            }
+        });
+    }
+
+    public static <T, Key, R> Iterator<Pair<Key, R>> groupAdjacent(final Iterator<? extends T> iterator, final Callable1<? super T, ? extends Key> callable, final Reducer<? super T, R> reducer) {
+        return new GroupAdjacentIterator<T, Key, R>(iterator, callable, reducer);
+    }
+
+    private static <T> Reducer<T, List<T>> appendToList() {
+        return new ReducerFunction<T, List<T>>() {
+            @Override
+            public List<T> call(List<T> list, T value) throws Exception {
+                list.add(value);
+                return list;
+            }
+
+            @Override
+            public List<T> identity() {
+                return new ArrayList<T>();
+            }
+        };
+    }
+
     public static <T> Iterator<Sequence<T>> windowed(final Iterator<? extends T> iterator, final int size) {
         return new WindowedIterator<T>(iterator, size);
     }
 
+    public static <T> Iterator<Sequence<T>> windowed(final Iterator<? extends T> iterator, final int size, final int step) {
+        return new WindowedIterator<T>(iterator, size, step, false);
+    }
+
+    public static <T> Iterator<Sequence<T>> grouped(final Iterator<? extends T> iterator, final int size) {
+        return new WindowedIterator<T>(iterator, size, size, true);
+    }
+
     public static <T> LogicalPredicate<Iterator<T>> hasNext() {
         return new LogicalPredicate<Iterator<T>>() {
             public boolean matches(Iterator<T> iterator) {
@@ -0,0 +1,158 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+
+public class MappedLines extends Sequence<CharSequence> {
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private final File file;
+    private final long start;
+    private final long end;
+    private final int chunkSize;
+
+    private MappedLines(File file, long start, long end, int chunkSize) {
+        if (start < 0 || end < start) throw new IllegalArgumentException(String.format("Invalid byte range %s to %s", start, end));
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive");
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.chunkSize = chunkSize;
+    }
+
+    public static MappedLines mappedLines(File file) {
+        return mappedLines(file, 0, Long.MAX_VALUE);
+    }
+
+    public static MappedLines mappedLines(File file, long start, long end) {
+        return mappedLines(file, start, end, DEFAULT_CHUNK_SIZE);
+    }
+
+    public static MappedLines mappedLines(File file, long start, long end, int chunkSize) {
+        return new MappedLines(file, start, end, chunkSize);
+    }
+
+    public Sequence<MappedLines> split(int parts) {
+        long size = Math.min(file.length(), end) - start;
+        if (parts < 1) throw new IllegalArgumentException("Parts must be positive");
+        List<MappedLines> splits = new ArrayList<MappedLines>(parts);
+        if (size <= 0) splits.add(this);
+        long step = Math.max(1, (size + parts - 1) / parts);
+        for (long from = start; from < start + size; from += step) {
+            long to = Math.min(from + step, start + size);
+            splits.add(new MappedLines(file, from, to == start + size ? end : to, chunkSize));
+        }
+        return sequence(splits);
+    }
+
+    public Sequence<String> strings() {
+        return map(Callables.asString());
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new LineIterator();
+    }
+
+    private class LineIterator extends StatefulIterator<CharSequence> implements Closeable {
+        private final CharsetDecoder decoder = Strings.UTF8.newDecoder().
+                onMalformedInput(CodingErrorAction.REPLACE).
+                onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private FileChannel channel;
+        private long size;
+        private long position;
+        private char[] chars;
+        private int index;
+        private int limit;
+
+        @Override
+        protected CharSequence getNext() throws Exception {
+            if (channel == null) open();
+            while (index >= limit) {
+                if (!decodeChunk()) {
+                    close();
+                    return finished();
+                }
+            }
+            int lineEnd = index;
+            while (lineEnd < limit && chars[lineEnd] != '\n' && chars[lineEnd] != '\r') lineEnd++;
+            CharSequence line = CharBuffer.wrap(chars, index, lineEnd - index).slice();
+            index = lineEnd;
+            if (index < limit && chars[index] == '\r') index++;
+            if (index < limit && chars[index] == '\n' && (index == lineEnd || chars[index - 1] == '\r')) index++;
+            return line;
+        }
+
+        private void open() throws IOException {
+            channel = new FileInputStream(file).getChannel();
+            size = Math.min(channel.size(), end);
+            position = start == 0 ? 0 : lineStartFrom(start);
+        }
+
+        private long lineStartFrom(long offset) throws IOException {
+            long from = offset - 1;
+            while (from < channel.size()) {
+                int length = (int) Math.min(chunkSize, channel.size() - from);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                for (int i = 0; i < length; i++) {
+                    if (bytes.get(i) == '\n') return from + i + 1;
+                }
+                from += length;
+            }
+            return from;
+        }
+
+        private boolean decodeChunk() throws IOException {
+            if (position >= size) return false;
+            long available = channel.size() - position;
+            long length = Math.min(chunkSize, available);
+            while (true) {
+                if (length > Integer.MAX_VALUE) throw new IOException("Line longer than " + Integer.MAX_VALUE + " bytes");
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int take = boundary(bytes, (int) length, length == available);
+                if (take > 0) {
+                    bytes.limit(take);
+                    CharBuffer decoded = decoder.reset().decode(bytes);
+                    chars = decoded.array();
+                    index = decoded.arrayOffset() + decoded.position();
+                    limit = decoded.arrayOffset() + decoded.limit();
+                    position += take;
+                    return true;
+                }
+                length = Math.min(length * 2, available);
+            }
+        }
+
+        private int boundary(MappedByteBuffer bytes, int length, boolean endOfFile) {
+            long lastStart = size - position;
+            if (lastStart <= length) {
+                for (int i = (int) lastStart - 1; i < length; i++) {
+                    if (bytes.get(i) == '\n') return i + 1;
+                }
+            } else {
+                for (int i = length - 1; i >= 0; i--) {
+                    if (bytes.get(i) == '\n') return i + 1;
+                }
+            }
+            return endOfFile ? length : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) channel.close();
+        }
+    }
+}
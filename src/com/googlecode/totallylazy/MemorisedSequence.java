@@ -0,0 +1,176 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class MemorisedSequence<T> extends Sequence<T> implements Memory {
+    private static final int FIRST_CHUNK = 8;
+    private static final int MAX_CHUNK = 1024;
+    private volatile Chunk<T> chunk;
+    private final int index;
+    private final boolean head;
+
+    private MemorisedSequence(Chunk<T> chunk, int index, boolean head) {
+        this.chunk = chunk;
+        this.index = index;
+        this.head = head;
+    }
+
+    public static <T> MemorisedSequence<T> memorise(Iterable<? extends T> iterable) {
+        return new MemorisedSequence<T>(new Source<T>(iterable, null).last, 0, true);
+    }
+
+    public static <T> MemorisedSequence<T> memorise(Iterator<? extends T> iterator) {
+        return new MemorisedSequence<T>(new Source<T>(null, iterator).last, 0, true);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new ChunkIterator<T>(chunk, index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public T head() {
+        return iterator().next();
+    }
+
+    @Override
+    public Option<T> headOption() {
+        Iterator<T> iterator = iterator();
+        return iterator.hasNext() ? Option.some(iterator.next()) : Option.<T>none();
+    }
+
+    @Override
+    public MemorisedSequence<T> tail() {
+        ChunkIterator<T> iterator = new ChunkIterator<T>(chunk, index);
+        iterator.next();
+        return new MemorisedSequence<T>(iterator.chunk, iterator.index, false);
+    }
+
+    @Override
+    public T get(int index) {
+        ChunkIterator<T> iterator = new ChunkIterator<T>(chunk, this.index);
+        if (index < 0 || !iterator.skip(index)) throw new NoSuchElementException();
+        return iterator.next();
+    }
+
+    @Override
+    public MemorisedSequence<T> memorise() {
+        return this;
+    }
+
+    @Override
+    public void forget() {
+        if (head) chunk = chunk.source.reset().last;
+    }
+
+    @Override
+    public void close() {
+        chunk.source.close();
+        forget();
+    }
+
+    // Only points forward (to the last chunk) so iterators and tails do not keep the realised prefix reachable
+    private static final class Source<T> {
+        private final Iterable<? extends T> iterable;
+        private Iterator<? extends T> iterator;
+        private Chunk<T> last = new Chunk<T>(this, FIRST_CHUNK);
+
+        private Source(Iterable<? extends T> iterable, Iterator<? extends T> iterator) {
+            this.iterable = iterable;
+            this.iterator = iterator;
+        }
+
+        // Realises the element at index unless another reader got there first; memorised values are read without locking.
+        private synchronized void pull(Chunk<T> chunk, int index) {
+            if (chunk != last || index < last.size || last.finished) return;
+            if (iterator == null) iterator = iterable.iterator();
+            if (!iterator.hasNext()) {
+                last.finished = true;
+                return;
+            }
+            T value = iterator.next();
+            if (last.size == last.values.length) {
+                Chunk<T> next = new Chunk<T>(this, Math.min(last.values.length * 2, MAX_CHUNK));
+                next.values[0] = value;
+                next.size = 1;
+                last.next = next;
+                last = next;
+                return;
+            }
+            last.values[last.size] = value;
+            last.size = last.size + 1;
+        }
+
+        private synchronized Source<T> reset() {
+            return new Source<T>(iterable, iterable == null ? iterator : null);
+        }
+
+        private synchronized void close() {
+            if (iterator instanceof Closeable) Closeables.safeClose((Closeable) iterator);
+        }
+    }
+
+    private static final class Chunk<T> {
+        private final Source<T> source;
+        private final Object[] values;
+        private volatile int size;
+        private volatile boolean finished;
+        private volatile Chunk<T> next;
+
+        private Chunk(Source<T> source, int capacity) {
+            this.source = source;
+            this.values = new Object[capacity];
+        }
+    }
+
+    private static final class ChunkIterator<T> extends ReadOnlyIterator<T> {
+        private Chunk<T> chunk;
+        private int index;
+
+        private ChunkIterator(Chunk<T> chunk, int index) {
+            this.chunk = chunk;
+            this.index = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (index < chunk.size) return true;
+                if (index == chunk.values.length && chunk.next != null) {
+                    chunk = chunk.next;
+                    index = 0;
+                    continue;
+                }
+                if (chunk.finished) return false;
+                chunk.source.pull(chunk, index);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return cast(chunk.values[index++]);
+        }
+
+        private boolean skip(int count) {
+            while (count > 0) {
+                if (!hasNext()) return false;
+                int available = Math.min(count, chunk.size - index);
+                index += available;
+                count -= available;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.EmptyIterator;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class ParallelSequence<T> extends Sequence<T> {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_BATCH = 1 << 16;
+    private final Iterable<?> source;
+    private final Callable1<Iterator<Object>, Iterator<T>> pipeline;
+    private final ForkJoinPool pool;
+
+    private ParallelSequence(Iterable<?> source, Callable1<Iterator<Object>, Iterator<T>> pipeline, ForkJoinPool pool) {
+        this.source = source;
+        this.pipeline = pipeline;
+        this.pool = pool;
+    }
+
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> source, final ForkJoinPool pool) {
+        return new ParallelSequence<T>(source, Unchecked.<Callable1<Iterator<Object>, Iterator<T>>>cast(Functions.<Iterator<Object>>identity()), pool);
+    }
+
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> source) {
+        return parallel(source, pool());
+    }
+
+    public static ForkJoinPool pool() {
+        return SharedPool.pool;
+    }
+
+    // Pulls the source in growing batches and runs each one through the pool, so take, first and find stop early
+    @Override
+    public Iterator<T> iterator() {
+        final Iterator<?> iterator = source.iterator();
+        return new StatefulIterator<T>() {
+            private int batch = pool.getParallelism() * CHUNKS_PER_THREAD;
+            private Iterator<T> current = new EmptyIterator<T>();
+
+            @Override
+            protected T getNext() throws Exception {
+                while (!current.hasNext()) {
+                    if (!iterator.hasNext()) return finished();
+                    List<Object> items = new ArrayList<Object>(batch);
+                    while (items.size() < batch && iterator.hasNext()) items.add(iterator.next());
+                    current = compute(items, ParallelSequence.<T>collect(), ParallelSequence.<T>append()).iterator();
+                    batch = Math.min(batch * 2, MAX_BATCH);
+                }
+                return current.next();
+            }
+        };
+    }
+
+    public Sequence<T> sequential() {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return chunk(source.iterator());
+            }
+        };
+    }
+
+    @Override
+    public ParallelSequence<T> parallel() {
+        return this;
+    }
+
+    @Override
+    public <S> ParallelSequence<S> map(final Callable1<? super T, ? extends S> callable) {
+        return then(new Function1<Iterator<T>, Iterator<S>>() {
+            @Override
+            public Iterator<S> call(Iterator<T> iterator) throws Exception {
+                return Iterators.map(iterator, callable);
+            }
+        });
+    }
+
+    @Override
+    public ParallelSequence<T> filter(final Predicate<? super T> predicate) {
+        return then(new Function1<Iterator<T>, Iterator<T>>() {
+            @Override
+            public Iterator<T> call(Iterator<T> iterator) throws Exception {
+                return Iterators.filter(iterator, predicate);
+            }
+        });
+    }
+
+    @Override
+    public <S> ParallelSequence<S> flatMap(final Callable1<? super T, ? extends Iterable<? extends S>> callable) {
+        return then(new Function1<Iterator<T>, Iterator<S>>() {
+            @Override
+            public Iterator<S> call(Iterator<T> iterator) throws Exception {
+                return Iterators.flatMap(iterator, callable);
+            }
+        });
+    }
+
+    @Override
+    public <S> S fold(final S seed, final Callable2<? super S, ? super T, ? extends S> callable) {
+        if (!(callable instanceof ReducerCombiner)) return super.fold(seed, callable);
+        ReducerCombiner<T, S> reducer = cast(callable);
+        return call(combiner(reducer), seed, reduce(reducer));
+    }
+
+    @Override
+    public <S> S reduce(final Callable2<? super S, ? super T, ? extends S> callable) {
+        if (!(callable instanceof ReducerCombiner)) return super.reduce(callable);
+        return reduce(Unchecked.<ReducerCombiner<T, S>>cast(callable));
+    }
+
+    public <S> S reduce(final ReducerCombiner<? super T, S> reducer) {
+        return compute(new Function1<Iterator<T>, S>() {
+            @Override
+            public S call(Iterator<T> iterator) throws Exception {
+                return Iterators.fold(iterator, reducer.identity(), reducer);
+            }
+        }, combiner(reducer));
+    }
+
+    // Every chunk starts from the same identity, so it must not be mutated by the reducer; use reduce(ReducerCombiner) for mutable accumulators
+    public <S> S fold(final S identity, final Callable2<? super S, ? super T, ? extends S> reducer, final Callable2<? super S, ? super S, ? extends S> combiner) {
+        return compute(new Function1<Iterator<T>, S>() {
+            @Override
+            public S call(Iterator<T> iterator) throws Exception {
+                return Iterators.fold(iterator, identity, reducer);
+            }
+        }, combiner);
+    }
+
+    @Override
+    public List<T> toList() {
+        return compute(ParallelSequence.<T>collect(), ParallelSequence.<T>append());
+    }
+
+    @Override
+    public int size() {
+        return compute(new Function1<Iterator<T>, Integer>() {
+            @Override
+            public Integer call(Iterator<T> iterator) throws Exception {
+                return Iterators.size(iterator);
+            }
+        }, new Function2<Integer, Integer, Integer>() {
+            @Override
+            public Integer call(Integer a, Integer b) throws Exception {
+                return a + b;
+            }
+        });
+    }
+
+    @Override
+    public <K> Map<K, List<T>> toMap(final Callable1<? super T, ? extends K> callable) {
+        return compute(new Function1<Iterator<T>, Map<K, List<T>>>() {
+            @Override
+            public Map<K, List<T>> call(Iterator<T> iterator) throws Exception {
+                return Maps.multiMap(new LinkedHashMap<K, List<T>>(), iterator, callable);
+            }
+        }, new Function2<Map<K, List<T>>, Map<K, List<T>>, Map<K, List<T>>>() {
+            @Override
+            public Map<K, List<T>> call(Map<K, List<T>> a, Map<K, List<T>> b) throws Exception {
+                for (Map.Entry<K, List<T>> entry : b.entrySet()) {
+                    List<T> values = a.get(entry.getKey());
+                    if (values == null) a.put(entry.getKey(), entry.getValue());
+                    else values.addAll(entry.getValue());
+                }
+                return a;
+            }
+        });
+    }
+
+    @Override
+    public <K> Sequence<Group<K, T>> groupBy(final Callable1<? super T, ? extends K> callable) {
+        return Maps.entries(toMap(callable)).map(new Callable1<Map.Entry<K, List<T>>, Group<K, T>>() {
+            @Override
+            public Group<K, T> call(Map.Entry<K, List<T>> entry) throws Exception {
+                return new Group<K, T>(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+
+    @Override
+    public <K, R> Map<K, R> groupBy(final Callable1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        if (!(reducer instanceof ReducerCombiner)) return super.groupBy(callable, reducer);
+        final ReducerCombiner<? super T, R> combiner = cast(reducer);
+        return compute(new Function1<Iterator<T>, Map<K, R>>() {
+            @Override
+            public Map<K, R> call(Iterator<T> iterator) throws Exception {
+                return Iterators.groupBy(iterator, callable, reducer);
+            }
+        }, new Function2<Map<K, R>, Map<K, R>, Map<K, R>>() {
+            @Override
+            public Map<K, R> call(Map<K, R> a, Map<K, R> b) throws Exception {
+                for (Map.Entry<K, R> entry : b.entrySet()) {
+                    R value = a.get(entry.getKey());
+                    a.put(entry.getKey(), value == null && !a.containsKey(entry.getKey()) ? entry.getValue() : combiner.combine(value, entry.getValue()));
+                }
+                return a;
+            }
+        });
+    }
+
+    private <S> ParallelSequence<S> then(final Callable1<Iterator<T>, Iterator<S>> stage) {
+        return new ParallelSequence<S>(source, new Function1<Iterator<Object>, Iterator<S>>() {
+            @Override
+            public Iterator<S> call(Iterator<Object> iterator) throws Exception {
+                return stage.call(pipeline.call(iterator));
+            }
+        }, pool);
+    }
+
+    private Iterator<T> chunk(Iterator<?> iterator) {
+        return call(pipeline, Unchecked.<Iterator<Object>>cast(iterator));
+    }
+
+    private <R> R compute(final Callable1<Iterator<T>, R> leaf, final Callable2<? super R, ? super R, ? extends R> combiner) {
+        return compute(list(source), leaf, combiner);
+    }
+
+    private <R> R compute(final List<?> list, final Callable1<Iterator<T>, R> leaf, final Callable2<? super R, ? super R, ? extends R> combiner) {
+        int threshold = Math.max(list.size() / (pool.getParallelism() * CHUNKS_PER_THREAD), 1);
+        return pool.invoke(new Chunk<R>(list, 0, list.size(), threshold, leaf, combiner));
+    }
+
+    private static List<?> list(Iterable<?> iterable) {
+        if (iterable instanceof List && iterable instanceof RandomAccess) return (List<?>) iterable;
+        List<Object> result = new ArrayList<Object>();
+        for (Object o : iterable) result.add(o);
+        return result;
+    }
+
+    private static <S> Callable1<Iterator<S>, List<S>> collect() {
+        return new Function1<Iterator<S>, List<S>>() {
+            @Override
+            public List<S> call(Iterator<S> iterator) throws Exception {
+                return Iterators.toList(iterator);
+            }
+        };
+    }
+
+    private static <S> Callable2<List<S>, List<S>, List<S>> append() {
+        return new Function2<List<S>, List<S>, List<S>>() {
+            @Override
+            public List<S> call(List<S> a, List<S> b) throws Exception {
+                a.addAll(b);
+                return a;
+            }
+        };
+    }
+
+    private static <T, S> Callable2<S, S, S> combiner(final ReducerCombiner<? super T, S> reducer) {
+        return new Function2<S, S, S>() {
+            @Override
+            public S call(S a, S b) throws Exception {
+                return reducer.combine(a, b);
+            }
+        };
+    }
+
+    private class Chunk<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+        private final List<?> list;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final Callable1<Iterator<T>, R> leaf;
+        private final Callable2<? super R, ? super R, ? extends R> combiner;
+
+        private Chunk(List<?> list, int from, int to, int threshold, Callable1<Iterator<T>, R> leaf, Callable2<? super R, ? super R, ? extends R> combiner) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.leaf = leaf;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) return call(leaf, chunk(list.subList(from, to).iterator()));
+            int middle = (from + to) >>> 1;
+            Chunk<R> left = new Chunk<R>(list, from, middle, threshold, leaf, combiner);
+            Chunk<R> right = new Chunk<R>(list, middle, to, threshold, leaf, combiner);
+            left.fork();
+            R rightResult = right.compute();
+            return call(combiner, left.join(), rightResult);
+        }
+    }
+
+    private static class SharedPool {
+        private static final ForkJoinPool pool = new ForkJoinPool();
+    }
+}
@@ -0,0 +1,305 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.Closeables.safeClose;
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+// Chains of map/filter/take/drop are recorded as stages and pushed through in one loop at the terminal operation
+class PipelineSequence<T> extends Sequence<T> {
+    private final Iterable<?> source;
+    private final Stage[] stages;
+
+    private PipelineSequence(Iterable<?> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    static <T> PipelineSequence<T> pipeline(Iterable<? extends T> iterable) {
+        if (iterable instanceof PipelineSequence) return cast(iterable);
+        return new PipelineSequence<T>(iterable, new Stage[0]);
+    }
+
+    private <S> PipelineSequence<S> then(Stage stage) {
+        Stage[] extended = Arrays.copyOf(stages, stages.length + 1);
+        extended[stages.length] = stage;
+        return new PipelineSequence<S>(source, extended);
+    }
+
+    @Override
+    public <S> Sequence<S> map(final Callable1<? super T, ? extends S> callable) {
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    @Override
+                    boolean accept(Object value) {
+                        return downstream.accept(call(callable, Unchecked.<T>cast(value)));
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Sequence<T> filter(final Predicate<? super T> predicate) {
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    @Override
+                    boolean accept(Object value) {
+                        return !predicate.matches(Unchecked.<T>cast(value)) || downstream.accept(value);
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Sequence<T> take(final int count) {
+        if (count <= 0) return Sequences.empty();
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    private int remaining = count;
+
+                    @Override
+                    boolean accept(Object value) {
+                        return downstream.accept(value) && --remaining > 0;
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Sequence<T> takeWhile(final Predicate<? super T> predicate) {
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    @Override
+                    boolean accept(Object value) {
+                        return predicate.matches(Unchecked.<T>cast(value)) && downstream.accept(value);
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Sequence<T> drop(final int count) {
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    private int remaining = count;
+
+                    @Override
+                    boolean accept(Object value) {
+                        if (remaining > 0) {
+                            remaining--;
+                            return true;
+                        }
+                        return downstream.accept(value);
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Sequence<T> dropWhile(final Predicate<? super T> predicate) {
+        return then(new Stage() {
+            @Override
+            Sink wrap(final Sink downstream) {
+                return new Sink() {
+                    private boolean dropping = true;
+
+                    @Override
+                    boolean accept(Object value) {
+                        if (dropping && predicate.matches(Unchecked.<T>cast(value))) return true;
+                        dropping = false;
+                        return downstream.accept(value);
+                    }
+                };
+            }
+        });
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (stages.length == 0) return cast(source.iterator());
+        return new PipelineIterator();
+    }
+
+    @Override
+    public <S> S fold(final S seed, final Callable2<? super S, ? super T, ? extends S> callable) {
+        return foldLeft(seed, callable);
+    }
+
+    @Override
+    public <S> S foldLeft(final S seed, final Callable2<? super S, ? super T, ? extends S> callable) {
+        final Object[] accumulator = {seed};
+        run(new Sink() {
+            @Override
+            boolean accept(Object value) {
+                accumulator[0] = call(callable, Unchecked.<S>cast(accumulator[0]), Unchecked.<T>cast(value));
+                return true;
+            }
+        });
+        return cast(accumulator[0]);
+    }
+
+    @Override
+    public void forEach(final Callable1<? super T, ?> runnable) {
+        run(new Sink() {
+            @Override
+            boolean accept(Object value) {
+                call(runnable, Unchecked.<T>cast(value));
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public List<T> toList() {
+        final List<T> result = new ArrayList<T>();
+        run(new Sink() {
+            @Override
+            boolean accept(Object value) {
+                result.add(Unchecked.<T>cast(value));
+                return true;
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public int size() {
+        final int[] count = {0};
+        run(new Sink() {
+            @Override
+            boolean accept(Object value) {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    @Override
+    public Option<T> find(final Predicate<? super T> predicate) {
+        final List<T> found = new ArrayList<T>(1);
+        run(new Sink() {
+            @Override
+            boolean accept(Object value) {
+                T item = cast(value);
+                if (!predicate.matches(item)) return true;
+                found.add(item);
+                return false;
+            }
+        });
+        return found.isEmpty() ? Option.<T>none() : Option.some(found.get(0));
+    }
+
+    @Override
+    public T first() {
+        return head();
+    }
+
+    @Override
+    public T head() {
+        Option<T> head = headOption();
+        if (head.isEmpty()) throw new NoSuchElementException();
+        return head.get();
+    }
+
+    @Override
+    public Option<T> headOption() {
+        return find(Predicates.<T>always());
+    }
+
+    @Override
+    public boolean exists(final Predicate<? super T> predicate) {
+        return find(predicate).isDefined();
+    }
+
+    @Override
+    public boolean forAll(final Predicate<? super T> predicate) {
+        return !find(Predicates.not(predicate)).isDefined();
+    }
+
+    private void run(Sink terminal) {
+        Sink head = sink(terminal);
+        Iterator<?> iterator = source.iterator();
+        boolean exhausted = false;
+        try {
+            while (iterator.hasNext()) {
+                if (!head.accept(iterator.next())) return;
+            }
+            exhausted = true;
+        } finally {
+            if (!exhausted) close(iterator);
+        }
+    }
+
+    // Lets sources such as mapConcurrently cancel outstanding work once the pipeline stops early
+    private static void close(Iterator<?> iterator) {
+        if (iterator instanceof Closeable) safeClose((Closeable) iterator);
+    }
+
+    private Sink sink(Sink terminal) {
+        Sink sink = terminal;
+        for (int i = stages.length - 1; i >= 0; i--) sink = stages[i].wrap(sink);
+        return sink;
+    }
+
+    private class PipelineIterator extends StatefulIterator<T> {
+        private final Iterator<?> iterator = source.iterator();
+        private boolean more = true;
+        private boolean ready;
+        private Object value;
+        private final Sink head = sink(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                value = item;
+                ready = true;
+                return true;
+            }
+        });
+
+        @Override
+        protected T getNext() throws Exception {
+            while (more && iterator.hasNext()) {
+                more = head.accept(iterator.next());
+                if (!more) close(iterator);
+                if (ready) {
+                    ready = false;
+                    T result = cast(value);
+                    value = null;
+                    return result;
+                }
+            }
+            return finished();
+        }
+    }
+
+    private static abstract class Stage {
+        abstract Sink wrap(Sink downstream);
+    }
+
+    private static abstract class Sink {
+        abstract boolean accept(Object value);
+    }
+}
@@ -1,9 +1,13 @@
 package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.collections.AbstractCollection;
+import com.googlecode.totallylazy.collections.BoundedHeap;
 import com.googlecode.totallylazy.collections.Indexed;
 import com.googlecode.totallylazy.collections.PersistentCollection;
 import com.googlecode.totallylazy.collections.PersistentList;
+import com.googlecode.totallylazy.comparators.Comparators;
+import com.googlecode.totallylazy.time.Clock;
+import com.googlecode.totallylazy.time.SystemClock;
 
 import java.util.Collection;
 import java.util.Comparator;
@@ -13,6 +17,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.totallylazy.Callables.ascending;
 import static com.googlecode.totallylazy.Callables.returnArgument;
@@ -67,6 +73,22 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.mapConcurrently(this, callable, executor);
     }
 
+    public <S> Sequence<S> mapConcurrently(final Callable1<? super T, S> callable, final int maxInFlight) {
+        return Sequences.mapConcurrently(this, callable, maxInFlight);
+    }
+
+    public <S> Sequence<S> mapConcurrently(final Callable1<? super T, S> callable, final int maxInFlight, final Executor executor) {
+        return Sequences.mapConcurrently(this, callable, maxInFlight, executor);
+    }
+
+    public <S> Sequence<S> mapInCompletionOrder(final Callable1<? super T, S> callable, final int maxInFlight) {
+        return Sequences.mapInCompletionOrder(this, callable, maxInFlight);
+    }
+
+    public <S> Sequence<S> mapInCompletionOrder(final Callable1<? super T, S> callable, final int maxInFlight, final Executor executor) {
+        return Sequences.mapInCompletionOrder(this, callable, maxInFlight, executor);
+    }
+
     @Override
     public <S> Sequence<S> map(final Callable1<? super T, ? extends S> callable) {
         return Sequences.map(this, callable);
@@ -214,6 +236,30 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.unique(this, callable);
     }
 
+    public <S> Sequence<T> uniqueRecent(Callable1<? super T, ? extends S> callable, int capacity) {
+        return Sequences.uniqueRecent(this, callable, capacity);
+    }
+
+    public <S> Sequence<T> uniqueWithin(Callable1<? super T, ? extends S> callable, long duration, TimeUnit unit) {
+        return uniqueWithin(callable, duration, unit, new SystemClock());
+    }
+
+    public <S> Sequence<T> uniqueWithin(Callable1<? super T, ? extends S> callable, long duration, TimeUnit unit, Clock clock) {
+        return Sequences.uniqueWithin(this, callable, duration, unit, clock);
+    }
+
+    public Sequence<T> uniqueAdjacent() {
+        return uniqueAdjacent(returnArgument());
+    }
+
+    public <S> Sequence<T> uniqueAdjacent(Callable1<? super T, ? extends S> callable) {
+        return Sequences.uniqueAdjacent(this, callable);
+    }
+
+    public <S> Sequence<T> uniqueApproximately(Callable1<? super T, ? extends S> callable, long expectedInsertions, double falsePositiveRate) {
+        return Sequences.uniqueApproximately(this, callable, expectedInsertions, falsePositiveRate);
+    }
+
     @Override
     public Sequence<T> empty() {
         return Sequences.empty();
@@ -328,6 +374,14 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.forwardOnly(this);
     }
 
+    public ParallelSequence<T> parallel() {
+        return Sequences.parallel(this);
+    }
+
+    public ParallelSequence<T> parallel(ForkJoinPool pool) {
+        return Sequences.parallel(this, pool);
+    }
+
     public <S> Sequence<Pair<T, S>> zip(final Iterable<? extends S> second) {
         return Sequences.zip(this, second);
     }
@@ -368,6 +422,36 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.sortBy(this, comparator);
     }
 
+    public <R extends Comparable<? super R>> Sequence<T> sortedLazily(final Callable1<? super T, ? extends R> callable) {
+        return sortedLazily(ascending(callable));
+    }
+
+    public Sequence<T> sortedLazily(final Comparator<? super T> comparator) {
+        return Sequences.sortedLazily(this, comparator);
+    }
+
+    public Sequence<T> top(final int count, final Comparator<? super T> comparator) {
+        return bottom(count, Comparators.reverse(comparator));
+    }
+
+    public <R extends Comparable<? super R>> Sequence<T> top(final int count, final Callable1<? super T, ? extends R> callable) {
+        return top(count, ascending(callable));
+    }
+
+    public Sequence<T> bottom(final int count, final Comparator<? super T> comparator) {
+        return sequence(fold(BoundedHeap.<T>boundedHeap(count, comparator), BoundedHeap.functions.<T>least(count, comparator)).toList());
+    }
+
+    public <R extends Comparable<? super R>> Sequence<T> bottom(final int count, final Callable1<? super T, ? extends R> callable) {
+        return bottom(count, ascending(callable));
+    }
+
+    // External runs are deleted when drained or when the iterator is closed (take, first, find... do this); close an
+    // iterator you stop early yourself, otherwise its runs stay on disk until the JVM exits
+    public Sequence<T> sortBy(final Comparator<? super T> comparator, final SortOptions options) {
+        return Sequences.sortBy(this, comparator, options);
+    }
+
     public <S> Sequence<S> safeCast(final Class<? extends S> aClass) {
         return Sequences.safeCast(this, aClass);
     }
@@ -396,6 +480,18 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.groupBy(this, callable);
     }
 
+    public <K, R> Map<K, R> groupBy(final Callable1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return Sequences.groupBy(this, callable, reducer);
+    }
+
+    public <K> Sequence<Group<K, T>> groupAdjacent(final Callable1<? super T, ? extends K> callable) {
+        return Sequences.groupAdjacent(this, callable);
+    }
+
+    public <K, R> Sequence<Pair<K, R>> groupAdjacent(final Callable1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return Sequences.groupAdjacent(this, callable, reducer);
+    }
+
     public Sequence<Sequence<T>> recursive(final Callable1<Sequence<T>, Pair<Sequence<T>, Sequence<T>>> callable) {
         return Sequences.recursive(this, callable);
     }
@@ -448,6 +544,10 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
         return Sequences.windowed(this, size);
     }
 
+    public Sequence<Sequence<T>> windowed(int size, int step) {
+        return Sequences.windowed(this, size, step);
+    }
+
     public Sequence<T> intersperse(T separator) {
         return Sequences.intersperse(this, separator);
     }
@@ -462,7 +562,7 @@ public abstract class Sequence<T> extends AbstractCollection<T> implements Itera
     }
 
     public Sequence<Sequence<T>> grouped(int size) {
-        return recursive(Sequences.<T>splitAt(size));
+        return Sequences.grouped(this, size);
     }
 
     public static class functions {
@@ -12,7 +12,12 @@ import com.googlecode.totallylazy.iterators.QuadrupleIterator;
 import com.googlecode.totallylazy.iterators.QuintupleIterator;
 import com.googlecode.totallylazy.iterators.TransposeIterator;
 import com.googlecode.totallylazy.iterators.TripleIterator;
+import com.googlecode.totallylazy.predicates.AdjacentUniquePredicate;
+import com.googlecode.totallylazy.predicates.ApproximatelyUniquePredicate;
+import com.googlecode.totallylazy.predicates.RecentlyUniquePredicate;
 import com.googlecode.totallylazy.predicates.UniquePredicate;
+import com.googlecode.totallylazy.predicates.WindowedUniquePredicate;
+import com.googlecode.totallylazy.time.Clock;
 
 import java.util.Collections;
 import java.util.Comparator;
@@ -20,8 +25,11 @@ import java.util.Deque;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import static com.googlecode.totallylazy.Callables.ascending;
 import static com.googlecode.totallylazy.Callables.deferReturn;
@@ -143,7 +151,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> memorise(final Iterator<? extends T> iterator) {
-        return Computation.memorise(iterator);
+        return MemorisedSequence.memorise(iterator);
     }
 
     public static <T> ForwardOnlySequence<T> forwardOnly(final Iterator<? extends T> iterator) {
@@ -154,6 +162,14 @@ public class Sequences {
         return forwardOnly(iterable.iterator());
     }
 
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> iterable) {
+        return ParallelSequence.parallel(iterable);
+    }
+
+    public static <T> ParallelSequence<T> parallel(final Iterable<? extends T> iterable, final ForkJoinPool pool) {
+        return ParallelSequence.parallel(iterable, pool);
+    }
+
 
     public static Sequence<Character> characters(final CharSequence value) {
         return new Sequence<Character>() {
@@ -168,11 +184,7 @@ public class Sequences {
     }
 
     public static <T, S> Sequence<S> map(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable) {
-        return new Sequence<S>() {
-            public final Iterator<S> iterator() {
-                return Iterators.map(iterable.iterator(), callable);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).map(callable);
     }
 
     public static <T> Pair<Sequence<T>, Sequence<T>> partition(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
@@ -180,11 +192,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> filter(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.filter(iterable.iterator(), predicate);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).filter(predicate);
     }
 
     public static <T, S> Sequence<S> flatMap(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends Iterable<? extends S>> callable) {
@@ -429,35 +437,19 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> take(final Iterable<? extends T> iterable, final int count) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.take(iterable.iterator(), count);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).take(count);
     }
 
     public static <T> Sequence<T> takeWhile(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.takeWhile(iterable.iterator(), predicate);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).takeWhile(predicate);
     }
 
     public static <T> Sequence<T> drop(final Iterable<? extends T> iterable, final int count) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.drop(iterable.iterator(), count);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).drop(count);
     }
 
     public static <T> Sequence<T> dropWhile(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
-        return new Sequence<T>() {
-            public final Iterator<T> iterator() {
-                return Iterators.dropWhile(iterable.iterator(), predicate);
-            }
-        };
+        return PipelineSequence.<T>pipeline(iterable).dropWhile(predicate);
     }
 
     public static <T> boolean forAll(final Iterable<? extends T> iterable, final Predicate<? super T> predicate) {
@@ -534,7 +526,7 @@ public class Sequences {
     }
 
     public static <T> Sequence<T> memorise(final Iterable<? extends T> iterable) {
-        return Computation.memorise(iterable);
+        return MemorisedSequence.memorise(iterable);
     }
 
     public static <F, S> Sequence<Pair<F, S>> zip(final Iterable<? extends F> first, final Iterable<? extends S> second) {
@@ -621,6 +613,29 @@ public class Sequences {
         return sequence(toSortedList(iterable, comparator));
     }
 
+    // Not a snapshot: each iteration re-reads the source, sorting only as much as is consumed
+    public static <T> Sequence<T> sortedLazily(final Iterable<? extends T> iterable, final Comparator<? super T> comparator) {
+        return new SortedSequence<T>(iterable, comparator);
+    }
+
+    public static <T> Sequence<T> top(final Iterable<? extends T> iterable, final int count, final Comparator<? super T> comparator) {
+        return sequence(iterable).top(count, comparator);
+    }
+
+    public static <T> Sequence<T> bottom(final Iterable<? extends T> iterable, final int count, final Comparator<? super T> comparator) {
+        return Sequences.<T>sequence(iterable).bottom(count, comparator);
+    }
+
+    // Run files are deleted once drained, or when a pipeline (take, first, find...) stops early and closes the merge
+    public static <T> Sequence<T> sortBy(final Iterable<? extends T> iterable, final Comparator<? super T> comparator, final SortOptions options) {
+        return PipelineSequence.pipeline(new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new ExternalSort<T>(comparator, options).sort(iterable.iterator());
+            }
+        });
+    }
+
     public static <T extends Comparable<? super T>> Sequence<T> sort(final Iterable<? extends T> iterable) {
         return sort(iterable, Comparators.<T>ascending());
     }
@@ -669,10 +684,48 @@ public class Sequences {
         return callConcurrently(sequence(iterable).map(deferReturn(callable)), executor);
     }
 
+    public static <T, S> Sequence<S> mapConcurrently(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final int maxInFlight) {
+        return callConcurrently(sequence(iterable).map(deferReturn(callable)), maxInFlight);
+    }
+
+    public static <T, S> Sequence<S> mapConcurrently(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final int maxInFlight, final Executor executor) {
+        return callConcurrently(sequence(iterable).map(deferReturn(callable)), maxInFlight, executor);
+    }
+
+    public static <T, S> Sequence<S> mapInCompletionOrder(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final int maxInFlight) {
+        return Callers.callInCompletionOrder(sequence(iterable).map(deferReturn(callable)), maxInFlight);
+    }
+
+    public static <T, S> Sequence<S> mapInCompletionOrder(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final int maxInFlight, final Executor executor) {
+        return Callers.callInCompletionOrder(sequence(iterable).map(deferReturn(callable)), maxInFlight, executor);
+    }
+
     public static <T, K> Sequence<Group<K, T>> groupBy(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends K> callable) {
         return Iterators.groupBy(iterable.iterator(), callable);
     }
 
+    public static <T, K, R> Map<K, R> groupBy(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return Iterators.groupBy(iterable.iterator(), callable, reducer);
+    }
+
+    public static <T, K> Sequence<Group<K, T>> groupAdjacent(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends K> callable) {
+        return new Sequence<Group<K, T>>() {
+            @Override
+            public Iterator<Group<K, T>> iterator() {
+                return Iterators.groupAdjacent(iterable.iterator(), callable).iterator();
+            }
+        };
+    }
+
+    public static <T, K, R> Sequence<Pair<K, R>> groupAdjacent(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends K> callable, final Reducer<? super T, R> reducer) {
+        return new Sequence<Pair<K, R>>() {
+            @Override
+            public Iterator<Pair<K, R>> iterator() {
+                return Iterators.groupAdjacent(iterable.iterator(), callable, reducer);
+            }
+        };
+    }
+
     public static boolean equalTo(Iterable<?> iterable, Iterable<?> other) {
         return Iterators.equalsTo(iterable.iterator(), other.iterator());
     }
@@ -757,6 +810,42 @@ public class Sequences {
         };
     }
 
+    public static <T, S> Sequence<T> uniqueRecent(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final int capacity) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return Iterators.filter(iterable.iterator(), new RecentlyUniquePredicate<T, S>(callable, capacity));
+            }
+        };
+    }
+
+    public static <T, S> Sequence<T> uniqueWithin(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final long duration, final TimeUnit unit, final Clock clock) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return Iterators.filter(iterable.iterator(), new WindowedUniquePredicate<T, S>(callable, unit.toMillis(duration), clock));
+            }
+        };
+    }
+
+    public static <T, S> Sequence<T> uniqueAdjacent(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return Iterators.filter(iterable.iterator(), new AdjacentUniquePredicate<T, S>(callable));
+            }
+        };
+    }
+
+    public static <T, S> Sequence<T> uniqueApproximately(final Iterable<? extends T> iterable, final Callable1<? super T, ? extends S> callable, final long expectedInsertions, final double falsePositiveRate) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return Iterators.filter(iterable.iterator(), new ApproximatelyUniquePredicate<T, S>(callable, expectedInsertions, falsePositiveRate));
+            }
+        };
+    }
+
     public static <T> Sequence<T> flatten(final Iterable<? extends Iterable<? extends T>> iterable) {
         return new Sequence<T>() {
             @Override
@@ -814,6 +903,24 @@ public class Sequences {
         };
     }
 
+    public static <T> Sequence<Sequence<T>> windowed(final Iterable<? extends T> sequence, final int size, final int step) {
+        return new Sequence<Sequence<T>>() {
+            @Override
+            public Iterator<Sequence<T>> iterator() {
+                return Iterators.<T>windowed(sequence.iterator(), size, step);
+            }
+        };
+    }
+
+    public static <T> Sequence<Sequence<T>> grouped(final Iterable<? extends T> sequence, final int size) {
+        return new Sequence<Sequence<T>>() {
+            @Override
+            public Iterator<Sequence<T>> iterator() {
+                return Iterators.<T>grouped(sequence.iterator(), size);
+            }
+        };
+    }
+
     public static <T> Sequence<T> intersperse(final Iterable<? extends T> iterable, final T separator) {
         return new Sequence<T>() {
             @Override
@@ -0,0 +1,95 @@
+package com.googlecode.totallylazy;
+
+import java.io.File;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class SortOptions {
+    public static final int DEFAULT_RUN_SIZE = 1000000;
+    private final int runSize;
+    private final boolean parallel;
+    private final File directory;
+    private final Codec<?> codec;
+
+    private SortOptions(int runSize, boolean parallel, File directory, Codec<?> codec) {
+        if (runSize < 1) throw new IllegalArgumentException("Run size must be positive");
+        this.runSize = runSize;
+        this.parallel = parallel;
+        this.directory = directory;
+        this.codec = codec;
+    }
+
+    public static SortOptions sortOptions() {
+        return new SortOptions(Integer.MAX_VALUE, false, Files.TEMP_DIR, serialisation());
+    }
+
+    public static SortOptions inMemory() {
+        return sortOptions();
+    }
+
+    public static SortOptions parallelInMemory() {
+        return sortOptions().parallel(true);
+    }
+
+    public static SortOptions external() {
+        return external(DEFAULT_RUN_SIZE);
+    }
+
+    public static SortOptions external(int runSize) {
+        return sortOptions().runSize(runSize);
+    }
+
+    public SortOptions runSize(int runSize) {
+        return new SortOptions(runSize, parallel, directory, codec);
+    }
+
+    public SortOptions parallel(boolean parallel) {
+        return new SortOptions(runSize, parallel, directory, codec);
+    }
+
+    public SortOptions directory(File directory) {
+        return new SortOptions(runSize, parallel, directory, codec);
+    }
+
+    public SortOptions codec(Codec<?> codec) {
+        return new SortOptions(runSize, parallel, directory, codec);
+    }
+
+    public int runSize() {
+        return runSize;
+    }
+
+    public boolean parallel() {
+        return parallel;
+    }
+
+    public File directory() {
+        return directory;
+    }
+
+    public <T> Codec<T> codec() {
+        return cast(codec);
+    }
+
+    public interface Codec<T> {
+        void write(T value, ObjectOutput output) throws Exception;
+
+        T read(ObjectInput input) throws Exception;
+    }
+
+    public static <T> Codec<T> serialisation() {
+        return new Codec<T>() {
+            @Override
+            public void write(T value, ObjectOutput output) throws Exception {
+                output.writeObject(value);
+            }
+
+            @Override
+            public T read(ObjectInput input) throws Exception {
+                return cast(input.readObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+class SortedSequence<T> extends Sequence<T> {
+    private final Iterable<? extends T> iterable;
+    private final Comparator<? super T> comparator;
+
+    SortedSequence(Iterable<? extends T> iterable, Comparator<? super T> comparator) {
+        this.iterable = iterable;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IncrementalSortIterator<T>(Sequences.toList(iterable).toArray(), comparator);
+    }
+
+    @Override
+    public Sequence<T> take(final int count) {
+        return new Sequence<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return Sequences.bottom(iterable, count, comparator).iterator();
+            }
+        };
+    }
+
+    @Override
+    public List<T> toList() {
+        return Sequences.toSortedList(iterable, comparator);
+    }
+
+    // Heapifies in O(n) then pays O(log n) per element actually consumed; ties come out in input order
+    private static class IncrementalSortIterator<T> extends StatefulIterator<T> {
+        private final Object[] values;
+        private final int[] heap;
+        private final Comparator<Object> comparator;
+        private int size;
+
+        private IncrementalSortIterator(Object[] values, Comparator<? super T> comparator) {
+            this.values = values;
+            this.comparator = cast(comparator);
+            this.size = values.length;
+            this.heap = new int[size];
+            for (int i = 0; i < size; i++) heap[i] = i;
+            for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i);
+        }
+
+        @Override
+        protected T getNext() throws Exception {
+            if (size == 0) return finished();
+            int index = heap[0];
+            heap[0] = heap[--size];
+            siftDown(0);
+            T result = cast(values[index]);
+            values[index] = null;
+            return result;
+        }
+
+        private void siftDown(int parent) {
+            while (true) {
+                int smallest = parent, left = parent * 2 + 1, right = left + 1;
+                if (left < size && less(heap[left], heap[smallest])) smallest = left;
+                if (right < size && less(heap[right], heap[smallest])) smallest = right;
+                if (smallest == parent) return;
+                int swap = heap[parent];
+                heap[parent] = heap[smallest];
+                heap[smallest] = swap;
+                parent = smallest;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            int result = comparator.compare(values[a], values[b]);
+            return result != 0 ? result < 0 : a < b;
+        }
+    }
+}
@@ -79,7 +79,9 @@ public class Streams {
         return new InputStreamReader(stream, Strings.UTF8);
     }
 
+    // Only regular files with a known size are mapped; pipes, devices and procfs/sysfs files (which report a size of 0) are streamed
     public static Sequence<String> lines(File file) {
+        if (file.isFile() && file.length() > 0) return MappedLines.mappedLines(file).strings();
         try {
             return lines(new FileInputStream(file));
         } catch (FileNotFoundException e) {
@@ -1,5 +1,6 @@
 package com.googlecode.totallylazy;
 
+import com.googlecode.totallylazy.collections.Cache;
 import com.googlecode.totallylazy.iterators.NodeIterator;
 import com.googlecode.totallylazy.iterators.PoppingIterator;
 import com.googlecode.totallylazy.predicates.LogicalPredicate;
@@ -15,6 +16,7 @@ import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.namespace.QName;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -30,14 +32,15 @@ import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static com.googlecode.totallylazy.Strings.bytes;
-import static com.googlecode.totallylazy.Strings.string;
 import static com.googlecode.totallylazy.xml.FunctionResolver.resolver;
 import static java.lang.Integer.getInteger;
 
@@ -64,7 +67,7 @@ public class Xml {
 
     public static Number selectNumber(final Node node, final String expression) {
         try {
-            return (Number) xpathExpression(expression).evaluate(node, XPathConstants.NUMBER);
+            return (Number) evaluate(node, expression, XPathConstants.NUMBER);
         } catch (XPathExpressionException e) {
             throw LazyException.lazyException(e);
         }
@@ -72,7 +75,7 @@ public class Xml {
 
     public static boolean matches(final Node node, final String expression) {
         try {
-            return (Boolean) xpathExpression(expression).evaluate(node, XPathConstants.BOOLEAN);
+            return (Boolean) evaluate(node, expression, XPathConstants.BOOLEAN);
         } catch (XPathExpressionException e) {
             throw LazyException.lazyException(e);
         }
@@ -80,10 +83,10 @@ public class Xml {
 
     private static Sequence<Node> internalSelectNodes(final Node node, final String expression) {
         try {
-            return sequence((NodeList) xpathExpression(expression).evaluate(node, XPathConstants.NODESET));
+            return sequence((NodeList) evaluate(node, expression, XPathConstants.NODESET));
         } catch (XPathExpressionException e) {
             try {
-                String nodeAsString = (String) xpathExpression(expression).evaluate(node, XPathConstants.STRING);
+                String nodeAsString = (String) evaluate(node, expression, XPathConstants.STRING);
                 return Sequences.<Node>sequence(documentFor(node).createTextNode(nodeAsString));
             } catch (XPathExpressionException ignore) {
                 throw new IllegalArgumentException(String.format("Failed to compile xpath '%s'", expression), e);
@@ -139,19 +142,44 @@ public class Xml {
         return xpath.get();
     }
 
-    private static ThreadLocal<Map<String, XPathExpression>> expressions = new ThreadLocal<Map<String, XPathExpression>>() {
+    private static final int EXPRESSION_CACHE_SIZE = getInteger("totallylazy.xpath.cache.size", 1000);
+    private static final int POOL_SIZE = getInteger("totallylazy.xml.pool.size", 64);
+    // Compiled expressions, builders and transformers are not thread safe, so they are shared through pools rather than per thread
+    private static final Cache<String, Pool<XPathExpression>> expressions = Cache.cache(EXPRESSION_CACHE_SIZE);
+    private static final Function1<String, Pool<XPathExpression>> expressionPool = new Function1<String, Pool<XPathExpression>>() {
         @Override
-        protected Map<String, XPathExpression> initialValue() {
-            return Maps.lruMap(getInteger("totallylazy.xpath.cache.size", 1000));
+        public Pool<XPathExpression> call(String expression) throws Exception {
+            return new Pool<XPathExpression>(POOL_SIZE);
         }
     };
+    private static final Pool<XPath> xpaths = new Pool<XPath>(POOL_SIZE);
+    private static final Pool<DocumentBuilder> documentBuilders = new Pool<DocumentBuilder>(POOL_SIZE);
+    private static final Pool<Transformer> transformers = new Pool<Transformer>(POOL_SIZE);
+    private static final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+    private static final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+    private static Object evaluate(Node node, String expression, QName returnType) throws XPathExpressionException {
+        XPathExpression compiled = compile(expression);
+        try {
+            return compiled.evaluate(node, returnType);
+        } finally {
+            expressions.get(expression, expressionPool).offer(compiled);
+        }
+    }
 
-    private static XPathExpression xpathExpression(String expression) throws XPathExpressionException {
-        Map<String, XPathExpression> expressionMap = expressions.get();
-        if (!expressionMap.containsKey(expression)) {
-            expressionMap.put(expression, xpath().compile(expression));
+    private static XPathExpression compile(String expression) throws XPathExpressionException {
+        Option<Pool<XPathExpression>> pool = expressions.get(expression);
+        XPathExpression compiled = pool.isEmpty() ? null : pool.get().poll();
+        if (compiled != null) return compiled;
+        XPath xpath = xpaths.poll();
+        if (xpath == null) xpath = internalXpath();
+        try {
+            return xpath.compile(expression);
+        } finally {
+            xpath.reset();
+            xpath.setXPathFunctionResolver(resolver);
+            xpaths.offer(xpath);
         }
-        return expressionMap.get(expression);
     }
 
     public static Sequence<Node> sequence(final NodeList nodes) {
@@ -244,22 +272,39 @@ public class Xml {
     }
 
     public static String asString(Node node, boolean omitXmlDeclaration) throws TransformerException {
-        Transformer transformer = transformer();
-        StringWriter writer = new StringWriter();
-        if (omitXmlDeclaration) transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
-        return writer.toString();
+        Transformer transformer = borrowTransformer();
+        try {
+            StringWriter writer = new StringWriter();
+            if (omitXmlDeclaration) transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.transform(new DOMSource(node), new StreamResult(writer));
+            return writer.toString();
+        } finally {
+            release(transformer);
+        }
     }
 
     @SuppressWarnings("unchecked")
     public static Transformer transformer() throws TransformerConfigurationException {
-        return internalTransformer();
+        synchronized (transformerFactory) {
+            return transformerFactory.newTransformer();
+        }
     }
 
     public static Transformer transformer(Pair<String, Object>... attributes) throws TransformerConfigurationException {
+        if (attributes.length == 0) return transformer();
         return internalTransformer(attributes);
     }
 
+    private static Transformer borrowTransformer() throws TransformerConfigurationException {
+        Transformer transformer = transformers.poll();
+        return transformer == null ? transformer() : transformer;
+    }
+
+    private static void release(Transformer transformer) {
+        transformer.reset();
+        transformers.offer(transformer);
+    }
+
     private static Transformer internalTransformer(Pair<String, Object>... attributes) throws TransformerConfigurationException {
         TransformerFactory transformerFactory = TransformerFactory.newInstance();
         for (Pair<String, Object> attribute : attributes) {
@@ -269,18 +314,35 @@ public class Xml {
     }
 
     public static Document document(byte[] bytes) {
-        return document(string(bytes));
+        return document(new ByteArrayInputStream(bytes));
+    }
+
+    public static Document document(InputStream stream) {
+        return document(new InputSource(stream));
     }
 
     public static Document document(String xml) {
+        return document(new InputSource(new StringReader(xml)));
+    }
+
+    private static Document document(InputSource source) {
+        DocumentBuilder documentBuilder = documentBuilders.poll();
         try {
-            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-            documentBuilder.setEntityResolver(ignoreEntities());
+            if (documentBuilder == null) {
+                synchronized (documentBuilderFactory) {
+                    documentBuilder = documentBuilderFactory.newDocumentBuilder();
+                }
+            }
+            documentBuilder.setEntityResolver(ignoreEntities);
             documentBuilder.setErrorHandler(null);
-            return documentBuilder.parse(new ByteArrayInputStream(bytes(xml)));
+            return documentBuilder.parse(source);
         } catch (Exception e) {
             throw LazyException.lazyException(e);
+        } finally {
+            if (documentBuilder != null) {
+                documentBuilder.reset();
+                documentBuilders.offer(documentBuilder);
+            }
         }
     }
 
@@ -301,13 +363,11 @@ public class Xml {
         };
     }
 
-    private static EntityResolver ignoreEntities() {
-        return new EntityResolver() {
-            public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
-                return new InputSource(new StringReader(""));
-            }
-        };
-    }
+    private static final EntityResolver ignoreEntities = new EntityResolver() {
+        public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+            return new InputSource(new StringReader(""));
+        }
+    };
 
     public static Sequence<Node> remove(final Node root, final String expression) {
         return remove(selectNodes(root, expression));
@@ -331,13 +391,17 @@ public class Xml {
     }
 
     public static String format(final Node node, final Pair<String, Object>... attributes) throws Exception {
-        Transformer transformer = transformer(attributes);
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
-        return writer.toString();
+        Transformer transformer = attributes.length == 0 ? borrowTransformer() : transformer(attributes);
+        try {
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(node), new StreamResult(writer));
+            return writer.toString();
+        } finally {
+            if (attributes.length == 0) release(transformer);
+        }
     }
 
     public static String escape(Object value) {
@@ -361,6 +425,30 @@ public class Xml {
         };
     }
 
+    private static class Pool<T> {
+        private final Queue<T> idle = new ConcurrentLinkedQueue<T>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+
+        private Pool(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private T poll() {
+            T value = idle.poll();
+            if (value != null) size.decrementAndGet();
+            return value;
+        }
+
+        private void offer(T value) {
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                return;
+            }
+            idle.offer(value);
+        }
+    }
+
     public static class functions {
         public static UnaryFunction<Element> modifyTextContent(final Callable1<? super String, ? extends CharSequence> function) {
             return new UnaryFunction<Element>() {
@@ -1,6 +1,7 @@
 package com.googlecode.totallylazy.collections;
 
 import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Predicate;
 import com.googlecode.totallylazy.Unchecked;
@@ -49,6 +50,18 @@ public interface AVLTree<K, V> extends TreeMap<K, V> {
     @Override
     Pair<AVLTree<K, V>, Pair<K, V>> removeLast();
 
+    @Override
+    AVLTree<K, V> union(TreeMap<K, V> other);
+
+    @Override
+    AVLTree<K, V> intersection(TreeMap<K, V> other);
+
+    @Override
+    AVLTree<K, V> difference(TreeMap<K, V> other);
+
+    @Override
+    AVLTree<K, V> mergeWith(TreeMap<K, V> other, Callable2<? super V, ? super V, ? extends V> combiner);
+
     @Override
     AVLTree<K, V> left();
 
@@ -99,6 +112,42 @@ public interface AVLTree<K, V> extends TreeMap<K, V> {
     }
 
     class methods {
+        static <K, V> AVLTree<K, V> join(Comparator<K> comparator, AVLTree<K, V> left, K key, V value, AVLTree<K, V> right) {
+            if (left.height() > right.height() + 1)
+                return rebalance(node(comparator, left.left(), left.key(), left.value(), join(comparator, left.right(), key, value, right)));
+            if (right.height() > left.height() + 1)
+                return rebalance(node(comparator, join(comparator, left, key, value, right.left()), right.key(), right.value(), right.right()));
+            return node(comparator, left, key, value, right);
+        }
+
+        private static <K, V> AVLTree<K, V> rebalance(AVLTree<K, V> node) {
+            if (node.balance() == -2) {
+                if (node.right().balance() > 0) return rotateLeft(node(node.comparator(), node.left(), node.key(), node.value(), rotateRight(node.right())));
+                return rotateLeft(node);
+            }
+            if (node.balance() == 2) {
+                if (node.left().balance() < 0) return rotateRight(node(node.comparator(), rotateLeft(node.left()), node.key(), node.value(), node.right()));
+                return rotateRight(node);
+            }
+            return node;
+        }
+
+        private static <K, V> AVLTree<K, V> rotateLeft(AVLTree<K, V> node) {
+            AVLTree<K, V> right = node.right();
+            return node(node.comparator(), node(node.comparator(), node.left(), node.key(), node.value(), right.left()), right.key(), right.value(), right.right());
+        }
+
+        private static <K, V> AVLTree<K, V> rotateRight(AVLTree<K, V> node) {
+            AVLTree<K, V> left = node.left();
+            return node(node.comparator(), left.left(), left.key(), left.value(), node(node.comparator(), left.right(), node.key(), node.value(), node.right()));
+        }
+
+        // Goes through the factory so every node is already balanced: zippers rebuild nodes with the factory while
+        // walking, and a node the factory would rebalance changes shape mid-iteration (inserts do not build strict AVL trees)
+        private static <K, V> AVLTree<K, V> node(Comparator<K> comparator, AVLTree<K, V> left, K key, V value, AVLTree<K, V> right) {
+            return constructors.factory.create(comparator, key, value, left, right);
+        }
+
         // http://upload.wikimedia.org/wikipedia/commons/thumb/f/f5/AVL_Tree_Rebalancing.svg/350px-AVL_Tree_Rebalancing.svg.png
         static <K, V> AVLTree<K, V> balance(AVLTree<K, V> node) {
             int balance = node.balance();
@@ -58,6 +58,31 @@ public abstract class AbstractEmptyTreeMap<K, V, Self extends TreeMap<K, V>> ext
         return cons(Pair.pair(key, value));
     }
 
+    @Override
+    public Self union(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.union(this, other));
+    }
+
+    @Override
+    public Self intersection(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.intersection(this, other));
+    }
+
+    @Override
+    public Self difference(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.difference(this, other));
+    }
+
+    @Override
+    public Self mergeWith(TreeMap<K, V> other, Callable2<? super V, ? super V, ? extends V> combiner) {
+        return cast(TreeMap.methods.mergeWith(this, other, combiner));
+    }
+
+    @Override
+    public TransientMap<K, V> transientMap() {
+        return TransientTreeMap.transientTreeMap(treeFactory, comparator, this);
+    }
+
     @Override
     public None<V> find(Predicate<? super K> predicate) {
         return None.none();
@@ -63,6 +63,11 @@ public abstract class AbstractMap<K, V> extends ReadOnlyMap<K,V> implements Pers
         return filter(Predicates.<V>second(predicate));
     }
 
+    @Override
+    public TransientMap<K, V> transientMap() {
+        return TransientMap.constructors.transientMap(this);
+    }
+
     @Override
     public <C extends Segment<Pair<K, V>>> C joinTo(C rest) {
         return toSequence().joinTo(rest);
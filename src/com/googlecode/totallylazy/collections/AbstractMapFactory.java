@@ -2,13 +2,11 @@ package com.googlecode.totallylazy.collections;
 
 import com.googlecode.totallylazy.Maps;
 import com.googlecode.totallylazy.Pair;
-import com.googlecode.totallylazy.Segment;
-import com.googlecode.totallylazy.Sequences;
+import com.googlecode.totallylazy.Unchecked;
 
 import java.util.Map;
 
 import static com.googlecode.totallylazy.Pair.pair;
-import static com.googlecode.totallylazy.Sequences.empty;
 import static com.googlecode.totallylazy.Sequences.sequence;
 
 public abstract class AbstractMapFactory<K, V, M extends PersistentMap<K, V>> implements MapFactory<K,V,M> {
@@ -55,6 +53,8 @@ public abstract class AbstractMapFactory<K, V, M extends PersistentMap<K, V>> im
 
     @Override
     public M map(Iterable<? extends Pair<K, V>> values) {
-        return sequence(values).fold(this.empty(), Segment.functions.<Pair<K, V>, M>cons());
+        TransientMap<K, V> map = empty().transientMap();
+        for (Pair<K, V> pair : values) map.insert(pair.first(), pair.second());
+        return Unchecked.<M>cast(map.persistent());
     }
 }
@@ -113,6 +113,31 @@ public abstract class AbstractTreeMap<K, V, Self extends TreeMap<K, V>> extends
         return create(comparator, this.key, this.value, left, right.insert(key, value));
     }
 
+    @Override
+    public Self union(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.union(this, other));
+    }
+
+    @Override
+    public Self intersection(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.intersection(this, other));
+    }
+
+    @Override
+    public Self difference(TreeMap<K, V> other) {
+        return cast(TreeMap.methods.difference(this, other));
+    }
+
+    @Override
+    public Self mergeWith(TreeMap<K, V> other, Callable2<? super V, ? super V, ? extends V> combiner) {
+        return cast(TreeMap.methods.mergeWith(this, other, combiner));
+    }
+
+    @Override
+    public TransientMap<K, V> transientMap() {
+        return TransientTreeMap.transientTreeMap(factory, comparator, this);
+    }
+
     @Override
     public Option<V> find(Predicate<? super K> predicate) {
         if (predicate.matches(key)) return some(value);
@@ -28,6 +28,8 @@ public class AtomicMap<K, V> implements ConcurrentMap<K, V> {
 
     public static <K, V> AtomicMap<K, V> atomicMap(PersistentMap<K, V> map) {return new AtomicMap<K, V>(atomic(map));}
 
+    public static <K, V> AtomicMap<K, V> atomicMap() {return atomicMap(HashTrieMap.<K, V>hashTrieMap());}
+
     private PersistentMap<K, V> map() {return atomic.value();}
 
     private K key(Object key) {return cast(key);}
@@ -54,7 +56,7 @@ public class AtomicMap<K, V> implements ConcurrentMap<K, V> {
 
     @Override
     public V get(Object key) {
-        return map().lookup(key(key)).getOrNull();
+        return map().get(key);
     }
 
     @Override
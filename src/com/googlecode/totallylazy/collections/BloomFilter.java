@@ -0,0 +1,81 @@
+package com.googlecode.totallylazy.collections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter<T> {
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    private BloomFilter(long bits, int hashes) {
+        long words = (bits + 63) / 64;
+        if (words > Integer.MAX_VALUE) throw new IllegalArgumentException("Bloom filter too large");
+        this.words = new AtomicLongArray((int) words);
+        this.bits = words * 64;
+        this.hashes = hashes;
+    }
+
+    public static <T> BloomFilter<T> bloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) throw new IllegalArgumentException("Expected insertions must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        long bits = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter<T>(bits, hashes);
+    }
+
+    public boolean mightContain(T value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(first, second, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // Returns true if the value was definitely not present before this call
+    public boolean add(T value) {
+        long hash = hash(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = index(first, second, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            while (true) {
+                long current = words.get(word);
+                if ((current & mask) != 0) break;
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashFunctions() {
+        return hashes;
+    }
+
+    private long index(int first, int second, int i) {
+        long combined = first + (long) i * second;
+        return (combined & Long.MAX_VALUE) % bits;
+    }
+
+    private static long hash(Object value) {
+        long h = (value == null ? 0 : value.hashCode()) + 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,141 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.ReducerCombinerFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+// Retains the k least elements under the comparator; ties keep whichever was added first
+public class BoundedHeap<T> {
+    private final int capacity;
+    private final Comparator<? super T> comparator;
+    private final Object[] values;
+    private final long[] indexes;
+    private int size;
+    private long seen;
+
+    private BoundedHeap(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity can not be negative");
+        this.capacity = capacity;
+        this.comparator = comparator;
+        this.values = new Object[capacity];
+        this.indexes = new long[capacity];
+    }
+
+    public static <T> BoundedHeap<T> boundedHeap(int capacity, Comparator<? super T> comparator) {
+        return new BoundedHeap<T>(capacity, comparator);
+    }
+
+    public BoundedHeap<T> add(T value) {
+        offer(value, seen++);
+        return this;
+    }
+
+    // Everything in other is treated as having been added after everything already here
+    public BoundedHeap<T> merge(BoundedHeap<? extends T> other) {
+        for (int i = 0; i < other.size; i++) offer(other.<T>value(i), seen + other.indexes[i]);
+        seen += other.seen;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public List<T> toList() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return BoundedHeap.this.compare(a, b);
+            }
+        });
+        List<T> result = new ArrayList<T>(size);
+        for (Integer index : order) result.add(this.<T>value(index));
+        return result;
+    }
+
+    private void offer(T value, long index) {
+        if (capacity == 0) return;
+        if (size < capacity) {
+            values[size] = value;
+            indexes[size] = index;
+            siftUp(size++);
+            return;
+        }
+        int result = comparator.compare(value, this.<T>value(0));
+        if (result > 0 || (result == 0 && index > indexes[0])) return;
+        values[0] = value;
+        indexes[0] = index;
+        siftDown(0);
+    }
+
+    // Max heap: the root is the element that would be evicted next
+    private void siftUp(int child) {
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (compare(child, parent) <= 0) return;
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int parent) {
+        while (true) {
+            int largest = parent, left = parent * 2 + 1, right = left + 1;
+            if (left < size && compare(left, largest) > 0) largest = left;
+            if (right < size && compare(right, largest) > 0) largest = right;
+            if (largest == parent) return;
+            swap(parent, largest);
+            parent = largest;
+        }
+    }
+
+    private int compare(int a, int b) {
+        int result = comparator.compare(this.<T>value(a), this.<T>value(b));
+        return result != 0 ? result : (indexes[a] < indexes[b] ? -1 : indexes[a] == indexes[b] ? 0 : 1);
+    }
+
+    private void swap(int a, int b) {
+        Object value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+        long index = indexes[a];
+        indexes[a] = indexes[b];
+        indexes[b] = index;
+    }
+
+    private <S> S value(int index) {
+        return cast(values[index]);
+    }
+
+    public static class functions {
+        public static <T> ReducerCombinerFunction<T, BoundedHeap<T>> least(final int capacity, final Comparator<? super T> comparator) {
+            return new ReducerCombinerFunction<T, BoundedHeap<T>>() {
+                @Override
+                public BoundedHeap<T> call(BoundedHeap<T> heap, T value) throws Exception {
+                    return heap.add(value);
+                }
+
+                @Override
+                public BoundedHeap<T> combine(BoundedHeap<T> a, BoundedHeap<T> b) throws Exception {
+                    return a.merge(b);
+                }
+
+                @Override
+                public BoundedHeap<T> identity() {
+                    return boundedHeap(capacity, comparator);
+                }
+            };
+        }
+    }
+}
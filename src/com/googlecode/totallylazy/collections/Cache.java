@@ -0,0 +1,440 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.Function1;
+import com.googlecode.totallylazy.LazyException;
+import com.googlecode.totallylazy.Memory;
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.time.Clock;
+import com.googlecode.totallylazy.time.SystemClock;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+// Striped LRU: each segment is an access ordered map behind its own lock, loads run outside the lock and are shared
+public class Cache<K, V> implements Memory {
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final Options options;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings("rawtypes")
+    private Cache(Options options) {
+        this.options = options;
+        int count = Integer.highestOneBit(Math.max(1, options.concurrency));
+        if (options.maximumSize != Long.MAX_VALUE) count = (int) Math.min(count, Long.highestOneBit(Math.max(1, options.maximumSize)));
+        if (options.maximumWeight != Long.MAX_VALUE) count = (int) Math.min(count, Long.highestOneBit(Math.max(1, options.maximumWeight)));
+        this.mask = count - 1;
+        this.segments = cast(new Segment[count]);
+        for (int i = 0; i < count; i++) segments[i] = new Segment<K, V>(share(options.maximumSize, count), share(options.maximumWeight, count), options.expireAfterWrite > 0);
+    }
+
+    public static <K, V> Cache<K, V> cache() {
+        return cache(options());
+    }
+
+    public static <K, V> Cache<K, V> cache(long maximumSize) {
+        return cache(options().maximumSize(maximumSize));
+    }
+
+    public static <K, V> Cache<K, V> cache(Options options) {
+        return new Cache<K, V>(options);
+    }
+
+    public static Options options() {
+        return new Options(Long.MAX_VALUE, Long.MAX_VALUE, null, 0, 0, Runtime.getRuntime().availableProcessors() * 4, new SystemClock());
+    }
+
+    public static <K, V> Function1<K, V> memorise(Callable1<? super K, ? extends V> callable, long maximumSize) {
+        return Cache.<K, V>cache(maximumSize).memorise(callable);
+    }
+
+    public static <K, V> Function1<K, V> memorise(Callable1<? super K, ? extends V> callable, Options options) {
+        return Cache.<K, V>cache(options).memorise(callable);
+    }
+
+    public Function1<K, V> memorise(final Callable1<? super K, ? extends V> callable) {
+        return new Function1<K, V>() {
+            @Override
+            public V call(K key) throws Exception {
+                return get(key, callable);
+            }
+        };
+    }
+
+    public Option<V> get(K key) {
+        Segment<K, V> segment = segment(key);
+        Entry<V> entry;
+        long now = now();
+        synchronized (segment) {
+            entry = segment.map.get(key);
+            if (entry != null && entry.loading == null && expired(entry, now)) {
+                segment.remove(key, entry);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry != null) entry.accessed = now;
+        }
+        if (entry == null || entry.loading != null) {
+            misses.incrementAndGet();
+            return Option.none();
+        }
+        hits.incrementAndGet();
+        return Option.some(entry.value);
+    }
+
+    public V get(K key, Callable1<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segment(key);
+        Entry<V> entry;
+        FutureTask<V> loading;
+        boolean owner = false;
+        long now = now();
+        synchronized (segment) {
+            entry = segment.map.get(key);
+            if (entry != null && entry.loading == null && expired(entry, now)) {
+                segment.remove(key, entry);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry<V>(new FutureTask<V>(loading(key, loader)), now);
+                segment.map.put(key, entry);
+                owner = true;
+            } else {
+                entry.accessed = now;
+            }
+            loading = entry.loading;
+        }
+        if (loading == null) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+        misses.incrementAndGet();
+        if (owner) load(segment, key, entry);
+        return await(loading);
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        long now = now();
+        synchronized (segment) {
+            Entry<V> entry = new Entry<V>(value, now, weigh(key, value));
+            segment.remove(key, segment.map.get(key));
+            segment.put(key, entry);
+            segment.weight += entry.weight;
+            evict(segment, now);
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key, segment.map.get(key));
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public void cleanUp() {
+        long now = now();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                evict(segment, now);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                weight += segment.weight;
+            }
+        }
+        return weight;
+    }
+
+    public Statistics statistics() {
+        return new Statistics(hits.get(), misses.get(), loads.get(), failures.get(), evictions.get());
+    }
+
+    @Override
+    public void forget() {
+        clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private Callable<V> loading(final K key, final Callable1<? super K, ? extends V> loader) {
+        return new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                return loader.call(key);
+            }
+        };
+    }
+
+    private void load(Segment<K, V> segment, K key, Entry<V> entry) {
+        FutureTask<V> loading = entry.loading;
+        loading.run();
+        long now = now();
+        try {
+            V value = loading.get();
+            loads.incrementAndGet();
+            long weight = weigh(key, value);
+            synchronized (segment) {
+                if (segment.map.get(key) != entry) return;
+                entry.value = value;
+                entry.weight = weight;
+                entry.written = now;
+                entry.loading = null;
+                segment.written(key, entry);
+                segment.weight += weight;
+                evict(segment, now);
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            synchronized (segment) {
+                if (segment.map.get(key) == entry) segment.map.remove(key);
+            }
+        }
+    }
+
+    private V await(FutureTask<V> loading) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return loading.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw LazyException.lazyException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void evict(Segment<K, V> segment, long now) {
+        if (segment.writes != null) expire(segment, now);
+        Iterator<Map.Entry<K, Entry<V>>> iterator = segment.map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> next = iterator.next();
+            Entry<V> entry = next.getValue();
+            if (entry.loading != null) continue;
+            if (!expired(entry, now) && segment.map.size() <= segment.maximumSize && segment.weight <= segment.maximumWeight) return;
+            iterator.remove();
+            if (segment.writes != null) segment.writes.remove(next.getKey());
+            segment.weight -= entry.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    // The write queue is oldest first, so expiry stops at the first live entry instead of scanning the segment
+    private void expire(Segment<K, V> segment, long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = segment.writes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> next = iterator.next();
+            Entry<V> entry = next.getValue();
+            if (now - entry.written < options.expireAfterWrite) return;
+            iterator.remove();
+            segment.map.remove(next.getKey());
+            segment.weight -= entry.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean expired(Entry<V> entry, long now) {
+        return (options.expireAfterWrite > 0 && now - entry.written >= options.expireAfterWrite) ||
+                (options.expireAfterAccess > 0 && now - entry.accessed >= options.expireAfterAccess);
+    }
+
+    private long weigh(K key, V value) {
+        if (options.weigher == null) return 1;
+        Callable2<K, V, Number> weigher = cast(options.weigher);
+        return Callers.call(weigher, key, value).longValue();
+    }
+
+    private long now() {
+        if (options.expireAfterWrite == 0 && options.expireAfterAccess == 0) return 0;
+        return options.clock.now().getTime();
+    }
+
+    private Segment<K, V> segment(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & mask];
+    }
+
+    private static long share(long total, int count) {
+        return total == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, (total + count - 1) / count);
+    }
+
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+        // Loaded entries in the order they were written, only kept when entries expire after write
+        private final LinkedHashMap<K, Entry<V>> writes;
+        private final long maximumSize;
+        private final long maximumWeight;
+        private long weight;
+
+        private Segment(long maximumSize, long maximumWeight, boolean writeOrdered) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.writes = writeOrdered ? new LinkedHashMap<K, Entry<V>>() : null;
+        }
+
+        private void put(K key, Entry<V> entry) {
+            map.put(key, entry);
+            written(key, entry);
+        }
+
+        private void written(K key, Entry<V> entry) {
+            if (writes == null || entry.loading != null) return;
+            writes.remove(key);
+            writes.put(key, entry);
+        }
+
+        private void remove(K key, Entry<V> entry) {
+            if (entry == null) return;
+            map.remove(key);
+            if (writes != null) writes.remove(key);
+            if (entry.loading == null) weight -= entry.weight;
+        }
+
+        private void clear() {
+            map.clear();
+            if (writes != null) writes.clear();
+            weight = 0;
+        }
+    }
+
+    private static final class Entry<V> {
+        private volatile FutureTask<V> loading;
+        private volatile V value;
+        private long weight;
+        private long written;
+        private long accessed;
+
+        private Entry(FutureTask<V> loading, long now) {
+            this.loading = loading;
+            this.written = now;
+            this.accessed = now;
+        }
+
+        private Entry(V value, long now, long weight) {
+            this.value = value;
+            this.weight = weight;
+            this.written = now;
+            this.accessed = now;
+        }
+    }
+
+    public static class Options {
+        private final long maximumSize;
+        private final long maximumWeight;
+        private final Callable2<?, ?, ? extends Number> weigher;
+        private final long expireAfterWrite;
+        private final long expireAfterAccess;
+        private final int concurrency;
+        private final Clock clock;
+
+        private Options(long maximumSize, long maximumWeight, Callable2<?, ?, ? extends Number> weigher, long expireAfterWrite, long expireAfterAccess, int concurrency, Clock clock) {
+            if (maximumSize < 0 || maximumWeight < 0) throw new IllegalArgumentException("Cache bounds can not be negative");
+            if (expireAfterWrite < 0 || expireAfterAccess < 0) throw new IllegalArgumentException("Expiry can not be negative");
+            if (concurrency < 1) throw new IllegalArgumentException("Concurrency must be positive");
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+            this.concurrency = concurrency;
+            this.clock = clock;
+        }
+
+        public Options maximumSize(long maximumSize) {
+            return new Options(maximumSize, maximumWeight, weigher, expireAfterWrite, expireAfterAccess, concurrency, clock);
+        }
+
+        public Options maximumWeight(long maximumWeight, Callable2<?, ?, ? extends Number> weigher) {
+            return new Options(maximumSize, maximumWeight, weigher, expireAfterWrite, expireAfterAccess, concurrency, clock);
+        }
+
+        public Options expireAfterWrite(long duration, TimeUnit unit) {
+            return new Options(maximumSize, maximumWeight, weigher, unit.toMillis(duration), expireAfterAccess, concurrency, clock);
+        }
+
+        public Options expireAfterAccess(long duration, TimeUnit unit) {
+            return new Options(maximumSize, maximumWeight, weigher, expireAfterWrite, unit.toMillis(duration), concurrency, clock);
+        }
+
+        public Options concurrency(int concurrency) {
+            return new Options(maximumSize, maximumWeight, weigher, expireAfterWrite, expireAfterAccess, concurrency, clock);
+        }
+
+        public Options clock(Clock clock) {
+            return new Options(maximumSize, maximumWeight, weigher, expireAfterWrite, expireAfterAccess, concurrency, clock);
+        }
+    }
+
+    public static final class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long loads;
+        public final long failures;
+        public final long evictions;
+
+        private Statistics(long hits, long misses, long loads, long failures, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.failures = failures;
+            this.evictions = evictions;
+        }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%s misses=%s loads=%s failures=%s evictions=%s", hits, misses, loads, failures, evictions);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Predicate;
 import com.googlecode.totallylazy.Predicates;
 import com.googlecode.totallylazy.Sequences;
+import com.googlecode.totallylazy.Unchecked;
 import com.googlecode.totallylazy.annotations.multimethod;
 
 import java.util.Iterator;
@@ -89,6 +90,11 @@ public class HashTreeMap<K, V> extends AbstractMap<K, V> {
         return hashTreeMap(hash.insert(hashCode, bucket));
     }
 
+    @Override
+    public TransientMap<K, V> transientMap() {
+        return new Transient<K, V>(hash.transientMap(), emptyBucket, size());
+    }
+
     @Override
     public PersistentMap<K, V> filter(Predicate<? super Pair<K, V>> predicate) {
         return hashTreeMap(toSequence().filter(predicate));
@@ -148,4 +154,53 @@ public class HashTreeMap<K, V> extends AbstractMap<K, V> {
     public String toString() {
         return toSequence().toString("");
     }
+
+    private static class Transient<K, V> implements TransientMap<K, V> {
+        private final TransientMap<Integer, PersistentMap<K, V>> hash;
+        private final PersistentMap<K, V> emptyBucket;
+        private int size;
+
+        private Transient(TransientMap<Integer, PersistentMap<K, V>> hash, PersistentMap<K, V> emptyBucket, int size) {
+            this.hash = hash;
+            this.emptyBucket = emptyBucket;
+            this.size = size;
+        }
+
+        @Override
+        public Option<V> lookup(K key) {
+            return hash.lookup(key.hashCode()).flatMap(PersistentMap.functions.<K, V>get(key));
+        }
+
+        @Override
+        public Transient<K, V> insert(K key, V value) {
+            int hashCode = key.hashCode();
+            PersistentMap<K, V> bucket = hash.lookup(hashCode).getOrElse(emptyBucket);
+            PersistentMap<K, V> newBucket = bucket.insert(key, value);
+            size += newBucket.size() - bucket.size();
+            hash.insert(hashCode, newBucket);
+            return this;
+        }
+
+        @Override
+        public Transient<K, V> delete(K key) {
+            int hashCode = key.hashCode();
+            Option<PersistentMap<K, V>> bucket = hash.lookup(hashCode);
+            if (bucket.isEmpty()) return this;
+            PersistentMap<K, V> newBucket = bucket.get().delete(key);
+            size += newBucket.size() - bucket.get().size();
+            if (newBucket.isEmpty()) hash.delete(hashCode);
+            else hash.insert(hashCode, newBucket);
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public HashTreeMap<K, V> persistent() {
+            return hashTreeMap(Unchecked.<PersistentSortedMap<Integer, PersistentMap<K, V>>>cast(hash.persistent()));
+        }
+    }
 }
@@ -0,0 +1,508 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Predicate;
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class HashTrieMap<K, V> extends AbstractMap<K, V> {
+    private static final HashTrieMap<?, ?> empty = new HashTrieMap<Object, Object>(null, 0);
+    private final Node root;
+    private final int size;
+
+    private HashTrieMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <K, V> HashTrieMapFactory<K, V> factory() {
+        return HashTrieMapFactory.factory();
+    }
+
+    public static <K, V> HashTrieMap<K, V> hashTrieMap() {
+        return cast(empty);
+    }
+
+    public static <K, V> HashTrieMap<K, V> hashTrieMap(Iterable<? extends Pair<K, V>> values) {
+        return HashTrieMap.<K, V>factory().map(values);
+    }
+
+    @Override
+    public HashTrieMap<K, V> empty() {
+        return hashTrieMap();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Pair<K, V> head() throws NoSuchElementException {
+        return iterator().next();
+    }
+
+    @Override
+    public Option<Pair<K, V>> headOption() {
+        if (isEmpty()) return Option.none();
+        return Option.some(head());
+    }
+
+    @Override
+    public HashTrieMap<K, V> cons(Pair<K, V> head) {
+        return insert(head.first(), head.second());
+    }
+
+    @Override
+    public HashTrieMap<K, V> tail() throws NoSuchElementException {
+        return delete(head().first());
+    }
+
+    @Override
+    public Option<V> lookup(K key) {
+        Object value = find(key);
+        if (value == Node.NOT_FOUND) return Option.none();
+        V result = cast(value);
+        return Option.some(result);
+    }
+
+    @Override
+    public V get(Object key) {
+        Object value = find(key);
+        if (value == Node.NOT_FOUND) return null;
+        return cast(value);
+    }
+
+    @Override
+    public boolean contains(Object other) {
+        return find(other) != Node.NOT_FOUND;
+    }
+
+    private Object find(Object key) {
+        if (root == null) return Node.NOT_FOUND;
+        return root.find(0, hash(key), key);
+    }
+
+    @Override
+    public HashTrieMap<K, V> insert(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node node = root == null ? BitmapNode.EMPTY : root;
+        Node newRoot = node.insert(null, 0, hash(key), key, value, added);
+        if (newRoot == root) return this;
+        return new HashTrieMap<K, V>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @Override
+    public HashTrieMap<K, V> delete(K key) {
+        if (root == null) return this;
+        Node newRoot = root.delete(null, 0, hash(key), key);
+        if (newRoot == root) return this;
+        return new HashTrieMap<K, V>(newRoot, size - 1);
+    }
+
+    @Override
+    public HashTrieMap<K, V> filter(Predicate<? super Pair<K, V>> predicate) {
+        Transient<K, V> result = new Transient<K, V>(null, 0);
+        for (Pair<K, V> pair : this) {
+            if (predicate.matches(pair)) result.insert(pair.first(), pair.second());
+        }
+        return result.persistent();
+    }
+
+    @Override
+    public <NewV> HashTrieMap<K, NewV> map(Callable1<? super V, ? extends NewV> transformer) {
+        Transient<K, NewV> result = new Transient<K, NewV>(null, 0);
+        for (Pair<K, V> pair : this) {
+            result.insert(pair.first(), Callers.call(transformer, pair.second()));
+        }
+        return result.persistent();
+    }
+
+    @Override
+    public TransientMap<K, V> transientMap() {
+        return new Transient<K, V>(root, size);
+    }
+
+    @Override
+    public <S> S fold(S seed, Callable2<? super S, ? super Pair<K, V>, ? extends S> callable) {
+        return toSequence().fold(seed, callable);
+    }
+
+    @Override
+    public boolean exists(Predicate<? super K> predicate) {
+        for (Pair<K, V> pair : this) {
+            if (predicate.matches(pair.first())) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Pair<K, V>> iterator() {
+        return new NodeIterator<K, V>(root);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Map)) return false;
+        Map<?, ?> map = (Map<?, ?>) other;
+        if (map.size() != size) return false;
+        for (Pair<K, V> pair : this) {
+            Object value = pair.second();
+            if (value == null ? map.get(pair.first()) != null || !map.containsKey(pair.first()) : !value.equals(map.get(pair.first())))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (Pair<K, V> pair : this) {
+            hashCode += pair.first().hashCode() ^ (pair.second() == null ? 0 : pair.second().hashCode());
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return toSequence().toString();
+    }
+
+    static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    static abstract class Node {
+        static final Object NOT_FOUND = new Object();
+
+        // Nodes created by a transient share its edit token and may be mutated in place until it is made persistent.
+        final Object edit;
+        // Pairs of key, value. A null key marks the value as a child node.
+        Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node insert(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+
+        abstract Node delete(Object edit, int shift, int hash, Object key);
+
+        abstract int entries();
+
+        boolean owned(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+    }
+
+    static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+        private int bitmap;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return NOT_FOUND;
+            int index = 2 * index(bit);
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) return ((Node) existingValue).find(shift + 5, hash, key);
+            if (key.equals(existingKey)) return existingValue;
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node insert(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, index);
+                newArray[index] = key;
+                newArray[index + 1] = value;
+                System.arraycopy(array, index, newArray, index + 2, array.length - index);
+                return with(edit, bitmap | bit, newArray);
+            }
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) {
+                Node child = (Node) existingValue;
+                Node newChild = child.insert(edit, shift + 5, hash, key, value, added);
+                if (newChild == child) return this;
+                return with(edit, index + 1, newChild);
+            }
+            if (key.equals(existingKey)) {
+                if (value == existingValue) return this;
+                return with(edit, index + 1, value);
+            }
+            added[0] = true;
+            Node child = node(edit, shift + 5, existingKey, existingValue, hash, key, value);
+            BitmapNode result = with(edit, index + 1, child);
+            result.array[index] = null;
+            return result;
+        }
+
+        @Override
+        Node delete(Object edit, int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return this;
+            int index = 2 * index(bit);
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) {
+                Node child = (Node) existingValue;
+                Node newChild = child.delete(edit, shift + 5, hash, key);
+                if (newChild == child) return this;
+                if (newChild == null) return remove(edit, bit, index);
+                if (newChild.entries() == 1 && newChild.array[0] != null) {
+                    BitmapNode result = with(edit, index, newChild.array[0]);
+                    result.array[index + 1] = newChild.array[1];
+                    return result;
+                }
+                return with(edit, index + 1, newChild);
+            }
+            if (key.equals(existingKey)) return remove(edit, bit, index);
+            return this;
+        }
+
+        @Override
+        int entries() {
+            return array.length / 2;
+        }
+
+        private BitmapNode with(Object edit, int index, Object value) {
+            if (!owned(edit)) return new BitmapNode(edit, bitmap, set(array, index, value));
+            array[index] = value;
+            return this;
+        }
+
+        private BitmapNode with(Object edit, int bitmap, Object[] array) {
+            if (!owned(edit)) return new BitmapNode(edit, bitmap, array);
+            this.bitmap = bitmap;
+            this.array = array;
+            return this;
+        }
+
+        private Node remove(Object edit, int bit, int index) {
+            if (bitmap == bit) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+            return with(edit, bitmap ^ bit, newArray);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        private static Node node(Object edit, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+            boolean[] ignored = new boolean[1];
+            return EMPTY.insert(edit, shift, hash1, key1, value1, ignored).insert(edit, shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) return NOT_FOUND;
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : array[index + 1];
+        }
+
+        @Override
+        Node insert(Object edit, int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash)
+                return new BitmapNode(edit, BitmapNode.bit(this.hash, shift), new Object[]{null, this}).insert(edit, shift, hash, key, value, added);
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) return this;
+                return with(edit, set(array, index + 1, value));
+            }
+            added[0] = true;
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return with(edit, newArray);
+        }
+
+        @Override
+        Node delete(Object edit, int shift, int hash, Object key) {
+            if (hash != this.hash) return this;
+            int index = indexOf(key);
+            if (index < 0) return this;
+            if (array.length == 2) return null;
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, index);
+            System.arraycopy(array, index + 2, newArray, index, newArray.length - index);
+            return with(edit, newArray);
+        }
+
+        @Override
+        int entries() {
+            return array.length / 2;
+        }
+
+        private CollisionNode with(Object edit, Object[] array) {
+            if (!owned(edit)) return new CollisionNode(edit, hash, array);
+            this.array = array;
+            return this;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static class Transient<K, V> implements TransientMap<K, V> {
+        private final boolean[] added = new boolean[1];
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        @Override
+        public Option<V> lookup(K key) {
+            Object value = find(key);
+            if (value == Node.NOT_FOUND) return Option.none();
+            V result = cast(value);
+            return Option.some(result);
+        }
+
+        @Override
+        public Transient<K, V> insert(K key, V value) {
+            Object edit = edit();
+            added[0] = false;
+            root = (root == null ? BitmapNode.EMPTY : root).insert(edit, 0, hash(key), key, value, added);
+            if (added[0]) size++;
+            return this;
+        }
+
+        @Override
+        public Transient<K, V> delete(K key) {
+            if (find(key) == Node.NOT_FOUND) return this;
+            root = root.delete(edit, 0, hash(key), key);
+            size--;
+            return this;
+        }
+
+        @Override
+        public int size() {
+            edit();
+            return size;
+        }
+
+        @Override
+        public HashTrieMap<K, V> persistent() {
+            edit();
+            edit = null;
+            if (root == null) return hashTrieMap();
+            return new HashTrieMap<K, V>(root, size);
+        }
+
+        private Object find(Object key) {
+            edit();
+            if (root == null) return Node.NOT_FOUND;
+            return root.find(0, hash(key), key);
+        }
+
+        private Object edit() {
+            if (edit == null) throw new IllegalStateException("Transient used after call to persistent()");
+            return edit;
+        }
+    }
+
+    private static Object[] set(Object[] array, int index, Object value) {
+        Object[] result = array.clone();
+        result[index] = value;
+        return result;
+    }
+
+    private static class NodeIterator<K, V> extends ReadOnlyIterator<Pair<K, V>> {
+        private final Object[][] arrays = new Object[8][];
+        private final int[] indexes = new int[8];
+        private int depth = -1;
+
+        private NodeIterator(Node root) {
+            if (root != null) push(root);
+        }
+
+        private void push(Node node) {
+            depth++;
+            arrays[depth] = node.array;
+            indexes[depth] = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int index = indexes[depth];
+                if (index >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                if (array[index] != null) return true;
+                indexes[depth] = index + 2;
+                push((Node) array[index + 1]);
+            }
+            return false;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Object[] array = arrays[depth];
+            int index = indexes[depth];
+            indexes[depth] = index + 2;
+            K key = cast(array[index]);
+            V value = cast(array[index + 1]);
+            return Pair.pair(key, value);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.googlecode.totallylazy.collections;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class HashTrieMapFactory<K, V> extends AbstractMapFactory<K, V, HashTrieMap<K, V>> {
+    private static final HashTrieMapFactory<?,?> instance = new HashTrieMapFactory<Object, Object>();
+    private HashTrieMapFactory() {}
+
+    public static <K,V> HashTrieMapFactory<K, V> factory() {return cast(instance);}
+
+    @Override
+    public HashTrieMap<K, V> empty() {
+        return HashTrieMap.hashTrieMap();
+    }
+}
@@ -0,0 +1,153 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
+import com.googlecode.totallylazy.Callables;
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Predicate;
+import com.googlecode.totallylazy.Predicates;
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class HashTrieSet<T> extends AbstractCollection<T> implements PersistentSet<T> {
+    private static final HashTrieSet<?> empty = new HashTrieSet<Object>(HashTrieMap.<Object, Object>hashTrieMap());
+    private final HashTrieMap<T, T> map;
+
+    private HashTrieSet(HashTrieMap<T, T> map) {
+        this.map = map;
+    }
+
+    public static <T> HashTrieSet<T> hashTrieSet() {
+        return cast(empty);
+    }
+
+    public static <T> HashTrieSet<T> hashTrieSet(Iterable<? extends T> values) {
+        HashTrieSet<T> result = hashTrieSet();
+        for (T value : values) result = result.cons(value);
+        return result;
+    }
+
+    private HashTrieSet<T> hashTrieSet(HashTrieMap<T, T> map) {
+        if (map == this.map) return this;
+        return new HashTrieSet<T>(map);
+    }
+
+    @Override
+    public Option<T> lookup(T value) {
+        return map.lookup(value);
+    }
+
+    @Override
+    public Option<T> find(Predicate<? super T> predicate) {
+        return map.find(predicate);
+    }
+
+    @Override
+    public HashTrieSet<T> empty() {
+        return hashTrieSet();
+    }
+
+    @Override
+    public HashTrieSet<T> cons(T head) {
+        return hashTrieSet(map.insert(head, head));
+    }
+
+    @Override
+    public HashTrieSet<T> delete(T value) {
+        return hashTrieSet(map.delete(value));
+    }
+
+    @Override
+    public HashTrieSet<T> filter(Predicate<? super T> predicate) {
+        return hashTrieSet(map.filter(Predicates.<T>first(predicate)));
+    }
+
+    @Override
+    public <NewT> HashTrieSet<NewT> map(Callable1<? super T, ? extends NewT> transformer) {
+        HashTrieSet<NewT> result = hashTrieSet();
+        for (T value : this) result = result.cons(Callers.call(transformer, value));
+        return result;
+    }
+
+    @Override
+    public PersistentList<T> toPersistentList() {
+        return toSequence().toPersistentList();
+    }
+
+    @Override
+    public Set<T> toSet() {
+        return toSequence().toSet();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public T head() throws NoSuchElementException {
+        return map.head().first();
+    }
+
+    @Override
+    public Option<T> headOption() {
+        return map.headOption().map(Callables.<T>first());
+    }
+
+    @Override
+    public HashTrieSet<T> tail() throws NoSuchElementException {
+        return hashTrieSet(map.tail());
+    }
+
+    @Override
+    public <C extends Segment<T>> C joinTo(C rest) {
+        return Sequences.joinTo(this, rest);
+    }
+
+    @Override
+    public boolean contains(Object other) {
+        return map.contains(other);
+    }
+
+    @Override
+    public boolean exists(Predicate<? super T> predicate) {
+        return map.exists(predicate);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return map.keys().iterator();
+    }
+
+    @Override
+    public <S> S fold(S seed, final Callable2<? super S, ? super T, ? extends S> callable) {
+        return toSequence().fold(seed, callable);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Set)) return false;
+        Set<?> set = (Set<?>) other;
+        return set.size() == size() && set.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (T value : this) hashCode += value.hashCode();
+        return hashCode;
+    }
+}
@@ -9,6 +9,7 @@ import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sets;
 import com.googlecode.totallylazy.iterators.SegmentIterator;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -54,6 +55,44 @@ public abstract class LinkedList<T> extends AbstractList<T> implements Persisten
         return SegmentIterator.iterator(this);
     }
 
+    @Override
+    public TransientList<T> transientList() {
+        return new Transient<T>(this);
+    }
+
+    private static class Transient<T> implements TransientList<T> {
+        private List<T> values = new ArrayList<T>();
+
+        private Transient(Iterable<? extends T> values) {
+            for (T value : values) this.values.add(value);
+        }
+
+        @Override
+        public Transient<T> append(T value) {
+            values().add(value);
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return values().size();
+        }
+
+        @Override
+        public PersistentList<T> persistent() {
+            List<T> values = values();
+            this.values = null;
+            PersistentList<T> result = emptyList();
+            for (int i = values.size() - 1; i >= 0; i--) result = cons(values.get(i), result);
+            return result;
+        }
+
+        private List<T> values() {
+            if (values == null) throw new IllegalStateException("Transient used after call to persistent()");
+            return values;
+        }
+    }
+
     private static class Empty<T> extends LinkedList<T> {
         private Empty() {
         }
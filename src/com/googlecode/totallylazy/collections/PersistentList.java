@@ -41,6 +41,8 @@ public interface PersistentList<T> extends List<T>, PersistentCollection<T>, Ite
 
     PersistentList<T> reverse();
 
+    TransientList<T> transientList();
+
     @Override
     <S> PersistentList<S> map(Callable1<? super T, ? extends S> callable);
 
@@ -141,7 +143,9 @@ public interface PersistentList<T> extends List<T>, PersistentCollection<T>, Ite
         }
 
         public static <T> PersistentList<T> list(Iterable<? extends T> values) {
-            return sequence(values).reverse().foldLeft(constructors.<T>empty(), functions.<T>cons());
+            TransientList<T> list = constructors.<T>empty().transientList();
+            for (T value : values) list.append(value);
+            return list.persistent();
         }
 
         public static <T> PersistentList<T> reverse(Iterable<? extends T> values) {
@@ -32,6 +32,8 @@ public interface PersistentMap<K, V> extends Map<K, V>, Iterable<Pair<K, V>>, Se
 
     PersistentMap<K, V> delete(K key);
 
+    TransientMap<K, V> transientMap();
+
     @Override
     PersistentMap<K, V> filter(Predicate<? super Pair<K, V>> predicate);
 
@@ -94,7 +96,7 @@ public interface PersistentMap<K, V> extends Map<K, V>, Iterable<Pair<K, V>>, Se
 
     class constructors {
         public static <K, V> PersistentMap<K, V> map() {
-            return HashTreeMap.hashTreeMap();
+            return HashTrieMap.hashTrieMap();
         }
 
         public static <K, V> PersistentMap<K, V> emptyMap() {
@@ -130,7 +132,7 @@ public interface PersistentMap<K, V> extends Map<K, V>, Iterable<Pair<K, V>>, Se
         }
 
         public static <K, V> PersistentMap<K, V> map(final Iterable<? extends Pair<K, V>> values) {
-            return HashTreeMap.hashTreeMap(values);
+            return HashTrieMap.hashTrieMap(values);
         }
 
         public static <K, V> PersistentMap<K, V> map(final Map<K, V> values) {
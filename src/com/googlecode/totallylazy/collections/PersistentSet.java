@@ -12,6 +12,8 @@ import com.googlecode.totallylazy.Sequence;
 
 import java.util.Set;
 
+import static com.googlecode.totallylazy.Sequences.sequence;
+
 public interface PersistentSet<T> extends Set<T>, Iterable<T>, Segment<T>, PersistentCollection<T>, Functor<T>, Foldable<T>, Filterable<T> {
     Option<T> lookup(T value);
 
@@ -37,7 +39,32 @@ public interface PersistentSet<T> extends Set<T>, Iterable<T>, Segment<T>, Persi
 
     Set<T> toSet();
 
+    class constructors {
+        public static <T> PersistentSet<T> set() {
+            return HashTrieSet.hashTrieSet();
+        }
+
+        public static <T> PersistentSet<T> set(T value) {
+            return set(sequence(value));
+        }
+
+        public static <T> PersistentSet<T> set(T value1, T value2) {
+            return set(sequence(value1, value2));
+        }
+
+        public static <T> PersistentSet<T> set(T value1, T value2, T value3) {
+            return set(sequence(value1, value2, value3));
+        }
+
+        @SuppressWarnings("unchecked")
+        public static <T> PersistentSet<T> set(final T head, final T... tail) {
+            return set(sequence(tail).cons(head));
+        }
 
+        public static <T> PersistentSet<T> set(final Iterable<? extends T> values) {
+            return HashTrieSet.hashTrieSet(values);
+        }
+    }
 
     class functions extends Segment.functions {
         public static <T> Mapper<PersistentSet<T>,Option<T>> get(final T value) {
@@ -29,6 +29,12 @@ public interface PersistentSortedSet<T> extends PersistentSet<T>, Sorted<T>, Ind
     @Override
     <NewT> PersistentSortedSet<NewT> map(Callable1<? super T, ? extends NewT> transformer);
 
+    PersistentSortedSet<T> union(PersistentSortedSet<T> other);
+
+    PersistentSortedSet<T> intersection(PersistentSortedSet<T> other);
+
+    PersistentSortedSet<T> difference(PersistentSortedSet<T> other);
+
     @Override
     Pair<PersistentSortedSet<T>, T> removeFirst() throws NoSuchElementException;
 
@@ -0,0 +1,9 @@
+package com.googlecode.totallylazy.collections;
+
+public interface TransientList<T> {
+    TransientList<T> append(T value);
+
+    int size();
+
+    PersistentList<T> persistent();
+}
@@ -0,0 +1,57 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+
+public interface TransientMap<K, V> {
+    Option<V> lookup(K key);
+
+    TransientMap<K, V> insert(K key, V value);
+
+    TransientMap<K, V> delete(K key);
+
+    int size();
+
+    PersistentMap<K, V> persistent();
+
+    class constructors {
+        public static <K, V> TransientMap<K, V> transientMap(final PersistentMap<K, V> map) {
+            return new TransientMap<K, V>() {
+                private PersistentMap<K, V> current = map;
+
+                @Override
+                public Option<V> lookup(K key) {
+                    return current().lookup(key);
+                }
+
+                @Override
+                public TransientMap<K, V> insert(K key, V value) {
+                    current = current().insert(key, value);
+                    return this;
+                }
+
+                @Override
+                public TransientMap<K, V> delete(K key) {
+                    current = current().delete(key);
+                    return this;
+                }
+
+                @Override
+                public int size() {
+                    return current().size();
+                }
+
+                @Override
+                public PersistentMap<K, V> persistent() {
+                    PersistentMap<K, V> result = current();
+                    current = null;
+                    return result;
+                }
+
+                private PersistentMap<K, V> current() {
+                    if (current == null) throw new IllegalStateException("Transient used after call to persistent()");
+                    return current;
+                }
+            };
+        }
+    }
+}
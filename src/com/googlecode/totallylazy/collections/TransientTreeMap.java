@@ -0,0 +1,208 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Unchecked;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+// Tree nodes carry no edit token, so nothing is mutated in place: edits to an existing tree are kept aside and replayed
+// onto it (sharing structure) when there are few of them, otherwise the tree is rebuilt balanced in one O(n) pass
+public class TransientTreeMap<K, V> implements TransientMap<K, V> {
+    private static final Object deleted = new Object();
+    private final TreeFactory factory;
+    private final Comparator<K> comparator;
+    private final TreeMap<K, V> base;
+    private java.util.TreeMap<K, Object> edits;
+    // Ascending inserts are appended to keys and values; anything else moves the entries into map.
+    private Object[] keys = new Object[16];
+    private Object[] values = new Object[16];
+    private int size;
+    private java.util.TreeMap<K, V> map;
+    private boolean persistent;
+
+    private TransientTreeMap(TreeFactory factory, Comparator<K> comparator, Iterable<? extends Pair<K, V>> values) {
+        this.factory = factory;
+        this.comparator = comparator;
+        this.base = null;
+        for (Pair<K, V> pair : values) insert(pair.first(), pair.second());
+    }
+
+    private TransientTreeMap(TreeFactory factory, Comparator<K> comparator, TreeMap<K, V> base) {
+        this.factory = factory;
+        this.comparator = comparator;
+        this.base = base;
+        this.edits = new java.util.TreeMap<K, Object>(comparator);
+        this.size = base.size();
+        this.keys = this.values = null;
+    }
+
+    public static <K, V> TransientTreeMap<K, V> transientTreeMap(TreeFactory factory, Comparator<K> comparator, Iterable<? extends Pair<K, V>> values) {
+        return new TransientTreeMap<K, V>(factory, comparator, values);
+    }
+
+    public static <K, V> TransientTreeMap<K, V> transientTreeMap(TreeFactory factory, Comparator<K> comparator, TreeMap<K, V> base) {
+        if (base.isEmpty()) return transientTreeMap(factory, comparator);
+        return new TransientTreeMap<K, V>(factory, comparator, base);
+    }
+
+    public static <K, V> TransientTreeMap<K, V> transientTreeMap(TreeFactory factory, Comparator<K> comparator) {
+        return transientTreeMap(factory, comparator, PersistentList.constructors.<Pair<K, V>>empty());
+    }
+
+    @Override
+    public Option<V> lookup(K key) {
+        check();
+        if (base != null) {
+            if (!edits.containsKey(key)) return base.lookup(key);
+            Object edit = edits.get(key);
+            return edit == deleted ? Option.<V>none() : Option.option(Unchecked.<V>cast(edit));
+        }
+        if (map != null) return map.containsKey(key) ? Option.option(map.get(key)) : Option.<V>none();
+        int index = indexOf(key);
+        if (index < 0) return Option.none();
+        V value = cast(values[index]);
+        return Option.option(value);
+    }
+
+    @Override
+    public TransientTreeMap<K, V> insert(K key, V value) {
+        check();
+        if (base != null) {
+            if (!contains(key)) size++;
+            edits.put(key, value);
+            return this;
+        }
+        if (map != null) {
+            map.put(key, value);
+            return this;
+        }
+        int difference = size == 0 ? 1 : comparator.compare(key, Unchecked.<K>cast(keys[size - 1]));
+        if (difference == 0) values[size - 1] = value;
+        else if (difference > 0) append(key, value);
+        else sorted().put(key, value);
+        return this;
+    }
+
+    @Override
+    public TransientTreeMap<K, V> delete(K key) {
+        check();
+        if (base != null) {
+            if (contains(key)) {
+                size--;
+                edits.put(key, deleted);
+            }
+        } else if (map != null) map.remove(key);
+        else if (indexOf(key) >= 0) sorted().remove(key);
+        return this;
+    }
+
+    @Override
+    public int size() {
+        check();
+        return map == null ? size : map.size();
+    }
+
+    @Override
+    public TreeMap<K, V> persistent() {
+        check();
+        persistent = true;
+        if (base != null) return edits.size() <= base.size() / (32 - Integer.numberOfLeadingZeros(base.size())) ? replay() : rebuild();
+        if (map != null) {
+            size = 0;
+            keys = new Object[map.size()];
+            values = new Object[map.size()];
+            for (Map.Entry<K, V> entry : map.entrySet()) append(entry.getKey(), entry.getValue());
+            map = null;
+        }
+        TreeMap<K, V> result = tree(0, size, factory.<K, V>create(comparator));
+        keys = values = null;
+        return result;
+    }
+
+    private TreeMap<K, V> replay() {
+        TreeMap<K, V> result = base;
+        for (Map.Entry<K, Object> edit : edits.entrySet()) {
+            if (edit.getValue() == deleted) result = result.delete(edit.getKey());
+            else result = result.insert(edit.getKey(), Unchecked.<V>cast(edit.getValue()));
+        }
+        edits = null;
+        return result;
+    }
+
+    private TreeMap<K, V> rebuild() {
+        keys = new Object[Math.max(size, 1)];
+        values = new Object[Math.max(size, 1)];
+        size = 0;
+        Iterator<Pair<K, V>> existing = base.iterator();
+        Iterator<Map.Entry<K, Object>> changes = edits.entrySet().iterator();
+        Pair<K, V> pair = existing.hasNext() ? existing.next() : null;
+        Map.Entry<K, Object> edit = changes.hasNext() ? changes.next() : null;
+        while (pair != null || edit != null) {
+            int difference = pair == null ? 1 : edit == null ? -1 : comparator.compare(pair.first(), edit.getKey());
+            if (difference < 0) {
+                append(pair.first(), pair.second());
+                pair = existing.hasNext() ? existing.next() : null;
+                continue;
+            }
+            if (edit.getValue() != deleted) append(edit.getKey(), Unchecked.<V>cast(edit.getValue()));
+            if (difference == 0) pair = existing.hasNext() ? existing.next() : null;
+            edit = changes.hasNext() ? changes.next() : null;
+        }
+        edits = null;
+        TreeMap<K, V> result = tree(0, size, factory.<K, V>create(comparator));
+        keys = values = null;
+        return result;
+    }
+
+    private boolean contains(K key) {
+        if (!edits.containsKey(key)) return base.contains(key);
+        return edits.get(key) != deleted;
+    }
+
+    private TreeMap<K, V> tree(int from, int to, TreeMap<K, V> empty) {
+        if (from == to) return empty;
+        int middle = (from + to) >>> 1;
+        K key = cast(keys[middle]);
+        V value = cast(values[middle]);
+        return factory.create(comparator, key, value, tree(from, middle, empty), tree(middle + 1, to, empty));
+    }
+
+    private void append(K key, V value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size++] = value;
+    }
+
+    private int indexOf(K key) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int difference = comparator.compare(Unchecked.<K>cast(keys[middle]), key);
+            if (difference < 0) low = middle + 1;
+            else if (difference > 0) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    private java.util.TreeMap<K, V> sorted() {
+        map = new java.util.TreeMap<K, V>(comparator);
+        for (int i = 0; i < size; i++) map.put(Unchecked.<K>cast(keys[i]), Unchecked.<V>cast(values[i]));
+        keys = values = null;
+        size = 0;
+        return map;
+    }
+
+    private void check() {
+        if (persistent) throw new IllegalStateException("Transient used after call to persistent()");
+    }
+}
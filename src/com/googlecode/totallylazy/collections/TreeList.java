@@ -11,6 +11,7 @@ import com.googlecode.totallylazy.Predicate;
 import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sets;
+import com.googlecode.totallylazy.Unchecked;
 
 import java.util.Iterator;
 import java.util.List;
@@ -22,7 +23,6 @@ import static com.googlecode.totallylazy.Predicates.in;
 import static com.googlecode.totallylazy.Predicates.not;
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.Sets.set;
-import static com.googlecode.totallylazy.numbers.Numbers.intValue;
 
 public class TreeList<T> extends AbstractList<T> implements PersistentList<T>, RandomAccess {
     private final PersistentSortedMap<Integer, T> map;
@@ -60,8 +60,9 @@ public class TreeList<T> extends AbstractList<T> implements PersistentList<T>, R
     }
 
     public static <T> TreeList<T> treeList(Iterable<? extends T> iterable) {
-        return treeList(PersistentSortedMap.constructors.<Integer, T>sortedMap(sequence(iterable).
-                zipWithIndex().map(Callables.<Number, T, Integer>first(intValue))));
+        Transient<T> list = new Transient<T>(PersistentSortedMap.constructors.<Integer, T>emptySortedMap().transientMap(), 0);
+        for (T value : iterable) list.append(value);
+        return list.persistent();
     }
 
     @Override
@@ -114,6 +115,11 @@ public class TreeList<T> extends AbstractList<T> implements PersistentList<T>, R
         return treeList(map.cons(Pair.pair(++index, value)));
     }
 
+    @Override
+    public TransientList<T> transientList() {
+        return new Transient<T>(map.transientMap(), map.isEmpty() ? 0 : map.last().first() + 1);
+    }
+
     @Override
     public TreeList<T> delete(T value) {
         return treeList(toSequence().delete(value));
@@ -169,4 +175,29 @@ public class TreeList<T> extends AbstractList<T> implements PersistentList<T>, R
         return Iterators.map(map.iterator(), Callables.<T>second());
     }
 
+    private static class Transient<T> implements TransientList<T> {
+        private final TransientMap<Integer, T> map;
+        private int next;
+
+        private Transient(TransientMap<Integer, T> map, int next) {
+            this.map = map;
+            this.next = next;
+        }
+
+        @Override
+        public Transient<T> append(T value) {
+            map.insert(next++, value);
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public TreeList<T> persistent() {
+            return treeList(Unchecked.<PersistentSortedMap<Integer, T>>cast(map.persistent()));
+        }
+    }
 }
@@ -1,13 +1,18 @@
 package com.googlecode.totallylazy.collections;
 
 import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
 import com.googlecode.totallylazy.Function1;
+import com.googlecode.totallylazy.Function2;
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Predicate;
+import com.googlecode.totallylazy.Unchecked;
 
 import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import static com.googlecode.totallylazy.Callers.call;
 
@@ -63,6 +68,14 @@ public interface TreeMap<K, V> extends PersistentSortedMap<K, V> {
     @Override
     Pair<? extends TreeMap<K, V>, Pair<K, V>> removeLast();
 
+    TreeMap<K, V> union(TreeMap<K, V> other);
+
+    TreeMap<K, V> intersection(TreeMap<K, V> other);
+
+    TreeMap<K, V> difference(TreeMap<K, V> other);
+
+    TreeMap<K, V> mergeWith(TreeMap<K, V> other, Callable2<? super V, ? super V, ? extends V> combiner);
+
     TreeFactory factory();
 
     enum constructors implements TreeFactory {
@@ -97,6 +110,170 @@ public interface TreeMap<K, V> extends PersistentSortedMap<K, V> {
             TreeMap<K, V> right = treeMap(factory, comparator, sortedList.subList(middle + 1, sortedList.size()));
             return factory.create(comparator, pair.first(), pair.second(), left, right);
         }
+
+        private static final int PARALLEL_THRESHOLD = 8192;
+
+        public static <K, V> TreeMap<K, V> union(TreeMap<K, V> a, TreeMap<K, V> b) {
+            return mergeWith(a, b, methods.<V>replace());
+        }
+
+        public static <K, V> TreeMap<K, V> union(TreeMap<K, V> a, TreeMap<K, V> b, ForkJoinPool pool) {
+            return mergeWith(a, b, methods.<V>replace(), pool);
+        }
+
+        public static <K, V> TreeMap<K, V> mergeWith(TreeMap<K, V> a, TreeMap<K, V> b, Callable2<? super V, ? super V, ? extends V> combiner) {
+            return Operation.union.apply(a, b, combiner, false);
+        }
+
+        public static <K, V> TreeMap<K, V> mergeWith(TreeMap<K, V> a, TreeMap<K, V> b, Callable2<? super V, ? super V, ? extends V> combiner, ForkJoinPool pool) {
+            return pool.invoke(new Task<K, V>(Operation.union, a, b, combiner));
+        }
+
+        public static <K, V> TreeMap<K, V> intersection(TreeMap<K, V> a, TreeMap<K, V> b) {
+            return Operation.intersection.apply(a, b, null, false);
+        }
+
+        public static <K, V> TreeMap<K, V> intersection(TreeMap<K, V> a, TreeMap<K, V> b, ForkJoinPool pool) {
+            return pool.invoke(new Task<K, V>(Operation.intersection, a, b, null));
+        }
+
+        public static <K, V> TreeMap<K, V> difference(TreeMap<K, V> a, TreeMap<K, V> b) {
+            return Operation.difference.apply(a, b, null, false);
+        }
+
+        public static <K, V> TreeMap<K, V> difference(TreeMap<K, V> a, TreeMap<K, V> b, ForkJoinPool pool) {
+            return pool.invoke(new Task<K, V>(Operation.difference, a, b, null));
+        }
+
+        public static <K, V> Split<K, V> split(TreeMap<K, V> tree, K key) {
+            if (tree.isEmpty()) return new Split<K, V>(tree, null, null, false, tree);
+            int difference = tree.comparator().compare(key, tree.key());
+            if (difference == 0) return new Split<K, V>(tree.left(), tree.key(), tree.value(), true, tree.right());
+            if (difference < 0) {
+                Split<K, V> split = split(tree.left(), key);
+                return new Split<K, V>(split.left, split.key, split.value, split.found, join(split.right, tree.key(), tree.value(), tree.right()));
+            }
+            Split<K, V> split = split(tree.right(), key);
+            return new Split<K, V>(join(tree.left(), tree.key(), tree.value(), split.left), split.key, split.value, split.found, split.right);
+        }
+
+        public static <K, V> TreeMap<K, V> join(TreeMap<K, V> left, K key, V value, TreeMap<K, V> right) {
+            if (left instanceof AVLTree && right instanceof AVLTree)
+                return AVLTree.methods.join(left.comparator(), Unchecked.<AVLTree<K, V>>cast(left), key, value, Unchecked.<AVLTree<K, V>>cast(right));
+            return left.factory().create(left.comparator(), key, value, left, right);
+        }
+
+        public static <K, V> TreeMap<K, V> join(TreeMap<K, V> left, TreeMap<K, V> right) {
+            if (left.isEmpty()) return right;
+            if (right.isEmpty()) return left;
+            Split<K, V> last = splitLast(left);
+            return join(last.left, last.key, last.value, right);
+        }
+
+        private static <K, V> Split<K, V> splitLast(TreeMap<K, V> tree) {
+            if (tree.right().isEmpty()) return new Split<K, V>(tree.left(), tree.key(), tree.value(), true, tree.right());
+            Split<K, V> last = splitLast(tree.right());
+            return new Split<K, V>(join(tree.left(), tree.key(), tree.value(), last.left), last.key, last.value, true, last.right);
+        }
+
+        private static <V> Callable2<V, V, V> replace() {
+            return new Function2<V, V, V>() {
+                @Override
+                public V call(V existing, V value) throws Exception {
+                    return value;
+                }
+            };
+        }
+
+        public static class Split<K, V> {
+            public final TreeMap<K, V> left;
+            public final K key;
+            public final V value;
+            public final boolean found;
+            public final TreeMap<K, V> right;
+
+            private Split(TreeMap<K, V> left, K key, V value, boolean found, TreeMap<K, V> right) {
+                this.left = left;
+                this.key = key;
+                this.value = value;
+                this.found = found;
+                this.right = right;
+            }
+        }
+
+        private enum Operation {
+            union {
+                @Override
+                <K, V> TreeMap<K, V> empty(TreeMap<K, V> a, TreeMap<K, V> b) {
+                    return a.isEmpty() ? b : a;
+                }
+
+                @Override
+                <K, V> TreeMap<K, V> combine(Split<K, V> split, TreeMap<K, V> b, TreeMap<K, V> left, TreeMap<K, V> right, Callable2<? super V, ? super V, ? extends V> combiner) {
+                    V value = split.found ? call(combiner, split.value, b.value()) : b.value();
+                    return join(left, b.key(), value, right);
+                }
+            },
+            intersection {
+                @Override
+                <K, V> TreeMap<K, V> empty(TreeMap<K, V> a, TreeMap<K, V> b) {
+                    return a.empty();
+                }
+
+                @Override
+                <K, V> TreeMap<K, V> combine(Split<K, V> split, TreeMap<K, V> b, TreeMap<K, V> left, TreeMap<K, V> right, Callable2<? super V, ? super V, ? extends V> combiner) {
+                    if (split.found) return join(left, split.key, split.value, right);
+                    return join(left, right);
+                }
+            },
+            difference {
+                @Override
+                <K, V> TreeMap<K, V> empty(TreeMap<K, V> a, TreeMap<K, V> b) {
+                    return a;
+                }
+
+                @Override
+                <K, V> TreeMap<K, V> combine(Split<K, V> split, TreeMap<K, V> b, TreeMap<K, V> left, TreeMap<K, V> right, Callable2<? super V, ? super V, ? extends V> combiner) {
+                    return join(left, right);
+                }
+            };
+
+            abstract <K, V> TreeMap<K, V> empty(TreeMap<K, V> a, TreeMap<K, V> b);
+
+            abstract <K, V> TreeMap<K, V> combine(Split<K, V> split, TreeMap<K, V> b, TreeMap<K, V> left, TreeMap<K, V> right, Callable2<? super V, ? super V, ? extends V> combiner);
+
+            <K, V> TreeMap<K, V> apply(TreeMap<K, V> a, TreeMap<K, V> b, Callable2<? super V, ? super V, ? extends V> combiner, boolean parallel) {
+                if (a.isEmpty() || b.isEmpty()) return empty(a, b);
+                Split<K, V> split = split(a, b.key());
+                if (parallel && a.size() + b.size() > PARALLEL_THRESHOLD) {
+                    Task<K, V> left = new Task<K, V>(this, split.left, b.left(), combiner);
+                    left.fork();
+                    TreeMap<K, V> right = apply(split.right, b.right(), combiner, true);
+                    return combine(split, b, left.join(), right, combiner);
+                }
+                return combine(split, b, apply(split.left, b.left(), combiner, parallel), apply(split.right, b.right(), combiner, parallel), combiner);
+            }
+        }
+
+        private static class Task<K, V> extends RecursiveTask<TreeMap<K, V>> {
+            private static final long serialVersionUID = 1L;
+            private final Operation operation;
+            private final TreeMap<K, V> a;
+            private final TreeMap<K, V> b;
+            private final Callable2<? super V, ? super V, ? extends V> combiner;
+
+            private Task(Operation operation, TreeMap<K, V> a, TreeMap<K, V> b, Callable2<? super V, ? super V, ? extends V> combiner) {
+                this.operation = operation;
+                this.a = a;
+                this.b = b;
+                this.combiner = combiner;
+            }
+
+            @Override
+            protected TreeMap<K, V> compute() {
+                return operation.apply(a, b, combiner, true);
+            }
+        }
     }
 
     static class functions {
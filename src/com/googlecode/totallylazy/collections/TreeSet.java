@@ -65,6 +65,32 @@ public class TreeSet<T> extends AbstractCollection<T> implements PersistentSorte
         return treeSet(map.delete(value));
     }
 
+    @Override
+    public PersistentSortedSet<T> union(PersistentSortedSet<T> other) {
+        return treeSet(TreeMap.methods.union(tree(), tree(other)));
+    }
+
+    @Override
+    public PersistentSortedSet<T> intersection(PersistentSortedSet<T> other) {
+        return treeSet(TreeMap.methods.intersection(tree(), tree(other)));
+    }
+
+    @Override
+    public PersistentSortedSet<T> difference(PersistentSortedSet<T> other) {
+        return treeSet(TreeMap.methods.difference(tree(), tree(other)));
+    }
+
+    private TreeMap<T, T> tree() {
+        return cast(map);
+    }
+
+    private TreeMap<T, T> tree(PersistentSortedSet<T> set) {
+        if (set instanceof TreeSet) return ((TreeSet<T>) set).tree();
+        TransientMap<T, T> result = map.empty().transientMap();
+        for (T value : set) result.insert(value, value);
+        return cast(result.persistent());
+    }
+
     @Override
     public T first() throws NoSuchElementException {
         return map.first().first();
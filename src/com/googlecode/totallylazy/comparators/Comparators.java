@@ -71,6 +71,14 @@ public class Comparators {
         return new DescendingComparator<T, R>(callable);
     }
 
+    public static <T> Comparator<T> reverse(final Comparator<? super T> comparator) {
+        return new Comparator<T>() {
+            public int compare(T a, T b) {
+                return comparator.compare(b, a);
+            }
+        };
+    }
+
     public static <T> Comparator<T> comparators(final Comparator<? super T>... comparators) {
         return comparators(sequence(comparators));
     }
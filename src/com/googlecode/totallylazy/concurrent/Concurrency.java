@@ -0,0 +1,178 @@
+package com.googlecode.totallylazy.concurrent;
+
+import com.googlecode.totallylazy.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.System.getProperty;
+
+// Process wide executor shared by the *Concurrently operations; configure with -Dtotallylazy.concurrency=workStealing|virtual
+// and -Dtotallylazy.concurrency.parallelism=n, or replace at runtime with executor(ExecutorService)
+public class Concurrency {
+    public static final String MODE = "totallylazy.concurrency";
+    public static final String PARALLELISM = "totallylazy.concurrency.parallelism";
+    private static volatile ExecutorService executor;
+
+    public static ExecutorService executor() {
+        ExecutorService result = executor;
+        if (result != null) return result;
+        synchronized (Concurrency.class) {
+            if (executor == null) executor = defaultExecutor();
+            return executor;
+        }
+    }
+
+    // The previous executor is not shut down as callers may still hold it
+    public static void executor(ExecutorService executor) {
+        if (executor == null) throw new IllegalArgumentException("Executor can not be null");
+        Concurrency.executor = executor;
+    }
+
+    public static int parallelism() {
+        return Math.max(1, getInteger(PARALLELISM, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static ExecutorService workStealing() {
+        return workStealing(parallelism());
+    }
+
+    public static ExecutorService workStealing(int parallelism) {
+        return new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName(String.format("%s: worker-%s", Concurrency.class.getName(), count.incrementAndGet()));
+                return thread;
+            }
+        }, null, true);
+    }
+
+    public static Option<ExecutorService> virtualThreads() {
+        try {
+            return Option.some((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (Exception e) {
+            return Option.none();
+        }
+    }
+
+    public static Executor bounded(Executor executor, int parallelism) {
+        return new BoundedExecutor(executor, parallelism);
+    }
+
+    // Blocks for the result, letting a ForkJoinPool compensate so nested *Concurrently calls can not starve the pool
+    public static <T> T await(final Future<T> future) throws ExecutionException, InterruptedException {
+        if (!future.isDone() && ForkJoinTask.inForkJoinPool()) {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    try {
+                        future.get();
+                    } catch (ExecutionException ignored) {
+                    } catch (CancellationException ignored) {
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return future.isDone();
+                }
+            });
+        }
+        return future.get();
+    }
+
+    public static <T> T take(final BlockingQueue<T> queue) throws InterruptedException {
+        if (!ForkJoinTask.inForkJoinPool()) return queue.take();
+        final List<T> taken = new ArrayList<T>(1);
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                if (taken.isEmpty()) taken.add(queue.take());
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                if (taken.isEmpty()) {
+                    T head = queue.poll();
+                    if (head != null) taken.add(head);
+                }
+                return !taken.isEmpty();
+            }
+        });
+        return taken.get(0);
+    }
+
+    private static ExecutorService defaultExecutor() {
+        if ("virtual".equals(getProperty(MODE))) {
+            Option<ExecutorService> virtual = virtualThreads();
+            if (!virtual.isEmpty()) return virtual.get();
+        }
+        return workStealing();
+    }
+
+    private static final class BoundedExecutor implements Executor {
+        private final Executor executor;
+        private final int parallelism;
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicInteger active = new AtomicInteger();
+
+        private BoundedExecutor(Executor executor, int parallelism) {
+            if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+            this.executor = executor;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+            drain();
+        }
+
+        private void drain() {
+            while (!queue.isEmpty()) {
+                int current = active.get();
+                if (current >= parallelism) return;
+                if (!active.compareAndSet(current, current + 1)) continue;
+                final Runnable next = queue.poll();
+                if (next == null) {
+                    active.decrementAndGet();
+                    continue;
+                }
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                next.run();
+                            } finally {
+                                active.decrementAndGet();
+                                drain();
+                            }
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    active.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+}
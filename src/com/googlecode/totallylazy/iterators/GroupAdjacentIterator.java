@@ -0,0 +1,50 @@
+package com.googlecode.totallylazy.iterators;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Reducer;
+
+import java.util.Iterator;
+
+import static com.googlecode.totallylazy.Callers.call;
+import static com.googlecode.totallylazy.Objects.equalTo;
+
+public final class GroupAdjacentIterator<T, K, R> extends StatefulIterator<Pair<K, R>> {
+    private final Iterator<? extends T> iterator;
+    private final Callable1<? super T, ? extends K> callable;
+    private final Reducer<? super T, R> reducer;
+    private boolean pending;
+    private T pendingValue;
+    private K pendingKey;
+
+    public GroupAdjacentIterator(Iterator<? extends T> iterator, Callable1<? super T, ? extends K> callable, Reducer<? super T, R> reducer) {
+        this.iterator = iterator;
+        this.callable = callable;
+        this.reducer = reducer;
+    }
+
+    @Override
+    protected Pair<K, R> getNext() throws Exception {
+        if (!pending) {
+            if (!iterator.hasNext()) return finished();
+            pendingValue = iterator.next();
+            pendingKey = call(callable, pendingValue);
+        }
+        K key = pendingKey;
+        R accumulator = reducer.call(reducer.identity(), pendingValue);
+        pending = false;
+        while (iterator.hasNext()) {
+            T value = iterator.next();
+            K valueKey = call(callable, value);
+            if (!equalTo(key, valueKey)) {
+                pending = true;
+                pendingValue = value;
+                pendingKey = valueKey;
+                break;
+            }
+            accumulator = reducer.call(accumulator, value);
+        }
+        if (!pending) pendingValue = null;
+        return Pair.pair(key, accumulator);
+    }
+}
@@ -0,0 +1,61 @@
+package com.googlecode.totallylazy.iterators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.googlecode.totallylazy.Closeables.safeClose;
+
+public class MergeIterator<T> extends StatefulIterator<T> implements Closeable {
+    private final List<? extends Iterator<? extends T>> iterators;
+    private final PriorityQueue<Cursor<T>> queue;
+
+    public MergeIterator(final List<? extends Iterator<? extends T>> iterators, final Comparator<? super T> comparator) {
+        this.iterators = iterators;
+        this.queue = new PriorityQueue<Cursor<T>>(Math.max(1, iterators.size()), new Comparator<Cursor<T>>() {
+            @Override
+            public int compare(Cursor<T> a, Cursor<T> b) {
+                int result = comparator.compare(a.head, b.head);
+                return result != 0 ? result : a.index - b.index;
+            }
+        });
+        for (int i = 0; i < iterators.size(); i++) advance(new Cursor<T>(iterators.get(i), i));
+    }
+
+    @Override
+    protected T getNext() throws Exception {
+        Cursor<T> cursor = queue.poll();
+        if (cursor == null) return finished();
+        T result = cursor.head;
+        advance(cursor);
+        return result;
+    }
+
+    private void advance(Cursor<T> cursor) {
+        if (!cursor.iterator.hasNext()) return;
+        cursor.head = cursor.iterator.next();
+        queue.add(cursor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        queue.clear();
+        for (Iterator<? extends T> iterator : iterators) {
+            if (iterator instanceof Closeable) safeClose((Closeable) iterator);
+        }
+    }
+
+    private static final class Cursor<T> {
+        private final Iterator<? extends T> iterator;
+        private final int index;
+        private T head;
+
+        private Cursor(Iterator<? extends T> iterator, int index) {
+            this.iterator = iterator;
+            this.index = index;
+        }
+    }
+}
@@ -1,26 +1,111 @@
 package com.googlecode.totallylazy.iterators;
 
 import com.googlecode.totallylazy.Sequence;
-import com.googlecode.totallylazy.Sequences;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
 
 public class WindowedIterator<T> extends StatefulIterator<Sequence<T>> {
-    private Sequence<T> sequence;
+    private final Iterator<? extends T> iterator;
     private final int size;
+    private final int step;
+    private final boolean partial;
+    private Object[] buffer;
+    private int start;
+    private int end;
+    private long skip;
 
     public WindowedIterator(Iterator<? extends T> iterator, int size) {
-        this.sequence = Sequences.memorise(iterator);
+        this(iterator, size, 1, false);
+    }
+
+    public WindowedIterator(Iterator<? extends T> iterator, int size, int step, boolean partial) {
+        if (size < 1) throw new IllegalArgumentException("Window size must be positive");
+        if (step < 1) throw new IllegalArgumentException("Step must be positive");
+        this.iterator = iterator;
         this.size = size;
+        this.step = step;
+        this.partial = partial;
     }
 
     @Override
     protected Sequence<T> getNext() throws Exception {
-        Sequence<T> take = sequence.take(size);
-        if (take.size() == size) {
-            sequence = sequence.tail();
-            return take;
+        for (; skip > 0; skip--) {
+            if (!iterator.hasNext()) return finished();
+            iterator.next();
+        }
+        if (buffer == null) buffer = new Object[16];
+        while (end - start < size && iterator.hasNext()) {
+            if (end == buffer.length) reallocate();
+            buffer[end++] = iterator.next();
+        }
+        int available = end - start;
+        if (available == 0 || (available < size && !partial)) return finished();
+        Window<T> window = new Window<T>(buffer, start, available);
+        if (step <= available) start += step;
+        else {
+            skip = step - available;
+            start = end;
+        }
+        return window;
+    }
+
+    // Windows are views over the buffer, so retained windows stay valid: filled slots are never overwritten.
+    // The buffer grows with what has actually been read rather than the window size, which may be huge
+    private void reallocate() {
+        int used = end - start;
+        Object[] fresh = new Object[(int) Math.min(Integer.MAX_VALUE - 8, (long) used * 2 + 16)];
+        System.arraycopy(buffer, start, fresh, 0, used);
+        buffer = fresh;
+        end = used;
+        start = 0;
+    }
+
+    private static final class Window<T> extends Sequence<T> {
+        private final Object[] values;
+        private final int offset;
+        private final int size;
+
+        private Window(Object[] values, int offset, int size) {
+            this.values = values;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new ReadOnlyIterator<T>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return cast(values[offset + index++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException(String.valueOf(index));
+            return cast(values[offset + index]);
         }
-        return finished();
     }
 }
@@ -2,14 +2,22 @@ package com.googlecode.totallylazy.json;
 
 import com.googlecode.totallylazy.Mapper;
 import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Unchecked;
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
 import com.googlecode.totallylazy.parser.Result;
+import com.googlecode.totallylazy.parser.Success;
 
 import java.io.Reader;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
+import static com.googlecode.totallylazy.Sequences.forwardOnly;
 import static com.googlecode.totallylazy.Unchecked.cast;
+import static com.googlecode.totallylazy.json.JsonReader.jsonReader;
+import static com.googlecode.totallylazy.parser.Success.success;
 
 public class Json {
     public static String json(Object value) {
@@ -17,14 +25,38 @@ public class Json {
     }
 
     public static <V> Map<String, V> map(String json) {
+        return map((CharSequence) json);
+    }
+
+    public static <V> Map<String, V> map(CharSequence json) {
+        return Json.<V>parseMap(json).value();
+    }
+
+    public static <V> Map<String, V> map(JsonReader json) {
         return Json.<V>parseMap(json).value();
     }
 
     public static <V> List<V> list(String json) {
+        return list((CharSequence) json);
+    }
+
+    public static <V> List<V> list(CharSequence json) {
+        return Json.<V>parseList(json).value();
+    }
+
+    public static <V> List<V> list(JsonReader json) {
         return Json.<V>parseList(json).value();
     }
 
     public static Object object(String json) {
+        return object((CharSequence) json);
+    }
+
+    public static Object object(CharSequence json) {
+        return parseObject(json).value();
+    }
+
+    public static Object object(JsonReader json) {
         return parseObject(json).value();
     }
 
@@ -37,23 +69,119 @@ public class Json {
     }
 
     public static <V> Result<Map<String, V>> parseMap(String json) {
-        return cast(Grammar.OBJECT.parse(json));
+        return parseMap((CharSequence) json);
+    }
+
+    public static <V> Result<Map<String, V>> parseMap(CharSequence json) {
+        return parseMap(jsonReader(json));
+    }
+
+    public static <V> Result<Map<String, V>> parseMap(JsonReader json) {
+        try {
+            return success(Unchecked.<Map<String, V>>cast(json.map()), json.remainder());
+        } catch (JsonReader.Unexpected e) {
+            return e.failure();
+        }
     }
 
     public static <V> Result<List<V>> parseList(String json) {
-        return cast(Grammar.ARRAY.parse(json));
+        return parseList((CharSequence) json);
+    }
+
+    public static <V> Result<List<V>> parseList(CharSequence json) {
+        return parseList(jsonReader(json));
+    }
+
+    public static <V> Result<List<V>> parseList(JsonReader json) {
+        try {
+            return success(Unchecked.<List<V>>cast(json.list()), json.remainder());
+        } catch (JsonReader.Unexpected e) {
+            return e.failure();
+        }
     }
 
     public static Result<Object> parseObject(String json) {
-        return Grammar.VALUE.parse(json);
+        return parseObject((CharSequence) json);
+    }
+
+    public static Result<Object> parseObject(CharSequence json) {
+        return parseObject(jsonReader(json));
+    }
+
+    public static Result<Object> parseObject(JsonReader json) {
+        try {
+            return success(json.value(), json.remainder());
+        } catch (JsonReader.Unexpected e) {
+            return e.failure();
+        }
     }
 
     public static <V> Result<Sequence<Pair<String, V>>> parsePairs(Reader json) {
-        return cast(Grammar.PAIRS.parse(json));
+        final JsonReader reader = jsonReader(json);
+        try {
+            reader.beginObject();
+        } catch (JsonReader.Unexpected e) {
+            return e.failure();
+        }
+        return streaming(reader, true, new ReadOnlyIterator<Pair<String, V>>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public Pair<String, V> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return Pair.<String, V>pair(reader.nextName(), Unchecked.<V>cast(reader.value()));
+            }
+        });
     }
 
     public static <V> Result<Sequence<V>> parseSequence(Reader json) {
-        return cast(Grammar.SEQUENCE.parse(json));
+        final JsonReader reader = jsonReader(json);
+        try {
+            reader.beginArray();
+        } catch (JsonReader.Unexpected e) {
+            return e.failure();
+        }
+        return streaming(reader, false, new ReadOnlyIterator<V>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return cast(reader.value());
+            }
+        });
+    }
+
+    // The remainder starts after the closing bracket, so any values not yet consumed are skipped first
+    private static <T> Result<Sequence<T>> streaming(final JsonReader reader, final boolean object, final ReadOnlyIterator<T> iterator) {
+        return new Success<Sequence<T>>() {
+            private boolean ended;
+
+            @Override
+            public Sequence<T> value() {
+                return forwardOnly(iterator);
+            }
+
+            @Override
+            public Segment<Character> remainder() {
+                if (!ended) {
+                    while (reader.hasNext()) {
+                        if (object) reader.nextName();
+                        reader.skipValue();
+                    }
+                    if (object) reader.endObject();
+                    else reader.endArray();
+                    ended = true;
+                }
+                return reader.remainder();
+            }
+        };
     }
 
     public static class functions {
@@ -0,0 +1,444 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.parser.Failure;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.Strings.UTF8;
+
+public class JsonReader implements Closeable {
+    private static final int EMPTY_ARRAY = 1;
+    private static final int ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int NAME = 4;
+    private static final int OBJECT = 5;
+    private static final int DOCUMENT = 6;
+    private static final int DOCUMENT_END = 7;
+    private static final String MAX_LONG = String.valueOf(Long.MAX_VALUE);
+    private static final String MIN_LONG = String.valueOf(Long.MIN_VALUE).substring(1);
+
+    private final Reader reader;
+    private final StringBuilder builder = new StringBuilder();
+    private char[] buffer;
+    private int position;
+    private int limit;
+    private int[] scopes = new int[32];
+    private int depth;
+    private Token peeked;
+    private NumberMode numbers = NumberMode.decimal;
+
+    private JsonReader(Reader reader, char[] buffer, int limit) {
+        this.reader = reader;
+        this.buffer = buffer;
+        this.limit = limit;
+        scopes[depth++] = DOCUMENT;
+    }
+
+    public static JsonReader jsonReader(CharSequence json) {
+        char[] chars = json.toString().toCharArray();
+        return new JsonReader(null, chars, chars.length);
+    }
+
+    public static JsonReader jsonReader(byte[] json) {
+        return jsonReader(new String(json, UTF8));
+    }
+
+    public static JsonReader jsonReader(Reader json) {
+        return new JsonReader(json, new char[8192], 0);
+    }
+
+    public enum Token {objectStart, objectEnd, arrayStart, arrayEnd, name, string, number, bool, nil, end}
+
+    public enum NumberMode {decimal, primitive, doubles}
+
+    public JsonReader numbers(NumberMode mode) {
+        this.numbers = mode;
+        return this;
+    }
+
+    public Token peek() {
+        if (peeked != null) return peeked;
+        int scope = scopes[depth - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case ARRAY: {
+                scopes[depth - 1] = ARRAY;
+                int c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.arrayEnd;
+                if (scope == ARRAY) {
+                    if (c != ',') throw unexpected("',' or ']'", c);
+                    c = nextNonWhitespace();
+                }
+                return peeked = value(c);
+            }
+            case EMPTY_OBJECT:
+            case OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}') return peeked = Token.objectEnd;
+                if (scope == OBJECT) {
+                    if (c != ',') throw unexpected("',' or '}'", c);
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw unexpected("name", c);
+                scopes[depth - 1] = NAME;
+                return peeked = Token.name;
+            }
+            case NAME: {
+                int c = nextNonWhitespace();
+                if (c != ':') throw unexpected("':'", c);
+                scopes[depth - 1] = OBJECT;
+                return peeked = value(nextNonWhitespace());
+            }
+            case DOCUMENT:
+                scopes[depth - 1] = DOCUMENT_END;
+                return peeked = value(nextNonWhitespace());
+            default:
+                return peeked = Token.end;
+        }
+    }
+
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.objectEnd && token != Token.arrayEnd && token != Token.end;
+    }
+
+    public void beginObject() {
+        expect(Token.objectStart);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.objectEnd);
+        depth--;
+    }
+
+    public void beginArray() {
+        expect(Token.arrayStart);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.arrayEnd);
+        depth--;
+    }
+
+    public String nextName() {
+        expect(Token.name);
+        return readString();
+    }
+
+    public String nextString() {
+        expect(Token.string);
+        return readString();
+    }
+
+    public boolean nextBoolean() {
+        expect(Token.bool);
+        if (buffer[position] == 't') return literal("true", true);
+        return literal("false", false);
+    }
+
+    public Object nextNull() {
+        expect(Token.nil);
+        return literal("null", null);
+    }
+
+    public Number nextNumber() {
+        expect(Token.number);
+        int length = numberLength();
+        try {
+            if (numbers != NumberMode.doubles && integral(length)) {
+                long value = parseLong(length);
+                return numbers == NumberMode.decimal ? BigDecimal.valueOf(value) : (Number) value;
+            }
+            if (numbers == NumberMode.decimal) return new BigDecimal(buffer, position, length);
+            return Double.parseDouble(new String(buffer, position, length));
+        } catch (NumberFormatException e) {
+            throw unexpected("number", new String(buffer, position, length));
+        } finally {
+            position += length;
+        }
+    }
+
+    public long nextLong() {
+        expect(Token.number);
+        int length = numberLength();
+        try {
+            if (integral(length)) return parseLong(length);
+            return new BigDecimal(buffer, position, length).longValueExact();
+        } catch (NumberFormatException e) {
+            throw unexpected("long", new String(buffer, position, length));
+        } catch (ArithmeticException e) {
+            throw unexpected("long", new String(buffer, position, length));
+        } finally {
+            position += length;
+        }
+    }
+
+    public double nextDouble() {
+        expect(Token.number);
+        int length = numberLength();
+        try {
+            if (integral(length)) return parseLong(length);
+            return Double.parseDouble(new String(buffer, position, length));
+        } catch (NumberFormatException e) {
+            throw unexpected("double", new String(buffer, position, length));
+        } finally {
+            position += length;
+        }
+    }
+
+    public Object value() {
+        switch (peek()) {
+            case objectStart: return map();
+            case arrayStart: return list();
+            case string: return nextString();
+            case number: return nextNumber();
+            case bool: return nextBoolean();
+            case nil: return nextNull();
+            default: throw unexpected("value", peeked.name());
+        }
+    }
+
+    public Map<String, Object> map() {
+        beginObject();
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        while (hasNext()) map.put(nextName(), value());
+        endObject();
+        return map;
+    }
+
+    public List<Object> list() {
+        beginArray();
+        List<Object> list = new ArrayList<Object>();
+        while (hasNext()) list.add(value());
+        endArray();
+        return list;
+    }
+
+    public void skipValue() {
+        value();
+    }
+
+    public Segment<Character> remainder() {
+        try {
+            if (peeked != null) throw new IllegalStateException("Remainder requested part way through a token");
+            int buffered = limit - position;
+            if (reader == null) return Segment.constructors.characters(new String(buffer, position, buffered));
+            if (buffered == 0) return Segment.constructors.characters(reader);
+            PushbackReader pushback = new PushbackReader(reader, buffered);
+            pushback.unread(buffer, position, buffered);
+            position = limit;
+            return Segment.constructors.characters(pushback);
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) reader.close();
+    }
+
+    private Token value(int c) {
+        switch (c) {
+            case '{': return Token.objectStart;
+            case '[': return Token.arrayStart;
+            case '"': return Token.string;
+            case 't':
+            case 'f':
+                position--;
+                return Token.bool;
+            case 'n':
+                position--;
+                return Token.nil;
+            case '-':
+            case '0': case '1': case '2': case '3': case '4':
+            case '5': case '6': case '7': case '8': case '9':
+                position--;
+                return Token.number;
+            default:
+                throw unexpected("value", c);
+        }
+    }
+
+    private void expect(Token token) {
+        if (peek() != token) throw unexpected(token.name(), peeked.name());
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            int[] grown = new int[depth * 2];
+            System.arraycopy(scopes, 0, grown, 0, depth);
+            scopes = grown;
+        }
+        scopes[depth++] = scope;
+    }
+
+    private int nextNonWhitespace() {
+        while (position < limit || fill(1)) {
+            char c = buffer[position++];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') continue;
+            return c;
+        }
+        return -1;
+    }
+
+    private <T> T literal(String word, T value) {
+        int length = word.length();
+        if (limit - position < length) fill(length);
+        for (int i = 0; i < length; i++) {
+            if (position + i >= limit || buffer[position + i] != word.charAt(i)) throw unexpected(word, position < limit ? buffer[position] : -1);
+        }
+        position += length;
+        return value;
+    }
+
+    private String readString() {
+        boolean built = false;
+        builder.setLength(0);
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position++];
+                if (c == '"') {
+                    if (!built) return new String(buffer, start, position - start - 1);
+                    return builder.append(buffer, start, position - start - 1).toString();
+                }
+                if (c == '\\') {
+                    builder.append(buffer, start, position - start - 1).append(escaped());
+                    built = true;
+                    start = position;
+                }
+            }
+            builder.append(buffer, start, position - start);
+            built = true;
+            if (!fill(1)) throw unexpected("'\"'", -1);
+        }
+    }
+
+    private char escaped() {
+        if (position == limit && !fill(1)) throw unexpected("escaped character", -1);
+        char c = buffer[position++];
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u': {
+                if (limit - position < 4 && !fill(4)) throw unexpected("unicode escape", -1);
+                int value = 0;
+                for (int i = 0; i < 4; i++) value = (value << 4) | hex(buffer[position++]);
+                return (char) value;
+            }
+            default:
+                throw unexpected("escaped character", c);
+        }
+    }
+
+    private int hex(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        throw unexpected("hex digit", c);
+    }
+
+    private int numberLength() {
+        int length = 0;
+        while (position + length < limit || fill(length + 1)) {
+            char c = buffer[position + length];
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') break;
+            length++;
+        }
+        return length;
+    }
+
+    // Whether the number is an integer that fits in a long, so parseLong can not overflow
+    private boolean integral(int length) {
+        boolean negative = buffer[position] == '-';
+        int start = negative ? 1 : 0;
+        if (length == start || length - start > MAX_LONG.length()) return false;
+        for (int i = start; i < length; i++) {
+            char c = buffer[position + i];
+            if (c < '0' || c > '9') return false;
+        }
+        if (length - start < MAX_LONG.length()) return true;
+        String limit = negative ? MIN_LONG : MAX_LONG;
+        for (int i = start; i < length; i++) {
+            char c = buffer[position + i], l = limit.charAt(i - start);
+            if (c != l) return c < l;
+        }
+        return true;
+    }
+
+    private long parseLong(int length) {
+        boolean negative = buffer[position] == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) value = value * 10 - (buffer[position + i] - '0');
+        return negative ? value : -value;
+    }
+
+    private boolean fill(int minimum) {
+        if (reader == null) return false;
+        try {
+            int remaining = limit - position;
+            if (minimum > buffer.length) {
+                char[] grown = new char[Math.max(buffer.length * 2, minimum)];
+                System.arraycopy(buffer, position, grown, 0, remaining);
+                buffer = grown;
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            }
+            position = 0;
+            limit = remaining;
+            while (limit < minimum) {
+                int read = reader.read(buffer, limit, buffer.length - limit);
+                if (read == -1) return false;
+                limit += read;
+            }
+            return true;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    private Unexpected unexpected(String expected, int actual) {
+        return unexpected(expected, actual == -1 ? "end of input" : "'" + (char) actual + "'");
+    }
+
+    private Unexpected unexpected(String expected, String actual) {
+        return new Unexpected(expected, actual);
+    }
+
+    public static class Unexpected extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+        public final String expected;
+        public final String actual;
+
+        private Unexpected(String expected, String actual) {
+            super(String.format("%s expected, %s encountered.", expected, actual));
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public <A> Failure<A> failure() {
+            return Failure.failure(expected, actual);
+        }
+    }
+}
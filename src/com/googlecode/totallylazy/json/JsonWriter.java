@@ -1,85 +1,232 @@
 package com.googlecode.totallylazy.json;
 
-import com.googlecode.totallylazy.Iterators;
-import com.googlecode.totallylazy.Mapper;
-import com.googlecode.totallylazy.annotations.multimethod;
-import com.googlecode.totallylazy.multi;
 import com.googlecode.totallylazy.time.Dates;
 
+import java.io.IOException;
+import java.lang.reflect.Array;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static com.googlecode.totallylazy.Appendables.append;
+import static com.googlecode.totallylazy.LazyException.lazyException;
+import static com.googlecode.totallylazy.Unchecked.cast;
 
 public class JsonWriter {
     public static final String SEPARATOR = ",";
+    private static final char[] hex = "0123456789ABCDEF".toCharArray();
+
+    private static final Serializer<Object> none = new Serializer<Object>() {
+        @Override
+        public void write(Object value, Appendable appendable) {
+            throw new UnsupportedOperationException();
+        }
+    };
+    private static final ConcurrentMap<Class<?>, Serializer<?>> registered = new ConcurrentHashMap<Class<?>, Serializer<?>>();
+    private static final ConcurrentMap<Class<?>, Serializer<?>> resolved = new ConcurrentHashMap<Class<?>, Serializer<?>>();
+
+    public static <T> void register(Class<T> type, Serializer<? super T> serializer) {
+        registered.put(type, serializer);
+        resolved.clear();
+    }
+
+    public static void unregister(Class<?> type) {
+        registered.remove(type);
+        resolved.clear();
+    }
 
-    private static multi multi;
     public static <A extends Appendable> A write(final Object o, final A appendable) {
-        if(multi == null) multi = new multi(){};
-        return multi.<A>methodOption(o, appendable).getOrElse(new Callable<A>() {
-            @Override
-            public A call() throws Exception {
-                return write(o.toString(), appendable);
-            }
-        });
+        try {
+            if (!registered.isEmpty() && o != null && custom(o, appendable)) return appendable;
+            if (o == null) appendable.append("null");
+            else if (o instanceof CharSequence) string((CharSequence) o, appendable);
+            else if (o instanceof Number) number((Number) o, appendable);
+            else if (o instanceof Boolean) appendable.append(((Boolean) o) ? "true" : "false");
+            else if (o instanceof Map) write((Map<?, ?>) o, appendable);
+            else if (o instanceof Iterable) write(((Iterable<?>) o).iterator(), appendable);
+            else if (o instanceof Iterator) write((Iterator<?>) o, appendable);
+            else if (o instanceof Map.Entry) write((Map.Entry<?, ?>) o, appendable);
+            else if (o instanceof Object[]) array((Object[]) o, appendable);
+            else if (o.getClass().isArray()) primitives(o, appendable);
+            else if (o instanceof Date) write((Date) o, appendable);
+            else string(o.toString(), appendable);
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final CharSequence charSequence, final A appendable) {
-        return append(Strings.toString(charSequence), appendable);
+        try {
+            string(charSequence, appendable);
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Iterator<?> iterator, final A appendable) {
-        return iterate(iterator, appendable, "[", SEPARATOR, "]");
+        try {
+            appendable.append('[');
+            if (iterator.hasNext()) write(iterator.next(), appendable);
+            while (iterator.hasNext()) write(iterator.next(), appendable.append(','));
+            appendable.append(']');
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Iterable<?> iterable, final A appendable) {
-        if(iterable instanceof Map) return write((Map) iterable, appendable);
-        return write(iterable.iterator(), appendable);
+        return write((Object) iterable, appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Map<?, ?> map, final A appendable) {
-        return iterate(map.entrySet().iterator(), appendable, "{", SEPARATOR, "}");
+        try {
+            appendable.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) appendable.append(',');
+                first = false;
+                write(entry, appendable);
+            }
+            appendable.append('}');
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Map.Entry<?, ?> entry, final A appendable) {
-        return write(entry.getValue(), append(':', append(Strings.toString(String.valueOf(entry.getKey())), appendable)));
+        try {
+            Object key = entry.getKey();
+            string(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key), appendable);
+            appendable.append(':');
+            return write(entry.getValue(), appendable);
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Void aVoid, final A appendable) {
-        return append("null", appendable);
+        return write((Object) null, appendable);
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Number number, final A appendable) {
-        return append(number.toString(), appendable);
+        try {
+            number(number, appendable);
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Date date, final A appendable) {
-        return append(Strings.quote(Dates.RFC3339withMilliseconds().format(date)), appendable);
+        try {
+            appendable.append('"').append(Dates.RFC3339withMilliseconds().format(date)).append('"');
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
     }
 
-    @multimethod
     public static <A extends Appendable> A write(final Boolean bool, final A appendable) {
-        return append(bool.toString(), appendable);
+        return write((Object) bool, appendable);
+    }
+
+    public static <A extends Appendable> A escape(final CharSequence value, final A appendable) {
+        try {
+            int start = 0;
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= ' ' && c != '"' && c != '\\') continue;
+                appendable.append(value, start, i);
+                start = i + 1;
+                switch (c) {
+                    case '"': appendable.append("\\\""); break;
+                    case '\\': appendable.append("\\\\"); break;
+                    case '\b': appendable.append("\\b"); break;
+                    case '\f': appendable.append("\\f"); break;
+                    case '\n': appendable.append("\\n"); break;
+                    case '\r': appendable.append("\\r"); break;
+                    case '\t': appendable.append("\\t"); break;
+                    default: appendable.append("\\u00").append(hex[c >> 4]).append(hex[c & 0xF]);
+                }
+            }
+            appendable.append(value, start, length);
+            return appendable;
+        } catch (IOException e) {
+            throw lazyException(e);
+        }
+    }
+
+    private static void string(CharSequence value, Appendable appendable) throws IOException {
+        escape(value, appendable.append('"')).append('"');
+    }
+
+    private static void number(Number number, Appendable appendable) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            StringBuilder builder = (StringBuilder) appendable;
+            if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+                builder.append(number.longValue());
+                return;
+            }
+            if (number instanceof Double) {
+                builder.append(number.doubleValue());
+                return;
+            }
+        }
+        appendable.append(number.toString());
+    }
+
+    private static void array(Object[] values, Appendable appendable) throws IOException {
+        appendable.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) appendable.append(',');
+            write(values[i], appendable);
+        }
+        appendable.append(']');
+    }
+
+    private static void primitives(Object values, Appendable appendable) throws IOException {
+        appendable.append('[');
+        for (int i = 0, length = Array.getLength(values); i < length; i++) {
+            if (i > 0) appendable.append(',');
+            write(Array.get(values, i), appendable);
+        }
+        appendable.append(']');
+    }
+
+    private static boolean custom(Object value, Appendable appendable) {
+        Serializer<Object> serializer = cast(resolve(value.getClass()));
+        if (serializer == none) return false;
+        try {
+            serializer.write(value, appendable);
+            return true;
+        } catch (Exception e) {
+            throw lazyException(e);
+        }
+    }
+
+    private static Serializer<?> resolve(Class<?> type) {
+        Serializer<?> serializer = resolved.get(type);
+        if (serializer != null) return serializer;
+        serializer = lookup(type);
+        resolved.put(type, serializer);
+        return serializer;
     }
 
-    private static <A extends Appendable> A iterate(final Iterator<?> iterator, final A appendable, String start, String separator, String end) {
-        return Iterators.appendTo(Iterators.map(iterator, new Mapper<Object, String>() {
-            @Override
-            public String call(Object o) throws Exception {
-                write(o, appendable);
-                return "";
+    private static Serializer<?> lookup(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            Serializer<?> serializer = registered.get(current);
+            if (serializer != null) return serializer;
+            for (Class<?> anInterface : current.getInterfaces()) {
+                Serializer<?> inherited = lookup(anInterface);
+                if (inherited != none) return inherited;
             }
-        }), appendable, start, separator, end);
+        }
+        return none;
     }
 }
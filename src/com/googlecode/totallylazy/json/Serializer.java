@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.json;
+
+public interface Serializer<T> {
+    void write(T value, Appendable appendable) throws Exception;
+}
@@ -2,17 +2,16 @@ package com.googlecode.totallylazy.json;
 
 import com.googlecode.totallylazy.Mapper;
 
-import static com.googlecode.totallylazy.Sequences.characters;
 import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
 
 public class Strings {
     public static String toString(CharSequence value) {
-        return quote(escape(value));
+        return JsonWriter.write(value, new StringBuilder(value.length() + 2)).toString();
     }
 
     public static String escape(CharSequence value) {
-        return characters(value).map(functions.escape).toString("");
+        return JsonWriter.escape(value, new StringBuilder(value.length())).toString();
     }
 
     public static String escape(Character character) {
@@ -3,8 +3,9 @@ package com.googlecode.totallylazy;
 import com.googlecode.totallylazy.annotations.multimethod;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static com.googlecode.totallylazy.Dispatcher.dispatcher;
 import static com.googlecode.totallylazy.Methods.methodName;
 import static com.googlecode.totallylazy.Predicates.and;
 import static com.googlecode.totallylazy.Predicates.is;
@@ -15,24 +16,42 @@ import static com.googlecode.totallylazy.Reflection.enclosingInstance;
 import static java.lang.reflect.Modifier.isStatic;
 
 public abstract class multi {
+    private static final Predicate<Method> multimethods = Predicates.<Method, multimethod>where(Methods.annotation(multimethod.class), notNullValue());
+    private static final ClassValue<ConcurrentMap<Class<?>, Dispatcher>> shared = new ClassValue<ConcurrentMap<Class<?>, Dispatcher>>() {
+        @Override
+        protected ConcurrentMap<Class<?>, Dispatcher> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<Class<?>, Dispatcher>();
+        }
+    };
     private final Dispatcher dispatcher;
 
     protected multi(Predicate<? super Method> predicate) {
+        Method enclosing = enclosing();
+        Object instance = instance(enclosing);
+        this.dispatcher = dispatcher(enclosing, declaringClass(enclosing, instance), instance, predicate);
+    }
+
+    protected multi() {
         Method enclosing = enclosing();
         Object instance = instance(enclosing);
         Class<?> aClass = declaringClass(enclosing, instance);
-        String name = enclosing.getName();
+        ConcurrentMap<Class<?>, Dispatcher> dispatchers = shared.get(getClass());
+        Dispatcher dispatcher = dispatchers.get(aClass);
+        if (dispatcher == null) {
+            dispatcher = dispatcher(enclosing, aClass, null, multimethods);
+            Dispatcher existing = dispatchers.putIfAbsent(aClass, dispatcher);
+            if (existing != null) dispatcher = existing;
+        }
+        this.dispatcher = dispatcher.bind(instance);
+    }
 
-        this.dispatcher = Dispatcher.dispatcher(aClass, instance,
-                and(where(methodName(), is(name)),
+    private static Dispatcher dispatcher(Method enclosing, Class<?> aClass, Object instance, Predicate<? super Method> predicate) {
+        return Dispatcher.dispatcher(aClass, instance,
+                and(where(methodName(), is(enclosing.getName())),
                         not(enclosing),
                         predicate));
     }
 
-    protected multi() {
-        this(Predicates.<Method, multimethod>where(Methods.annotation(multimethod.class), notNullValue()));
-    }
-
     public <T> T method(Object... args) {
         return this.<T>methodOption(args).get();
     }
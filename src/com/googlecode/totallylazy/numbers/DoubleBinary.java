@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.numbers;
+
+public interface DoubleBinary {
+    double call(double a, double b);
+}
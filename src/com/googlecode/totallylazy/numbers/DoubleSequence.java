@@ -0,0 +1,299 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public abstract class DoubleSequence implements Iterable<Double> {
+    public abstract PrimitiveIterator.OfDouble iterator();
+
+    public static DoubleSequence doubles(final double... values) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return new PrimitiveIterator.OfDouble() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        if (hasNext()) return values[index++];
+                        throw new NoSuchElementException();
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleSequence doubles(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof DoubleSequence) return (DoubleSequence) numbers;
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                final Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        return iterator.next().doubleValue();
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleSequence range(final double start) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return new PrimitiveIterator.OfDouble() {
+                    private double current = start;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        return current++;
+                    }
+                };
+            }
+        };
+    }
+
+    public static DoubleSequence range(final double start, final double end) {
+        if (end < start) return range(start, end, -1);
+        return range(start, end, 1);
+    }
+
+    public static DoubleSequence range(final double start, final double end, final double step) {
+        if (step == 0) throw new IllegalArgumentException("step can not be zero");
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return new PrimitiveIterator.OfDouble() {
+                    private double current = start;
+                    private boolean finished = step > 0 ? start > end : start < end;
+
+                    @Override
+                    public boolean hasNext() {
+                        return !finished;
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        if (finished) throw new NoSuchElementException();
+                        double result = current;
+                        if (step > 0 ? current + step > end : current + step < end) finished = true;
+                        else current += step;
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence map(final DoubleUnary unary) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                final PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        return unary.call(iterator.nextDouble());
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence filter(final DoublePredicate predicate) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                final PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    private boolean ready = false;
+                    private double next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!ready && iterator.hasNext()) {
+                            next = iterator.nextDouble();
+                            ready = predicate.matches(next);
+                        }
+                        return ready;
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        ready = false;
+                        return next;
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence take(final int count) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                final PrimitiveIterator.OfDouble iterator = DoubleSequence.this.iterator();
+                return new PrimitiveIterator.OfDouble() {
+                    private int remaining = count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    @Override
+                    public double nextDouble() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextDouble();
+                    }
+                };
+            }
+        };
+    }
+
+    public DoubleSequence rollingSum(final int size) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return RollingIterator.sum(DoubleSequence.this.iterator(), size);
+            }
+        };
+    }
+
+    public DoubleSequence rollingAverage(final int size) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return RollingIterator.average(DoubleSequence.this.iterator(), size);
+            }
+        };
+    }
+
+    public DoubleSequence rollingMinimum(final int size) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return RollingIterator.extreme(DoubleSequence.this.iterator(), size, false);
+            }
+        };
+    }
+
+    public DoubleSequence rollingMaximum(final int size) {
+        return new DoubleSequence() {
+            @Override
+            public PrimitiveIterator.OfDouble iterator() {
+                return RollingIterator.extreme(DoubleSequence.this.iterator(), size, true);
+            }
+        };
+    }
+
+    public double fold(final double seed, final DoubleBinary binary) {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        double accumulator = seed;
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextDouble());
+        return accumulator;
+    }
+
+    public double reduce(final DoubleBinary binary) {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        double accumulator = iterator.nextDouble();
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextDouble());
+        return accumulator;
+    }
+
+    public double sum() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        double sum = 0;
+        while (iterator.hasNext()) sum += iterator.nextDouble();
+        return sum;
+    }
+
+    public double average() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        double sum = 0;
+        long count = 0;
+        while (iterator.hasNext()) {
+            sum += iterator.nextDouble();
+            count++;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public double minimum() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        double minimum = iterator.nextDouble();
+        while (iterator.hasNext()) minimum = Math.min(minimum, iterator.nextDouble());
+        return minimum;
+    }
+
+    public double maximum() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        double maximum = iterator.nextDouble();
+        while (iterator.hasNext()) maximum = Math.max(maximum, iterator.nextDouble());
+        return maximum;
+    }
+
+    public int size() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public double[] toArray() {
+        PrimitiveIterator.OfDouble iterator = iterator();
+        double[] result = new double[16];
+        int size = 0;
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextDouble();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    public Sequence<Number> toSequence() {
+        return Sequences.<Number>sequence(this);
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(this);
+    }
+}
@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.numbers;
+
+public interface IntBinary {
+    int call(int a, int b);
+}
@@ -0,0 +1,263 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public abstract class IntSequence implements Iterable<Integer> {
+    public abstract PrimitiveIterator.OfInt iterator();
+
+    public static IntSequence ints(final int... values) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                return new PrimitiveIterator.OfInt() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        if (hasNext()) return values[index++];
+                        throw new NoSuchElementException();
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntSequence ints(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof IntSequence) return (IntSequence) numbers;
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                final Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        return iterator.next().intValue();
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntSequence range(final int start) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                return new PrimitiveIterator.OfInt() {
+                    private int current = start;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        return current++;
+                    }
+                };
+            }
+        };
+    }
+
+    public static IntSequence range(final int start, final int end) {
+        if (end < start) return range(start, end, -1);
+        return range(start, end, 1);
+    }
+
+    public static IntSequence range(final int start, final int end, final int step) {
+        if (step == 0) throw new IllegalArgumentException("step can not be zero");
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                return new PrimitiveIterator.OfInt() {
+                    private int current = start;
+                    private boolean finished = step > 0 ? start > end : start < end;
+
+                    @Override
+                    public boolean hasNext() {
+                        return !finished;
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        if (finished) throw new NoSuchElementException();
+                        int result = current;
+                        if (step > 0 ? (long) current + step > end : (long) current + step < end) finished = true;
+                        else current += step;
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence map(final IntUnary unary) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                final PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        return unary.call(iterator.nextInt());
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence filter(final IntPredicate predicate) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                final PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    private boolean ready = false;
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!ready && iterator.hasNext()) {
+                            next = iterator.nextInt();
+                            ready = predicate.matches(next);
+                        }
+                        return ready;
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        ready = false;
+                        return next;
+                    }
+                };
+            }
+        };
+    }
+
+    public IntSequence take(final int count) {
+        return new IntSequence() {
+            @Override
+            public PrimitiveIterator.OfInt iterator() {
+                final PrimitiveIterator.OfInt iterator = IntSequence.this.iterator();
+                return new PrimitiveIterator.OfInt() {
+                    private int remaining = count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextInt();
+                    }
+                };
+            }
+        };
+    }
+
+    public int fold(final int seed, final IntBinary binary) {
+        PrimitiveIterator.OfInt iterator = iterator();
+        int accumulator = seed;
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextInt());
+        return accumulator;
+    }
+
+    public int reduce(final IntBinary binary) {
+        PrimitiveIterator.OfInt iterator = iterator();
+        int accumulator = iterator.nextInt();
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextInt());
+        return accumulator;
+    }
+
+    public long sum() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        long sum = 0;
+        while (iterator.hasNext()) sum += iterator.nextInt();
+        return sum;
+    }
+
+    public double average() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        double sum = 0;
+        long count = 0;
+        while (iterator.hasNext()) {
+            sum += iterator.nextInt();
+            count++;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public int minimum() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        int minimum = iterator.nextInt();
+        while (iterator.hasNext()) minimum = Math.min(minimum, iterator.nextInt());
+        return minimum;
+    }
+
+    public int maximum() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        int maximum = iterator.nextInt();
+        while (iterator.hasNext()) maximum = Math.max(maximum, iterator.nextInt());
+        return maximum;
+    }
+
+    public int size() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.nextInt();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public int[] toArray() {
+        PrimitiveIterator.OfInt iterator = iterator();
+        int[] result = new int[16];
+        int size = 0;
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextInt();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    public Sequence<Number> toSequence() {
+        return Sequences.<Number>sequence(this);
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(this);
+    }
+}
@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.numbers;
+
+public interface IntUnary {
+    int call(int value);
+}
@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.numbers;
+
+public interface LongBinary {
+    long call(long a, long b);
+}
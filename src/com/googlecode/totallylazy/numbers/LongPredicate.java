@@ -0,0 +1,5 @@
+package com.googlecode.totallylazy.numbers;
+
+public interface LongPredicate {
+    boolean matches(long value);
+}
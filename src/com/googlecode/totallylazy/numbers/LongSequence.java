@@ -0,0 +1,263 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public abstract class LongSequence implements Iterable<Long> {
+    public abstract PrimitiveIterator.OfLong iterator();
+
+    public static LongSequence longs(final long... values) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                return new PrimitiveIterator.OfLong() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        if (hasNext()) return values[index++];
+                        throw new NoSuchElementException();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongSequence longs(final Iterable<? extends Number> numbers) {
+        if (numbers instanceof LongSequence) return (LongSequence) numbers;
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                final Iterator<? extends Number> iterator = numbers.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        return iterator.next().longValue();
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongSequence range(final long start) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                return new PrimitiveIterator.OfLong() {
+                    private long current = start;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        return current++;
+                    }
+                };
+            }
+        };
+    }
+
+    public static LongSequence range(final long start, final long end) {
+        if (end < start) return range(start, end, -1);
+        return range(start, end, 1);
+    }
+
+    public static LongSequence range(final long start, final long end, final long step) {
+        if (step == 0) throw new IllegalArgumentException("step can not be zero");
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                return new PrimitiveIterator.OfLong() {
+                    private long current = start;
+                    private boolean finished = step > 0 ? start > end : start < end;
+
+                    @Override
+                    public boolean hasNext() {
+                        return !finished;
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        if (finished) throw new NoSuchElementException();
+                        long result = current;
+                        if (step > 0 ? end < Long.MIN_VALUE + step || current > end - step : end > Long.MAX_VALUE + step || current < end - step) finished = true;
+                        else current += step;
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence map(final LongUnary unary) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                final PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        return unary.call(iterator.nextLong());
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence filter(final LongPredicate predicate) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                final PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    private boolean ready = false;
+                    private long next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!ready && iterator.hasNext()) {
+                            next = iterator.nextLong();
+                            ready = predicate.matches(next);
+                        }
+                        return ready;
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        ready = false;
+                        return next;
+                    }
+                };
+            }
+        };
+    }
+
+    public LongSequence take(final int count) {
+        return new LongSequence() {
+            @Override
+            public PrimitiveIterator.OfLong iterator() {
+                final PrimitiveIterator.OfLong iterator = LongSequence.this.iterator();
+                return new PrimitiveIterator.OfLong() {
+                    private int remaining = count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return remaining > 0 && iterator.hasNext();
+                    }
+
+                    @Override
+                    public long nextLong() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        remaining--;
+                        return iterator.nextLong();
+                    }
+                };
+            }
+        };
+    }
+
+    public long fold(final long seed, final LongBinary binary) {
+        PrimitiveIterator.OfLong iterator = iterator();
+        long accumulator = seed;
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextLong());
+        return accumulator;
+    }
+
+    public long reduce(final LongBinary binary) {
+        PrimitiveIterator.OfLong iterator = iterator();
+        long accumulator = iterator.nextLong();
+        while (iterator.hasNext()) accumulator = binary.call(accumulator, iterator.nextLong());
+        return accumulator;
+    }
+
+    public long sum() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        long sum = 0;
+        while (iterator.hasNext()) sum += iterator.nextLong();
+        return sum;
+    }
+
+    public double average() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        double sum = 0;
+        long count = 0;
+        while (iterator.hasNext()) {
+            sum += iterator.nextLong();
+            count++;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public long minimum() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        long minimum = iterator.nextLong();
+        while (iterator.hasNext()) minimum = Math.min(minimum, iterator.nextLong());
+        return minimum;
+    }
+
+    public long maximum() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        if (!iterator.hasNext()) throw new NoSuchElementException();
+        long maximum = iterator.nextLong();
+        while (iterator.hasNext()) maximum = Math.max(maximum, iterator.nextLong());
+        return maximum;
+    }
+
+    public int size() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.nextLong();
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    public long[] toArray() {
+        PrimitiveIterator.OfLong iterator = iterator();
+        long[] result = new long[16];
+        int size = 0;
+        while (iterator.hasNext()) {
+            if (size == result.length) result = Arrays.copyOf(result, size * 2);
+            result[size++] = iterator.nextLong();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    public Sequence<Number> toSequence() {
+        return Sequences.<Number>sequence(this);
+    }
+
+    @Override
+    public String toString() {
+        return Sequences.toString(this);
+    }
+}
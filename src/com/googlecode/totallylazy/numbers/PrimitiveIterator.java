@@ -0,0 +1,32 @@
+package com.googlecode.totallylazy.numbers;
+
+import com.googlecode.totallylazy.iterators.ReadOnlyIterator;
+
+public abstract class PrimitiveIterator<T extends Number> extends ReadOnlyIterator<T> {
+    public static abstract class OfInt extends PrimitiveIterator<Integer> {
+        public abstract int nextInt();
+
+        @Override
+        public Integer next() {
+            return nextInt();
+        }
+    }
+
+    public static abstract class OfLong extends PrimitiveIterator<Long> {
+        public abstract long nextLong();
+
+        @Override
+        public Long next() {
+            return nextLong();
+        }
+    }
+
+    public static abstract class OfDouble extends PrimitiveIterator<Double> {
+        public abstract double nextDouble();
+
+        @Override
+        public Double next() {
+            return nextDouble();
+        }
+    }
+}
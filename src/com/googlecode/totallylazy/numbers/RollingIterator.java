@@ -0,0 +1,109 @@
+package com.googlecode.totallylazy.numbers;
+
+import java.util.NoSuchElementException;
+
+abstract class RollingIterator extends PrimitiveIterator.OfDouble {
+    private final PrimitiveIterator.OfDouble source;
+    protected final int size;
+    private final double[] window;
+    private long seen;
+    private long emitted;
+
+    RollingIterator(PrimitiveIterator.OfDouble source, int size) {
+        if (size < 1) throw new IllegalArgumentException("Window size must be positive");
+        this.source = source;
+        this.size = size;
+        this.window = new double[size];
+    }
+
+    protected abstract void slide(double added, double removed, long index);
+
+    protected abstract double value();
+
+    @Override
+    public boolean hasNext() {
+        while (seen - size < emitted) {
+            if (!source.hasNext()) return false;
+            double value = source.nextDouble();
+            int slot = (int) (seen % size);
+            double removed = seen >= size ? window[slot] : 0;
+            window[slot] = value;
+            slide(value, removed, seen++);
+        }
+        return true;
+    }
+
+    @Override
+    public double nextDouble() {
+        if (!hasNext()) throw new NoSuchElementException();
+        emitted++;
+        return value();
+    }
+
+    static RollingIterator sum(PrimitiveIterator.OfDouble source, int size) {
+        return new Sum(source, size);
+    }
+
+    static RollingIterator average(PrimitiveIterator.OfDouble source, int size) {
+        return new Sum(source, size) {
+            @Override
+            protected double value() {
+                return super.value() / size;
+            }
+        };
+    }
+
+    static RollingIterator extreme(PrimitiveIterator.OfDouble source, int size, final boolean maximum) {
+        return new RollingIterator(source, size) {
+            private final double[] values = new double[size];
+            private final long[] indexes = new long[size];
+            private int head;
+            private int length;
+
+            // Monotonic deque: candidates are evicted from the back by any newer, better value
+            @Override
+            protected void slide(double added, double removed, long index) {
+                if (length > 0 && indexes[head] <= index - size) {
+                    head = (head + 1) % size;
+                    length--;
+                }
+                while (length > 0 && beaten(values[(head + length - 1) % size], added)) length--;
+                int tail = (head + length) % size;
+                values[tail] = added;
+                indexes[tail] = index;
+                length++;
+            }
+
+            private boolean beaten(double candidate, double added) {
+                return maximum ? candidate <= added : candidate >= added;
+            }
+
+            @Override
+            protected double value() {
+                return values[head];
+            }
+        };
+    }
+
+    private static class Sum extends RollingIterator {
+        private double sum;
+        private double compensation;
+
+        private Sum(PrimitiveIterator.OfDouble source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        protected void slide(double added, double removed, long index) {
+            double delta = (added - removed) - compensation;
+            double total = sum + delta;
+            compensation = (total - sum) - delta;
+            sum = total;
+        }
+
+        @Override
+        protected double value() {
+            return sum;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.googlecode.totallylazy.Function1;
 import com.googlecode.totallylazy.Predicate;
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
+
 import static com.googlecode.totallylazy.Predicates.is;
 import static com.googlecode.totallylazy.Predicates.not;
 import static com.googlecode.totallylazy.parser.Success.success;
@@ -53,6 +55,11 @@ class CharacterParser extends Parser<Character> {
                 fail(predicate, c);
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.matching(predicate);
+    }
+
     @Override
     public String toString() {
         return predicate.toString();
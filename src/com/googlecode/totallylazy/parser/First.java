@@ -0,0 +1,114 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Predicate;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The characters a parser can start with: exact for ASCII, conservative for everything else
+final class First {
+    static final First any = new First(-1L, -1L, true, true);
+    private static final int ASCII = 128;
+    private final long low;
+    private final long high;
+    private final boolean other;
+    private final boolean empty;
+
+    private First(long low, long high, boolean other, boolean empty) {
+        this.low = low;
+        this.high = high;
+        this.other = other;
+        this.empty = empty;
+    }
+
+    static First character(char c) {
+        if (c >= ASCII) return new First(0, 0, true, false);
+        return c < 64 ? new First(1L << c, 0, false, false) : new First(0, 1L << c, false, false);
+    }
+
+    static First matching(Predicate<? super Character> predicate) {
+        try {
+            long low = 0, high = 0;
+            for (char c = 0; c < ASCII; c++) {
+                if (!predicate.matches(c)) continue;
+                if (c < 64) low |= 1L << c;
+                else high |= 1L << c;
+            }
+            return new First(low, high, true, false);
+        } catch (RuntimeException e) {
+            return any;
+        }
+    }
+
+    // A pattern that neither matches nor hits the end on a single character can never match input starting with it
+    static First matching(Pattern pattern) {
+        long low = 0, high = 0;
+        for (char c = 0; c < ASCII; c++) {
+            Matcher matcher = pattern.matcher(String.valueOf(c));
+            if (!matcher.lookingAt() && !matcher.hitEnd()) continue;
+            if (c < 64) low |= 1L << c;
+            else high |= 1L << c;
+        }
+        return new First(low, high, true, pattern.matcher("").lookingAt());
+    }
+
+    static First of(Parse<?> parse, Set<Parse<?>> visiting) {
+        if (!(parse instanceof Parser) || !visiting.add(parse)) return any;
+        try {
+            return ((Parser<?>) parse).first(visiting);
+        } finally {
+            visiting.remove(parse);
+        }
+    }
+
+    static First sequence(Set<Parse<?>> visiting, Iterable<? extends Parse<?>> parsers) {
+        First result = null;
+        for (Parse<?> parser : parsers) {
+            First first = of(parser, visiting);
+            result = result == null ? first : result.then(first);
+            if (!result.empty) return result;
+        }
+        return result == null ? any : result;
+    }
+
+    First or(First other) {
+        return new First(low | other.low, high | other.high, this.other || other.other, empty || other.empty);
+    }
+
+    First then(First next) {
+        if (!empty) return this;
+        return new First(low | next.low, high | next.high, other || next.other, next.empty);
+    }
+
+    First optional() {
+        return empty ? this : new First(low, high, other, true);
+    }
+
+    boolean empty() {
+        return empty;
+    }
+
+    boolean accepts(char c) {
+        if (empty) return true;
+        if (c >= ASCII) return other;
+        return c < 64 ? (low & (1L << c)) != 0 : (high & (1L << c)) != 0;
+    }
+
+    boolean acceptsAll() {
+        return empty || (low == -1L && high == -1L && other);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("one of \"");
+        for (char c = 0; c < ASCII; c++) {
+            if (!accepts(c)) continue;
+            if (Character.isISOControl(c)) builder.append(String.format("\\u%04x", (int) c));
+            else builder.append(c);
+        }
+        builder.append('"');
+        if (other) builder.append(" or a non-ASCII character");
+        return builder.toString();
+    }
+}
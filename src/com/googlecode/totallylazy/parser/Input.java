@@ -0,0 +1,272 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.segments.AbstractSegment;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+
+public class Input extends AbstractSegment<Character> {
+    private final Buffer buffer;
+    private final int offset;
+
+    private Input(Buffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    public static Input input(CharSequence value) {
+        return new Input(new Sequenced(value, null), 0);
+    }
+
+    public static Input input(CharSequence value, Memo memo) {
+        return new Input(new Sequenced(value, memo), 0);
+    }
+
+    public static Input input(Reader reader) {
+        return new Input(new Streamed(reader, null), 0);
+    }
+
+    public static Input input(Reader reader, Memo memo) {
+        return new Input(new Streamed(reader, memo), 0);
+    }
+
+    static Input input(Buffer buffer, int offset) {
+        return new Input(buffer, offset);
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    Memo memo() {
+        return buffer.memo;
+    }
+
+    Object source() {
+        return buffer;
+    }
+
+    CharSequence characters() {
+        return buffer.characters();
+    }
+
+    Input at(int offset) {
+        return offset == this.offset ? this : new Input(buffer, offset);
+    }
+
+    void hitEnd() {
+        buffer.hitEnd();
+    }
+
+    boolean has(int index) {
+        return buffer.has(index);
+    }
+
+    char charAt(int index) {
+        return buffer.charAt(index);
+    }
+
+    Object excerpt(final int length) {
+        return new Object() {
+            @Override
+            public String toString() {
+                StringBuilder builder = new StringBuilder(length);
+                for (int i = offset; i < offset + length && buffer.has(i); i++) builder.append(buffer.charAt(i));
+                return builder.toString();
+            }
+        };
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !buffer.has(offset);
+    }
+
+    @Override
+    public Character head() throws NoSuchElementException {
+        if (isEmpty()) throw new NoSuchElementException();
+        return buffer.charAt(offset);
+    }
+
+    @Override
+    public Segment<Character> tail() throws NoSuchElementException {
+        if (isEmpty()) throw new NoSuchElementException();
+        return new Input(buffer, offset + 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = offset; buffer.has(i); i++) builder.append(buffer.charAt(i));
+        return builder.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Segment && toString().equals(obj.toString());
+    }
+
+    static abstract class Buffer {
+        private final Memo memo;
+
+        private Buffer(Memo memo) {
+            this.memo = memo;
+        }
+
+        abstract boolean has(int index);
+
+        abstract char charAt(int index);
+
+        abstract CharSequence characters();
+
+        void hitEnd() {
+        }
+    }
+
+    private static final class Sequenced extends Buffer {
+        private final CharSequence value;
+
+        private Sequenced(CharSequence value, Memo memo) {
+            super(memo);
+            this.value = value;
+        }
+
+        @Override
+        boolean has(int index) {
+            return index < value.length();
+        }
+
+        @Override
+        char charAt(int index) {
+            return value.charAt(index);
+        }
+
+        @Override
+        CharSequence characters() {
+            return value;
+        }
+    }
+
+    // Reads one character at a time so the reader is never consumed beyond what the parser inspected
+    private static final class Streamed extends Buffer {
+        private final Reader reader;
+        private char[] chars = new char[256];
+        private int length;
+        private boolean finished;
+
+        private Streamed(Reader reader, Memo memo) {
+            super(memo);
+            this.reader = reader;
+        }
+
+        @Override
+        boolean has(int index) {
+            while (index >= length && !finished) read();
+            return index < length;
+        }
+
+        @Override
+        char charAt(int index) {
+            if (!has(index)) throw new NoSuchElementException();
+            return chars[index];
+        }
+
+        @Override
+        CharSequence characters() {
+            return null;
+        }
+
+        private void read() {
+            try {
+                int read = reader.read();
+                if (read == -1) {
+                    finished = true;
+                    return;
+                }
+                if (length == chars.length) chars = Arrays.copyOf(chars, length * 2);
+                chars[length++] = (char) read;
+            } catch (IOException e) {
+                throw lazyException(e);
+            }
+        }
+    }
+
+    // Holds the chunks fed so far; asking beyond them before close() marks the current attempt as starved
+    static final class Chunks extends Buffer {
+        private char[] chars = new char[256];
+        private int length;
+        private boolean closed;
+        private boolean starved;
+
+        Chunks() {
+            super(null);
+        }
+
+        void append(CharBuffer chunk) {
+            int required = length + chunk.remaining();
+            if (required > chars.length) chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+            int remaining = chunk.remaining();
+            chunk.get(chars, length, remaining);
+            length += remaining;
+        }
+
+        void discard(int count) {
+            System.arraycopy(chars, count, chars, 0, length - count);
+            length -= count;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        boolean closed() {
+            return closed;
+        }
+
+        int length() {
+            return length;
+        }
+
+        boolean starved() {
+            return starved;
+        }
+
+        void reset() {
+            starved = false;
+        }
+
+        @Override
+        boolean has(int index) {
+            if (index < length) return true;
+            hitEnd();
+            return false;
+        }
+
+        @Override
+        char charAt(int index) {
+            if (!has(index)) throw new NoSuchElementException();
+            return chars[index];
+        }
+
+        @Override
+        CharSequence characters() {
+            return CharBuffer.wrap(chars, 0, length);
+        }
+
+        @Override
+        void hitEnd() {
+            if (!closed) starved = true;
+        }
+    }
+}
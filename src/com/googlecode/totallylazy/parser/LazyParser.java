@@ -3,6 +3,7 @@ package com.googlecode.totallylazy.parser;
 import com.googlecode.totallylazy.Lazy;
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 class LazyParser<T> extends Parser<T> {
@@ -16,6 +17,11 @@ class LazyParser<T> extends Parser<T> {
         return new LazyParser<T>(Lazy.lazy(value));
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(value.value(), visiting);
+    }
+
     @Override
     public String toString() {
         return value.value().toString();
@@ -6,6 +6,7 @@ import com.googlecode.totallylazy.Sequences;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.Unchecked.cast;
@@ -22,6 +23,11 @@ class ListParser<A> extends Parser<List<A>> {
         return new ListParser<A>(Sequences.sequence(parsers));
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.sequence(visiting, parsers);
+    }
+
     @Override
     public String toString() {
         return parsers.toString();
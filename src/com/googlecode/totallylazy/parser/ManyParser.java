@@ -4,6 +4,7 @@ import com.googlecode.totallylazy.Segment;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static com.googlecode.totallylazy.parser.Success.success;
 
@@ -31,6 +32,11 @@ class ManyParser<A> extends Parser<List<A>> {
         return success(list, segment);
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(parser, visiting).optional();
+    }
+
     @Override
     public String toString() {
         return String.format("many %s", parser);
@@ -3,6 +3,8 @@ package com.googlecode.totallylazy.parser;
 import com.googlecode.totallylazy.Callable1;
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
+
 import static com.googlecode.totallylazy.Unchecked.cast;
 
 class MappingParser<A, B> extends Parser<B> {
@@ -23,6 +25,11 @@ class MappingParser<A, B> extends Parser<B> {
         return cast(source.parse(characters).map(callable));
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(source, visiting);
+    }
+
     @Override
     public String toString() {
         return String.format("%s %s", source, callable);
@@ -0,0 +1,73 @@
+package com.googlecode.totallylazy.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+public class Memo {
+    private final Map<Long, Result<?>> results = new HashMap<Long, Result<?>>();
+    private Object source;
+    private long hits;
+    private long misses;
+
+    private Memo() {
+    }
+
+    public static Memo memo() {
+        return new Memo();
+    }
+
+    <A> Result<A> get(int parser, Input input) {
+        bind(input);
+        Result<?> result = results.get(key(parser, input.offset()));
+        if (result == null) misses++;
+        else hits++;
+        return cast(result);
+    }
+
+    void put(int parser, Input input, Result<?> result) {
+        bind(input);
+        results.put(key(parser, input.offset()), result);
+    }
+
+    // Results are keyed by offset, so they only hold for the input they came from: a memo reused on new input starts empty
+    private void bind(Input input) {
+        if (input.source() == source) return;
+        results.clear();
+        source = input.source();
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    public void clear() {
+        results.clear();
+        source = null;
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Memo(hits=%s, misses=%s, hitRate=%s, size=%s)", hits, misses, hitRate(), size());
+    }
+
+    private static long key(int parser, int offset) {
+        return ((long) parser << 32) | (offset & 0xffffffffL);
+    }
+}
@@ -0,0 +1,45 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Segment;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
+
+class MemoParser<A> extends Parser<A> {
+    private static final AtomicInteger ids = new AtomicInteger();
+    private final Parse<? extends A> parser;
+    private final int id = ids.incrementAndGet();
+
+    private MemoParser(Parse<? extends A> parser) {
+        this.parser = parser;
+    }
+
+    static <A> MemoParser<A> memo(Parse<? extends A> parser) {
+        return new MemoParser<A>(parser);
+    }
+
+    @Override
+    public Result<A> parse(Segment<Character> characters) {
+        if (!(characters instanceof Input)) return cast(parser.parse(characters));
+        Input input = (Input) characters;
+        Memo memo = input.memo();
+        if (memo == null) return cast(parser.parse(characters));
+        Result<A> result = memo.get(id, input);
+        if (result != null) return result;
+        result = cast(parser.parse(characters));
+        memo.put(id, input, result);
+        return result;
+    }
+
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(parser, visiting);
+    }
+
+    @Override
+    public String toString() {
+        return parser.toString();
+    }
+}
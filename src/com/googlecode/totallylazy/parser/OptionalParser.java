@@ -3,6 +3,8 @@ package com.googlecode.totallylazy.parser;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
+
 import static com.googlecode.totallylazy.parser.Success.success;
 import static java.lang.String.format;
 
@@ -17,6 +19,11 @@ class OptionalParser<A> extends Parser<Option<A>> {
         return new OptionalParser<A>(parserA);
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(parserA, visiting).optional();
+    }
+
     @Override
     public String toString() {
         return format("optional(%s)", parserA.toString());
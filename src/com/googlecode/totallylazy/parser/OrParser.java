@@ -4,10 +4,16 @@ import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sequences;
 
-import static com.googlecode.totallylazy.Sequences.sequence;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.googlecode.totallylazy.Unchecked.cast;
 
 class OrParser<A> extends Parser<A> {
     private final Sequence<Parse<A>> parsers;
+    private volatile Lookahead lookahead;
 
     private OrParser(Sequence<Parse<A>> parsers) {
         this.parsers = parsers;
@@ -22,13 +28,90 @@ class OrParser<A> extends Parser<A> {
         return parsers.toString(" or ");
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        First result = null;
+        for (Parse<A> parser : parsers) {
+            First first = First.of(parser, visiting);
+            result = result == null ? first : result.or(first);
+        }
+        return result == null ? First.any : result;
+    }
+
     @Override
     public Result<A> parse(Segment<Character> characters) {
+        Lookahead lookahead = lookahead();
+        Parse<?>[] viable = lookahead.viable(characters);
+        if (viable.length == 0) return fail(lookahead.first, next(characters));
         Result<A> result = null;
-        for (Parse<A> parser : parsers) {
-            result = parser.parse(characters);
+        for (Parse<?> parser : viable) {
+            result = cast(parser.parse(characters));
             if (result.success()) return result;
         }
         return result;
     }
+
+    // References may not be set when the parser is built, so the table is computed on first use
+    private Lookahead lookahead() {
+        Lookahead result = lookahead;
+        if (result == null) lookahead = result = new Lookahead(parsers.toList(), this);
+        return result;
+    }
+
+    private static Object next(Segment<Character> characters) {
+        return characters.isEmpty() ? "[EOF]" : characters.head();
+    }
+
+    private static final class Lookahead {
+        private static final int ASCII = 128;
+        private final Parse<?>[] all;
+        private final Parse<?>[][] ascii = new Parse<?>[ASCII][];
+        private final Parse<?>[] other;
+        private final Parse<?>[] end;
+        private final boolean selective;
+        private final First first;
+
+        private Lookahead(List<? extends Parse<?>> parsers, Parse<?> self) {
+            all = parsers.toArray(new Parse<?>[parsers.size()]);
+            First[] firsts = new First[all.length];
+            Set<Parse<?>> visiting = new HashSet<Parse<?>>();
+            visiting.add(self);
+            First union = null;
+            boolean selective = false;
+            for (int i = 0; i < all.length; i++) {
+                firsts[i] = First.of(all[i], visiting);
+                union = union == null ? firsts[i] : union.or(firsts[i]);
+                selective |= !firsts[i].acceptsAll();
+            }
+            this.selective = selective;
+            this.first = union == null ? First.any : union;
+            for (char c = 0; c < ASCII; c++) ascii[c] = viable(firsts, c);
+            other = viable(firsts, (char) ASCII);
+            List<Parse<?>> end = new ArrayList<Parse<?>>();
+            for (int i = 0; i < all.length; i++) if (firsts[i].empty()) end.add(all[i]);
+            this.end = end.toArray(new Parse<?>[end.size()]);
+        }
+
+        private Parse<?>[] viable(First[] firsts, char c) {
+            List<Parse<?>> result = new ArrayList<Parse<?>>();
+            for (int i = 0; i < all.length; i++) if (firsts[i].accepts(c)) result.add(all[i]);
+            return result.size() == all.length ? all : result.toArray(new Parse<?>[result.size()]);
+        }
+
+        private Parse<?>[] viable(Segment<Character> characters) {
+            if (!selective) return all;
+            if (characters instanceof Input) {
+                Input input = (Input) characters;
+                int offset = input.offset();
+                if (!input.has(offset)) return end;
+                return viable(input.charAt(offset));
+            }
+            if (characters.isEmpty()) return end;
+            return viable(characters.head());
+        }
+
+        private Parse<?>[] viable(char c) {
+            return c < ASCII ? ascii[c] : other;
+        }
+    }
 }
@@ -2,6 +2,9 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Pair;
 import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Set;
 
 import static com.googlecode.totallylazy.Unchecked.cast;
 import static com.googlecode.totallylazy.parser.Success.success;
@@ -30,6 +33,11 @@ class PairParser<A, B> extends Parser<Pair<A, B>> {
         return success(Pair.pair(resultA.value(), resultB.value()), resultB.remainder());
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.sequence(visiting, Sequences.<Parse<?>>sequence(parserA, parserB));
+    }
+
     @Override
     public String toString() {
         return String.format("%s and %s", parserA, parserB);
@@ -5,7 +5,6 @@ import com.googlecode.totallylazy.Callables;
 import com.googlecode.totallylazy.Function1;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Pair;
-import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sequences;
 
@@ -13,6 +12,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.List;
+import java.util.Set;
 
 import static com.googlecode.totallylazy.Sequences.join;
 import static com.googlecode.totallylazy.Strings.UTF8;
@@ -24,6 +24,10 @@ public abstract class Parser<A> implements Parse<A> {
 
     public abstract String toString();
 
+    First first(Set<Parse<?>> visiting) {
+        return First.any;
+    }
+
     @Override
     public <B> Parser<B> map(Callable1<? super A, ? extends B> callable) {
         return MappingParser.map(this, callable);
@@ -73,16 +77,28 @@ public abstract class Parser<A> implements Parse<A> {
         return OptionalParser.optional(this);
     }
 
+    public Parser<A> memoise() {
+        return MemoParser.memo(this);
+    }
+
     public Result<A> parse(CharSequence value) {
-        return parse(Segment.constructors.characters(value));
+        return parse(Input.input(value));
+    }
+
+    public Result<A> parse(CharSequence value, Memo memo) {
+        return parse(Input.input(value, memo));
     }
 
     public Result<A> parse(Reader value) {
-        return parse(Segment.constructors.characters(value));
+        return parse(Input.input(value));
+    }
+
+    public Result<A> parse(Reader value, Memo memo) {
+        return parse(Input.input(value, memo));
     }
 
     public Result<A> parse(InputStream value) {
-        return parse(Segment.constructors.characters(new InputStreamReader(value, UTF8)));
+        return parse(Input.input(new InputStreamReader(value, UTF8)));
     }
 
     public Parser<Void> ignore() {
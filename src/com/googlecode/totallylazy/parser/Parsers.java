@@ -30,6 +30,10 @@ public class Parsers {
         return MappingParser.map(parser, Callables.<A>returnArgument());
     }
 
+    public static <A> Parser<A> memoise(Parse<? extends A> parser) {
+        return MemoParser.memo(parser);
+    }
+
     // Use in Java 7+, for Java 6 use Parsers.reference
     public static <T> Parser<T> lazy(Callable<? extends Parse<T>> value) {
         return LazyParser.lazy(value);
@@ -4,6 +4,9 @@ import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.regex.Matches;
 import com.googlecode.totallylazy.regex.Regex;
 
+import java.util.Set;
+import java.util.regex.Matcher;
+
 import static com.googlecode.totallylazy.parser.CharacterSequence.charSequence;
 import static com.googlecode.totallylazy.parser.Success.success;
 
@@ -22,6 +25,11 @@ class PatternParser extends Parser<String> {
         return pattern(Regex.regex(value));
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.matching(regex.pattern());
+    }
+
     @Override
     public String toString() {
         return regex.toString();
@@ -29,9 +37,21 @@ class PatternParser extends Parser<String> {
 
     @Override
     public Result<String> parse(Segment<Character> characters) {
+        if (characters instanceof Input && ((Input) characters).characters() != null) return parse((Input) characters);
         CharacterSequence sequence = charSequence(characters);
         Matches matches = regex.findMatches(sequence);
         if (matches.isEmpty()) return fail(regex, sequence);
         return success(matches.head().group(), sequence.remainder());
     }
+
+    private Result<String> parse(Input input) {
+        CharSequence characters = input.characters();
+        Matcher matcher = regex.pattern().matcher(characters).
+                region(input.offset(), characters.length()).
+                useTransparentBounds(true);
+        boolean matched = matcher.lookingAt();
+        if (matcher.hitEnd()) input.hitEnd();
+        if (!matched) return fail(regex, input);
+        return success(matcher.group(), input.at(matcher.end()));
+    }
 }
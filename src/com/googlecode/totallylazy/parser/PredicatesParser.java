@@ -5,6 +5,8 @@ import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Sequences;
 
+import java.util.Set;
+
 import static com.googlecode.totallylazy.Sequences.sequence;
 import static com.googlecode.totallylazy.parser.Success.success;
 
@@ -30,12 +32,17 @@ class PredicatesParser extends Parser<String> {
         for (Predicate<? super Character> predicate : predicates) {
             char a = segment.head();
             result.append(a);
-            if (!predicate.matches(a)) return fail(toString(), result.toString());
+            if (!predicate.matches(a)) return fail(this, result);
             segment = segment.tail();
         }
         return success(result.toString(), segment);
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return predicates.isEmpty() ? First.any : First.matching(predicates.head());
+    }
+
     @Override
     public String toString() {
         return predicates.toString("");
@@ -0,0 +1,190 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.Unchecked;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.Strings.UTF8;
+
+// Not thread safe: feed chunks from one thread (or one event loop) at a time.
+// Parsers can not be suspended, so an element that is still incomplete is parsed again from its start on every feed:
+// an element of n characters arriving in chunks of k costs O(n * n / k). Feed larger chunks for very large elements.
+// The sequence ends quietly when an element fails straight after the prefix, after a separator that did not match,
+// or at the end of input; anywhere else the element failure is reported through failure().
+public class PushParser<A> {
+    private enum State {prefix, element, separator, finished}
+
+    private final Parse<?> prefix;
+    private final Parse<? extends A> element;
+    private final Parse<?> separator;
+    private final CharsetDecoder decoder;
+    private final Input.Chunks chunks = new Input.Chunks();
+    private ByteBuffer pending = ByteBuffer.allocate(0);
+    private State state;
+    private int start;
+    private boolean terminable;
+    private String failure;
+
+    private PushParser(Parse<?> prefix, Parse<? extends A> element, Parse<?> separator, Charset charset) {
+        this.prefix = prefix;
+        this.element = element;
+        this.separator = separator;
+        this.decoder = charset.newDecoder().
+                onMalformedInput(CodingErrorAction.REPLACE).
+                onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.state = prefix == null ? State.element : State.prefix;
+    }
+
+    public static <A> PushParser<A> pushParser(Parse<? extends A> element) {
+        return new PushParser<A>(null, element, null, UTF8);
+    }
+
+    public static <A> PushParser<A> pushParser(Parse<? extends A> element, Parse<?> separator) {
+        return new PushParser<A>(null, element, separator, UTF8);
+    }
+
+    public static <A> PushParser<A> pushParser(Parse<?> prefix, Parse<? extends A> element, Parse<?> separator) {
+        return new PushParser<A>(prefix, element, separator, UTF8);
+    }
+
+    public static <A> PushParser<A> pushParser(Parse<?> prefix, Parse<? extends A> element, Parse<?> separator, Charset charset) {
+        return new PushParser<A>(prefix, element, separator, charset);
+    }
+
+    public Sequence<A> feed(CharSequence chunk) {
+        return feed(CharBuffer.wrap(chunk));
+    }
+
+    public Sequence<A> feed(CharBuffer chunk) {
+        if (chunks.closed()) throw new IllegalStateException("Push parser has been closed");
+        chunks.append(chunk);
+        return drain();
+    }
+
+    public Sequence<A> feed(ByteBuffer chunk) {
+        if (chunks.closed()) throw new IllegalStateException("Push parser has been closed");
+        ByteBuffer bytes = pending.hasRemaining() ? join(pending, chunk) : chunk;
+        CharBuffer chars = CharBuffer.allocate((int) (bytes.remaining() * decoder.maxCharsPerByte()) + 1);
+        decoder.decode(bytes, chars, false);
+        pending = ByteBuffer.allocate(bytes.remaining());
+        pending.put(bytes).flip();
+        chars.flip();
+        return feed(chars);
+    }
+
+    public Sequence<A> close() {
+        if (chunks.closed()) return sequence();
+        if (pending.hasRemaining()) {
+            CharBuffer chars = CharBuffer.allocate((int) (pending.remaining() * decoder.maxCharsPerByte()) + 1);
+            decoder.decode(pending, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            chunks.append(chars);
+        }
+        chunks.close();
+        return drain();
+    }
+
+    public boolean finished() {
+        return state == State.finished;
+    }
+
+    public Option<String> failure() {
+        return Option.option(failure);
+    }
+
+    public Segment<Character> remainder() {
+        return Input.input(chunks, start);
+    }
+
+    private Sequence<A> drain() {
+        List<A> results = new ArrayList<A>();
+        while (state != State.finished) {
+            Result<?> result = attempt(parser());
+            if (result == null) break;
+            int end = result.success() ? offset(result.remainder()) : start;
+            switch (state) {
+                case prefix:
+                    if (result.failure()) {
+                        failure = result.message();
+                        state = State.finished;
+                    } else {
+                        state = State.element;
+                        terminable = true;
+                    }
+                    break;
+                case element:
+                    if (result.failure() || end == start) {
+                        if (result.failure() && !terminable && !exhausted()) failure = result.message();
+                        state = State.finished;
+                    } else {
+                        results.add(Unchecked.<A>cast(result.value()));
+                        state = separator == null ? State.element : State.separator;
+                        terminable = false;
+                    }
+                    break;
+                case separator:
+                    state = State.element;
+                    terminable = result.failure();
+                    break;
+            }
+            start = end;
+        }
+        compact();
+        return sequence(results);
+    }
+
+    private Parse<?> parser() {
+        switch (state) {
+            case prefix:
+                return prefix;
+            case separator:
+                return separator;
+            default:
+                return element;
+        }
+    }
+
+    private Result<?> attempt(Parse<?> parser) {
+        chunks.reset();
+        try {
+            Result<?> result = parser.parse(Input.input(chunks, start));
+            return chunks.starved() ? null : result;
+        } catch (NoSuchElementException e) {
+            if (chunks.starved()) return null;
+            throw e;
+        }
+    }
+
+    private boolean exhausted() {
+        return chunks.closed() && start == chunks.length();
+    }
+
+    private void compact() {
+        if (start == 0 || start < chunks.length() / 2) return;
+        chunks.discard(start);
+        start = 0;
+    }
+
+    private static int offset(Segment<Character> remainder) {
+        if (!(remainder instanceof Input)) throw new IllegalStateException("Push parsing requires parsers that return their input as the remainder");
+        return ((Input) remainder).offset();
+    }
+
+    private static ByteBuffer join(ByteBuffer first, ByteBuffer second) {
+        ByteBuffer joined = ByteBuffer.allocate(first.remaining() + second.remaining());
+        joined.put(first).put(second).flip();
+        return joined;
+    }
+}
@@ -2,6 +2,7 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ReferenceParser<T> extends Parser<T> {
@@ -11,6 +12,11 @@ public class ReferenceParser<T> extends Parser<T> {
 
     public static <T> ReferenceParser<T> reference() {return new ReferenceParser<T>();}
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(value.get(), visiting);
+    }
+
     @Override
     public String toString() {
         return value.get().toString();
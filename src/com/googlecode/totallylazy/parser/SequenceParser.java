@@ -6,6 +6,7 @@ import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Unchecked;
 import com.googlecode.totallylazy.iterators.StatefulIterator;
 
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.googlecode.totallylazy.Sequences.forwardOnly;
@@ -47,6 +48,11 @@ class SequenceParser<A> extends Parser<Sequence<A>> {
         };
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.of(parser, visiting).optional();
+    }
+
     @Override
     public String toString() {
         return String.format("sequence %s", parser);
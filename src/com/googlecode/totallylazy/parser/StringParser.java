@@ -2,6 +2,8 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
 
+import java.util.Set;
+
 import static com.googlecode.totallylazy.parser.Success.success;
 
 class StringParser extends Parser<String> {
@@ -17,18 +19,33 @@ class StringParser extends Parser<String> {
 
     @Override
     public Result<String> parse(Segment<Character> characters) {
+        if (characters instanceof Input) return parse((Input) characters);
         Segment<Character> segment = characters;
         StringBuilder result = new StringBuilder();
         for (int i = 0, n = expected.length(); i < n; i++) {
             char e = expected.charAt(i);
             char a = segment.head();
             result.append(a);
-            if (e != a) return fail(expected, result.toString());
+            if (e != a) return fail(expected, result);
             segment = segment.tail();
         }
         return success(result.toString(), segment);
     }
 
+    private Result<String> parse(Input input) {
+        int offset = input.offset();
+        for (int i = 0, n = expected.length(); i < n; i++) {
+            if (!input.has(offset + i)) return fail(expected, "[EOF]");
+            if (expected.charAt(i) != input.charAt(offset + i)) return fail(expected, input.excerpt(i + 1));
+        }
+        return success(expected, input.at(offset + expected.length()));
+    }
+
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return expected.isEmpty() ? First.any : First.character(expected.charAt(0));
+    }
+
     @Override
     public String toString() {
         return expected;
@@ -2,6 +2,9 @@ package com.googlecode.totallylazy.parser;
 
 import com.googlecode.totallylazy.Segment;
 import com.googlecode.totallylazy.Triple;
+import com.googlecode.totallylazy.Sequences;
+
+import java.util.Set;
 
 import static com.googlecode.totallylazy.Unchecked.cast;
 
@@ -34,6 +37,11 @@ class TripleParser<A, B, C> extends Parser<Triple<A, B, C>> {
         return Success.success(Triple.triple(resultA.value(), resultB.value(), resultC.value()), resultC.remainder());
     }
 
+    @Override
+    First first(Set<Parse<?>> visiting) {
+        return First.sequence(visiting, Sequences.<Parse<?>>sequence(parserA, parserB, parserC));
+    }
+
     @Override
     public String toString() {
         return String.format("%s and %s and %s", parserA, parserB, parserC);
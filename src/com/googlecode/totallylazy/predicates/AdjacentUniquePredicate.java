@@ -0,0 +1,25 @@
+package com.googlecode.totallylazy.predicates;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callers;
+
+import static com.googlecode.totallylazy.Objects.equalTo;
+
+public class AdjacentUniquePredicate<T, S> extends LogicalPredicate<T> {
+    private final Callable1<? super T, ? extends S> callable;
+    private boolean started;
+    private S previous;
+
+    public AdjacentUniquePredicate(Callable1<? super T, ? extends S> callable) {
+        this.callable = callable;
+    }
+
+    @Override
+    public synchronized boolean matches(T other) {
+        S key = Callers.call(callable, other);
+        boolean unique = !started || !equalTo(previous, key);
+        started = true;
+        previous = key;
+        return unique;
+    }
+}
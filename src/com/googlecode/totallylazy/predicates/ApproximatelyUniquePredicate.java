@@ -0,0 +1,20 @@
+package com.googlecode.totallylazy.predicates;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.collections.BloomFilter;
+
+public class ApproximatelyUniquePredicate<T, S> extends LogicalPredicate<T> {
+    private final Callable1<? super T, ? extends S> callable;
+    private final BloomFilter<S> valuesSeen;
+
+    public ApproximatelyUniquePredicate(Callable1<? super T, ? extends S> callable, long expectedInsertions, double falsePositiveRate) {
+        this.callable = callable;
+        this.valuesSeen = BloomFilter.bloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @Override
+    public boolean matches(T other) {
+        return valuesSeen.add(Callers.call(callable, other));
+    }
+}
@@ -0,0 +1,30 @@
+package com.googlecode.totallylazy.predicates;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RecentlyUniquePredicate<T, S> extends LogicalPredicate<T> {
+    private final Callable1<? super T, ? extends S> callable;
+    private final Map<S, Boolean> valuesSeen;
+
+    public RecentlyUniquePredicate(Callable1<? super T, ? extends S> callable, final int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.callable = callable;
+        this.valuesSeen = new LinkedHashMap<S, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<S, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public synchronized boolean matches(T other) {
+        return valuesSeen.put(Callers.call(callable, other), Boolean.TRUE) == null;
+    }
+}
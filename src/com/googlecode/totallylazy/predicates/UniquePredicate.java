@@ -15,7 +15,7 @@ public class UniquePredicate<T, S> extends LogicalPredicate<T> {
     }
 
     @Override
-    public boolean matches(T other) {
+    public synchronized boolean matches(T other) {
         return valuesSeen.add(Callers.call(callable, other));
     }
 }
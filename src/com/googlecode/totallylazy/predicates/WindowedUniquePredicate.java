@@ -0,0 +1,38 @@
+package com.googlecode.totallylazy.predicates;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.time.Clock;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class WindowedUniquePredicate<T, S> extends LogicalPredicate<T> {
+    private final Callable1<? super T, ? extends S> callable;
+    private final long windowMillis;
+    private final Clock clock;
+    private final LinkedHashMap<S, Long> firstSeen = new LinkedHashMap<S, Long>();
+
+    public WindowedUniquePredicate(Callable1<? super T, ? extends S> callable, long windowMillis, Clock clock) {
+        if (windowMillis < 1) throw new IllegalArgumentException("Window must be positive");
+        this.callable = callable;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean matches(T other) {
+        long now = clock.now().getTime();
+        expire(now);
+        S key = Callers.call(callable, other);
+        if (firstSeen.containsKey(key)) return false;
+        firstSeen.put(key, now);
+        return true;
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<S, Long>> iterator = firstSeen.entrySet().iterator();
+        while (iterator.hasNext() && now - iterator.next().getValue() >= windowMillis) iterator.remove();
+    }
+}
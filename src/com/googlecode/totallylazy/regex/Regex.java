@@ -34,6 +34,10 @@ public class Regex extends Mapper<CharSequence, Matches> implements Predicate<Ch
         return new Regex(pattern);
     }
 
+    public Pattern pattern() {
+        return pattern;
+    }
+
     public Matches findMatches(CharSequence sequence){
         return new Matches(pattern, sequence);
     }
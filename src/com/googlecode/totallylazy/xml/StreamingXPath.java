@@ -0,0 +1,347 @@
+package com.googlecode.totallylazy.xml;
+
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.iterators.StatefulIterator;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.googlecode.totallylazy.LazyException.lazyException;
+
+// Supports child (/) and descendant (//) steps, '*', [@a] and [@a='v'] predicates, and a final text() or @a step.
+// Names are matched on local part only. Matching elements yield their string value, text() their own text.
+// '//text()' and '//@a' include the context element itself (descendant-or-self); anything else is rejected.
+public class StreamingXPath {
+    private static final int MAX_STEPS = 63;
+    private static final XMLInputFactory factory = XMLInputFactory.newInstance();
+    private final String expression;
+    private final Step[] steps;
+    private final Result result;
+    private final String attribute;
+
+    private StreamingXPath(String expression, Step[] steps, Result result, String attribute) {
+        this.expression = expression;
+        this.steps = steps;
+        this.result = result;
+        this.attribute = attribute;
+    }
+
+    public static StreamingXPath streamingXPath(String expression) {
+        return new Parser(expression).parse();
+    }
+
+    public Sequence<String> evaluate(final Reader reader) {
+        return new Sequence<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                try {
+                    synchronized (factory) {
+                        return new Evaluation(factory.createXMLStreamReader(reader));
+                    }
+                } catch (XMLStreamException e) {
+                    throw lazyException(e);
+                }
+            }
+        };
+    }
+
+    public Sequence<String> evaluate(final InputStream stream) {
+        return new Sequence<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                try {
+                    synchronized (factory) {
+                        return new Evaluation(factory.createXMLStreamReader(stream));
+                    }
+                } catch (XMLStreamException e) {
+                    throw lazyException(e);
+                }
+            }
+        };
+    }
+
+    public Sequence<String> evaluate(final XMLStreamReader reader) {
+        return new Sequence<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Evaluation(reader);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private enum Result {element, text, attribute}
+
+    private class Evaluation extends StatefulIterator<String> implements Closeable {
+        private final XMLStreamReader reader;
+        private final ArrayDeque<Capture> captures = new ArrayDeque<Capture>();
+        private long[] states = new long[32];
+        private int depth;
+        private int open;
+
+        private Evaluation(XMLStreamReader reader) {
+            this.reader = reader;
+            states[0] = 1L;
+        }
+
+        @Override
+        protected String getNext() throws Exception {
+            while (true) {
+                if (!captures.isEmpty() && captures.peekFirst().done) return captures.removeFirst().value();
+                if (!reader.hasNext()) {
+                    close();
+                    return finished();
+                }
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        start();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (open > 0) text();
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (open > 0) end();
+                        depth--;
+                        break;
+                }
+            }
+        }
+
+        private void start() {
+            long state = advance(states[depth]);
+            if (++depth == states.length) states = Arrays.copyOf(states, depth * 2);
+            states[depth] = state;
+            if ((state & (1L << steps.length)) == 0) return;
+            if (result == Result.attribute) {
+                String value = attribute(reader, attribute);
+                if (value != null) captures.add(new Capture(depth, value));
+                return;
+            }
+            captures.add(new Capture(depth, null));
+            open++;
+        }
+
+        private long advance(long state) {
+            long next = 0;
+            for (int i = 0; i < steps.length; i++) {
+                if ((state & (1L << i)) == 0) continue;
+                if (steps[i].descendant) next |= 1L << i;
+                if (steps[i].matches(reader)) next |= 1L << (i + 1);
+            }
+            for (int i = 0; i < steps.length; i++) {
+                if (steps[i].self && (next & (1L << i)) != 0) next |= 1L << (i + 1);
+            }
+            return next;
+        }
+
+        private void text() {
+            for (Capture capture : captures) {
+                if (capture.done) continue;
+                if (capture.depth == depth || result == Result.element) capture.builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+
+        private void end() {
+            for (Capture capture : captures) {
+                if (!capture.done && capture.depth == depth) {
+                    capture.done = true;
+                    open--;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static final class Capture {
+        private final int depth;
+        private final StringBuilder builder;
+        private final String value;
+        private boolean done;
+
+        private Capture(int depth, String value) {
+            this.depth = depth;
+            this.value = value;
+            this.done = value != null;
+            this.builder = value == null ? new StringBuilder() : null;
+        }
+
+        private String value() {
+            return builder == null ? value : builder.toString();
+        }
+    }
+
+    private static final class Step {
+        private final boolean descendant;
+        private final boolean self;
+        private final String name;
+        private final List<String[]> predicates;
+
+        private Step(boolean descendant, boolean self, String name, List<String[]> predicates) {
+            this.descendant = descendant;
+            this.self = self;
+            this.name = name;
+            this.predicates = predicates;
+        }
+
+        private static Step step(boolean descendant, String name, List<String[]> predicates) {
+            return new Step(descendant, false, name, predicates);
+        }
+
+        private static Step descendantOrSelf() {
+            return new Step(true, true, null, new ArrayList<String[]>());
+        }
+
+        private boolean matches(XMLStreamReader reader) {
+            if (name != null && !name.equals(reader.getLocalName())) return false;
+            for (String[] predicate : predicates) {
+                String value = attribute(reader, predicate[0]);
+                if (value == null || (predicate[1] != null && !predicate[1].equals(value))) return false;
+            }
+            return true;
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeLocalName(i).equals(localName)) return reader.getAttributeValue(i);
+        }
+        return null;
+    }
+
+    private static class Parser {
+        private final String expression;
+        private int position;
+
+        private Parser(String expression) {
+            this.expression = expression.trim();
+        }
+
+        private StreamingXPath parse() {
+            List<Step> steps = new ArrayList<Step>();
+            Result result = Result.element;
+            String attribute = null;
+            while (position < expression.length()) {
+                boolean descendant = false;
+                if (expression.startsWith("//", position)) {
+                    descendant = true;
+                    position += 2;
+                } else if (expression.startsWith("/", position)) {
+                    position++;
+                } else if (position > 0) {
+                    throw unsupported();
+                }
+                if (expression.startsWith("text()", position)) {
+                    if (descendant) steps.add(Step.descendantOrSelf());
+                    result = Result.text;
+                    position += 6;
+                    break;
+                }
+                if (expression.startsWith("@", position)) {
+                    if (descendant) steps.add(Step.descendantOrSelf());
+                    position++;
+                    attribute = qName();
+                    result = Result.attribute;
+                    break;
+                }
+                String name = expression.startsWith("*", position) ? wildcard() : qName();
+                steps.add(Step.step(descendant, name, predicates()));
+            }
+            if (position != expression.length() || steps.isEmpty() || steps.size() > MAX_STEPS) throw unsupported();
+            return new StreamingXPath(expression, steps.toArray(new Step[steps.size()]), result, attribute);
+        }
+
+        private List<String[]> predicates() {
+            List<String[]> predicates = new ArrayList<String[]>();
+            while (expression.startsWith("[", position)) {
+                position++;
+                skipWhitespace();
+                if (!expression.startsWith("@", position++)) throw unsupported();
+                String name = qName();
+                String value = null;
+                skipWhitespace();
+                if (expression.startsWith("=", position)) {
+                    position++;
+                    skipWhitespace();
+                    value = quoted();
+                    skipWhitespace();
+                }
+                if (!expression.startsWith("]", position++)) throw unsupported();
+                predicates.add(new String[]{name, value});
+            }
+            return predicates;
+        }
+
+        private String wildcard() {
+            position++;
+            return null;
+        }
+
+        // Returns the local part; the prefix is dropped as names are matched on local part only
+        private String qName() {
+            String name = ncName();
+            if (!expression.startsWith(":", position)) return name;
+            position++;
+            return ncName();
+        }
+
+        private String ncName() {
+            int start = position;
+            if (position < expression.length() && nameStart(expression.charAt(position))) position++;
+            else throw unsupported();
+            while (position < expression.length() && nameCharacter(expression.charAt(position))) position++;
+            return expression.substring(start, position);
+        }
+
+        private static boolean nameStart(char c) {
+            return Character.isLetter(c) || c == '_';
+        }
+
+        private static boolean nameCharacter(char c) {
+            return nameStart(c) || Character.isDigit(c) || c == '-' || c == '.';
+        }
+
+        private String quoted() {
+            if (position >= expression.length()) throw unsupported();
+            char quote = expression.charAt(position);
+            if (quote != '\'' && quote != '"') throw unsupported();
+            int end = expression.indexOf(quote, position + 1);
+            if (end == -1) throw unsupported();
+            String value = expression.substring(position + 1, end);
+            position = end + 1;
+            return value;
+        }
+
+        private void skipWhitespace() {
+            while (position < expression.length() && expression.charAt(position) == ' ') position++;
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException(String.format("Unsupported streaming xpath '%s' at position %s", expression, position));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.googlecode.totallylazy.xml;
 import com.googlecode.totallylazy.LazyException;
 import com.googlecode.totallylazy.Mapper;
 import com.googlecode.totallylazy.Predicate;
+import com.googlecode.totallylazy.Sequence;
 import com.googlecode.totallylazy.Unchecked;
 import com.googlecode.totallylazy.Xml;
 import com.googlecode.totallylazy.iterators.StatefulIterator;
@@ -47,6 +48,10 @@ public class XmlReader extends StatefulIterator<Node> {
         }
     }
 
+    public static Sequence<String> select(Reader reader, String expression) {
+        return StreamingXPath.streamingXPath(expression).evaluate(reader);
+    }
+
     @Override
     protected Node getNext() throws Exception {
         while (reader.hasNext()) {
@@ -0,0 +1,68 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.googlecode.totallylazy.Files.temporaryFile;
+import static com.googlecode.totallylazy.Files.write;
+import static com.googlecode.totallylazy.MappedLines.mappedLines;
+import static com.googlecode.totallylazy.Strings.bytes;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedLinesTest {
+    @Test
+    public void handlesTheSameLineEndingsAsBufferedReader() throws Exception {
+        File file = temporaryFile();
+        write(bytes("one\r\ntwo\n\nthree\rfour\n"), file);
+        assertThat(mappedLines(file).strings(), hasExactly("one", "two", "", "three", "four"));
+    }
+
+    @Test
+    public void decodesUtf8AcrossChunks() throws Exception {
+        File file = temporaryFile();
+        write(bytes("λλλλλλ\nshort\nλ a line longer than the chunk λ\nend"), file);
+        assertThat(mappedLines(file, 0, Long.MAX_VALUE, 4).strings(), hasExactly("λλλλλλ", "short", "λ a line longer than the chunk λ", "end"));
+    }
+
+    @Test
+    public void canBeIteratedMoreThanOnce() throws Exception {
+        File file = temporaryFile();
+        write(bytes("a\nb"), file);
+        MappedLines lines = mappedLines(file);
+        assertThat(lines.strings(), hasExactly("a", "b"));
+        assertThat(lines.strings(), hasExactly("a", "b"));
+    }
+
+    @Test
+    public void splitsByByteRangeWithoutLosingOrDuplicatingLines() throws Exception {
+        File file = temporaryFile();
+        Sequence<String> expected = Numbers.range(1, 1000).map(Callables.asString());
+        write(bytes(expected.toString("\n")), file);
+        for (int parts : new int[]{1, 3, 7, 64, 5000}) {
+            Sequence<String> actual = mappedLines(file, 0, Long.MAX_VALUE, 16).split(parts).flatMap(new Function1<MappedLines, Sequence<String>>() {
+                @Override
+                public Sequence<String> call(MappedLines lines) throws Exception {
+                    return lines.strings();
+                }
+            });
+            assertThat(actual, is(expected));
+        }
+    }
+
+    @Test
+    public void splitsCanBeProcessedInParallel() throws Exception {
+        File file = temporaryFile();
+        write(bytes(Numbers.range(1, 10000).toString("\n")), file);
+        Number total = mappedLines(file).split(4).parallel().map(new Function1<MappedLines, Number>() {
+            @Override
+            public Number call(MappedLines lines) throws Exception {
+                return lines.size();
+            }
+        }).reduce(Numbers.sum());
+        assertThat(total.intValue(), is(10000));
+    }
+}
@@ -2,8 +2,14 @@ package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.callables.CountingCallable;
 import com.googlecode.totallylazy.matchers.NumberMatcher;
+import com.googlecode.totallylazy.numbers.Numbers;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.googlecode.totallylazy.Callables.call;
 import static com.googlecode.totallylazy.Callers.callConcurrently;
 import static com.googlecode.totallylazy.Runnables.doNothing;
@@ -91,4 +97,53 @@ public class MemoriseTest {
         assertThat(sequence.size(), NumberMatcher.is(1));
         assertThat(counting.count(), is(1));
     }
+
+    @Test
+    public void manyThreadsShareOneUpstreamIteration() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final Sequence<Integer> sequence = Numbers.range(1, 5000).map(new Function1<Number, Integer>() {
+            @Override
+            public Integer call(Number number) throws Exception {
+                return calls.getAndIncrement();
+            }
+        }).memorise();
+        Function<Integer> size = new Function<Integer>() {
+            public Integer call() throws Exception {
+                return sequence.size();
+            }
+        };
+        Sequence<Integer> sizes = callConcurrently(size, size, size, size);
+        assertThat(sizes, hasExactly(5000, 5000, 5000, 5000));
+        assertThat(calls.get(), is(5000));
+        assertThat(sequence.take(3), hasExactly(0, 1, 2));
+    }
+
+    @Test
+    public void supportsTailAndGetAcrossChunks() throws Exception {
+        Sequence<Integer> sequence = memorise(Numbers.range(0, 3000).map(Numbers.intValue).iterator());
+        assertThat(sequence.get(2500), is(2500));
+        Sequence<Integer> tail = sequence;
+        for (int i = 0; i < 2000; i++) tail = tail.tail();
+        assertThat(tail.head(), is(2000));
+        assertThat(tail.size(), NumberMatcher.is(1001));
+        assertThat(sequence.size(), NumberMatcher.is(3001));
+    }
+
+    @Test
+    public void walkingAMemorisedSequenceWithoutItsHeadDoesNotRetainThePrefix() throws Exception {
+        Iterator<Object> iterator = repeat(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return new Object();
+            }
+        }).memorise().iterator();
+        WeakReference<Object> first = new WeakReference<Object>(iterator.next());
+        for (int i = 0; i < 100000; i++) iterator.next();
+        for (int i = 0; i < 50 && first.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(first.get() == null, is(true));
+        assertThat(iterator.hasNext(), is(true));
+    }
 }
@@ -0,0 +1,104 @@
+package com.googlecode.totallylazy;
+
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.callables.Count.count;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.NumberMatcher.is;
+import static com.googlecode.totallylazy.numbers.Numbers.even;
+import static com.googlecode.totallylazy.numbers.Numbers.range;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ParallelSequenceTest {
+    @Test
+    public void preservesOrderWhenMappingAndFiltering() throws Exception {
+        Sequence<Number> result = range(1, 1000).parallel().filter(even).map(Numbers.multiply(2));
+        assertThat(result, hasExactly(range(1, 1000).filter(even).map(Numbers.multiply(2)).toArray(Number.class)));
+    }
+
+    @Test
+    public void reducesUsingCombiner() throws Exception {
+        assertThat(range(1, 10000).parallel().reduce(Numbers.sum()), is(50005000));
+        assertThat(range(1, 10000).parallel().fold(5, Numbers.sum()), is(50005005));
+        assertThat(range(1, 10000).parallel().reduce(count()), is(10000));
+    }
+
+    @Test
+    public void supportsFoldWithExplicitCombiner() throws Exception {
+        Number result = range(1, 100).parallel().fold(0, Numbers.add(), Numbers.add());
+        assertThat(result, is(5050));
+    }
+
+    @Test
+    public void fallsBackToSequentialReduceWhenNoCombinerIsAvailable() throws Exception {
+        assertThat(sequence(1, 2, 3).parallel().reduce(new Function2<Number, Number, Number>() {
+            @Override
+            public Number call(Number a, Number b) throws Exception {
+                return Numbers.add(a, b);
+            }
+        }), is(6));
+    }
+
+    @Test
+    public void supportsGroupBy() throws Exception {
+        Sequence<Group<Number, Number>> groups = range(1, 100).parallel().groupBy(Numbers.mod().apply(3));
+        assertThat(groups.map(Group.functions.<Number, Number>key()), hasExactly((Number) 1, 2, 0));
+        assertThat(groups.first(), hasExactly(range(1, 100, 3).toArray(Number.class)));
+    }
+
+    @Test
+    public void spreadsWorkAcrossThreadsInThePool() throws Exception {
+        final ConcurrentHashMap<Thread, Boolean> threads = new ConcurrentHashMap<Thread, Boolean>();
+        range(1, 10000).parallel(new ForkJoinPool(4)).map(new Function1<Number, Number>() {
+            @Override
+            public Number call(Number number) throws Exception {
+                threads.put(Thread.currentThread(), true);
+                Thread.sleep(0, 1);
+                return number;
+            }
+        }).size();
+        assertThat(threads.size() > 1, org.hamcrest.Matchers.is(true));
+    }
+
+    @Test
+    public void sequentialStreamsLazily() throws Exception {
+        assertThat(range(1).parallel().map(Numbers.multiply(2)).sequential().take(3), hasExactly((Number) 2, 4, 6));
+    }
+
+    @Test
+    public void streamsLazilyFromInfiniteSources() throws Exception {
+        assertThat(range(1).parallel().map(Numbers.multiply(2)).take(3), hasExactly((Number) 2, 4, 6));
+        assertThat(range(1).parallel().filter(even).first(), is(2));
+    }
+
+    @Test
+    public void reduceStartsEachChunkFromAFreshIdentity() throws Exception {
+        List<Number> result = range(1, 1000).parallel(new ForkJoinPool(4)).reduce(new ReducerCombinerFunction<Number, List<Number>>() {
+            @Override
+            public List<Number> call(List<Number> numbers, Number number) throws Exception {
+                numbers.add(number);
+                return numbers;
+            }
+
+            @Override
+            public List<Number> combine(List<Number> a, List<Number> b) throws Exception {
+                List<Number> result = new ArrayList<Number>(a);
+                result.addAll(b);
+                return result;
+            }
+
+            @Override
+            public List<Number> identity() {
+                return new ArrayList<Number>();
+            }
+        });
+        assertThat(result, hasExactly(range(1, 1000).toArray(Number.class)));
+    }
+}
@@ -2,20 +2,30 @@ package com.googlecode.totallylazy;
 
 import com.googlecode.totallylazy.callables.CountingCallable;
 import com.googlecode.totallylazy.comparators.Comparators;
+import com.googlecode.totallylazy.concurrent.Concurrency;
 import com.googlecode.totallylazy.concurrent.NamedExecutors;
 import com.googlecode.totallylazy.matchers.Matchers;
 import com.googlecode.totallylazy.matchers.NumberMatcher;
 import com.googlecode.totallylazy.numbers.Numbers;
 import com.googlecode.totallylazy.time.Dates;
+import com.googlecode.totallylazy.time.Seconds;
+import com.googlecode.totallylazy.time.SettableClock;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.File;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.googlecode.totallylazy.Arrays.list;
@@ -51,6 +61,7 @@ import static com.googlecode.totallylazy.Sequences.cons;
 import static com.googlecode.totallylazy.Sequences.empty;
 import static com.googlecode.totallylazy.Sequences.flatOption;
 import static com.googlecode.totallylazy.Sequences.flatten;
+import static com.googlecode.totallylazy.Sequences.forwardOnly;
 import static com.googlecode.totallylazy.Sequences.one;
 import static com.googlecode.totallylazy.Sequences.repeat;
 import static com.googlecode.totallylazy.Sequences.sequence;
@@ -274,6 +285,33 @@ public class SequenceTest {
         assertThat(groups.second(), hasExactly(2, 4));
     }
 
+    @Test
+    public void supportsAggregatingGroupByWithReducers() throws Exception {
+        Map<Number, Number> counts = Numbers.range(1, 10).groupBy(Numbers.mod(3), count());
+        assertThat(counts.keySet(), hasExactly((Number) 1, 2, 0));
+        assertThat(counts.get(1), NumberMatcher.is(4));
+        assertThat(counts.get(0), NumberMatcher.is(3));
+
+        Map<Number, Number> sums = Numbers.range(1, 10).groupBy(Numbers.mod(2), Numbers.sum());
+        assertThat(sums.get(1), NumberMatcher.is(25));
+        assertThat(sums.get(0), NumberMatcher.is(30));
+
+        Map<Number, Number> parallelSums = Numbers.range(1, 10000).parallel().groupBy(Numbers.mod(2), Numbers.sum());
+        assertThat(parallelSums.get(1), NumberMatcher.is(25000000));
+        assertThat(parallelSums.get(0), NumberMatcher.is(25005000));
+    }
+
+    @Test
+    public void supportsLazyGroupAdjacent() throws Exception {
+        Sequence<Group<Character, String>> groups = sequence("apple", "avocado", "banana", "cherry", "cranberry", "apricot").groupAdjacent(Strings.characterAt(0));
+        assertThat(groups.map(Group.functions.<Character, String>key()), hasExactly('a', 'b', 'c', 'a'));
+        assertThat(groups.first(), hasExactly("apple", "avocado"));
+        assertThat(groups.last(), hasExactly("apricot"));
+
+        Sequence<Pair<Integer, Number>> counts = Numbers.range(1).groupAdjacent(Numbers.divide(10).then(Numbers.intValue), count());
+        assertThat(counts.take(3).map(Callables.<Number>second()), hasExactly((Number) 9, 10, 10));
+    }
+
     @Test
     public void supportsGrouped() throws Exception {
         Sequence<Integer> sequence = sequence(1, 2, 3, 4, 5);
@@ -283,6 +321,12 @@ public class SequenceTest {
         assertThat(sequence.grouped(6), is(Sequences.<Sequence<Integer>>sequence(sequence(1, 2, 3, 4, 5))));
     }
 
+    @Test
+    public void groupedOnlyAllocatesForWhatIsRead() throws Exception {
+        assertThat(sequence(1, 2, 3).grouped(Integer.MAX_VALUE), is(Sequences.<Sequence<Integer>>sequence(sequence(1, 2, 3))));
+        assertThat(sequence(1, 2, 3).windowed(Integer.MAX_VALUE).isEmpty(), is(true));
+    }
+
     @Test
     @Ignore("Manual Test")
     public void groupedDoesNotBlowStack() throws Exception {
@@ -387,6 +431,37 @@ public class SequenceTest {
         assertThat(sequence("Matt", "Dan", "Dominic", "Mary").unique(Strings.characterAt(0)), hasExactly("Matt", "Dan"));
     }
 
+    @Test
+    public void supportsUniqueOverABoundedNumberOfRecentKeys() throws Exception {
+        assertThat(sequence(1, 2, 1, 3, 1, 4, 2, 1).uniqueRecent(Callables.<Integer>returnArgument(), 2), hasExactly(1, 2, 3, 4, 2, 1));
+    }
+
+    @Test
+    public void supportsUniqueWithinATimeWindow() throws Exception {
+        final SettableClock clock = new SettableClock(Dates.date(2001, 1, 1));
+        Sequence<String> events = sequence("a", "b", "a", "tick", "a", "b").map(new Function1<String, String>() {
+            @Override
+            public String call(String event) throws Exception {
+                if (event.equals("tick")) clock.now(Seconds.add(clock.now(), 10));
+                return event;
+            }
+        });
+        assertThat(events.uniqueWithin(Callables.<String>returnArgument(), 5, TimeUnit.SECONDS, clock), hasExactly("a", "b", "tick", "a", "b"));
+    }
+
+    @Test
+    public void supportsUniqueOnSortedInputByRememberingOnlyThePreviousKey() throws Exception {
+        assertThat(sequence(1, 1, 2, 2, 2, 3, 1, 1).uniqueAdjacent(), hasExactly(1, 2, 3, 1));
+        assertThat(sequence("Matt", "Mary", "Dan", "Dominic", "Mike").uniqueAdjacent(Strings.characterAt(0)), hasExactly("Matt", "Dan", "Mike"));
+    }
+
+    @Test
+    public void supportsApproximateUniqueBackedByABloomFilter() throws Exception {
+        Sequence<Number> unique = Numbers.range(1, 1000).cycle().take(3000).uniqueApproximately(Callables.<Number>returnArgument(), 1000, 0.001);
+        assertThat(unique.size() <= 1000, is(true));
+        assertThat(unique.size() > 990, is(true));
+    }
+
     @Test
     public void supportsSort() throws Exception {
         assertThat(sort(sequence(5, 6, 1, 3, 4, 2)), hasExactly(1, 2, 3, 4, 5, 6));
@@ -420,6 +495,101 @@ public class SequenceTest {
         assertThat(unsorted.sortBy(descending(returnArgument(Integer.class))), hasExactly(2, 1, null));
     }
 
+    @Test
+    public void supportsExternalSortThatSpillsRunsToDisk() throws Exception {
+        File directory = Files.emptyTemporaryDirectory(getClass().getSimpleName());
+        Sequence<Integer> unsorted = range(0, 999).map(new Function1<Number, Integer>() {
+            @Override
+            public Integer call(Number number) throws Exception {
+                return (number.intValue() * 7919) % 1000;
+            }
+        });
+        Sequence<Integer> sorted = unsorted.sortBy(Comparators.<Integer>ascending(), SortOptions.external(64).directory(directory));
+        assertThat(sorted.toList(), is(range(0, 999).map(Callables.<Number, Integer>cast(Integer.class)).toList()));
+        assertThat(Files.files(directory).isEmpty(), is(true));
+    }
+
+    @Test
+    public void externalSortDeletesItsRunsWhenStoppedEarly() throws Exception {
+        File directory = Files.emptyTemporaryDirectory(getClass().getSimpleName());
+        Sequence<Integer> sorted = range(0, 999).map(new Function1<Number, Integer>() {
+            @Override
+            public Integer call(Number number) throws Exception {
+                return 999 - number.intValue();
+            }
+        }).sortBy(Comparators.<Integer>ascending(), SortOptions.external(64).directory(directory));
+        assertThat(sorted.first(), is(0));
+        assertThat(Files.files(directory).isEmpty(), is(true));
+        assertThat(sorted.take(3), hasExactly(0, 1, 2));
+        assertThat(Files.files(directory).isEmpty(), is(true));
+        assertThat(sorted.find(Predicates.is(500)).get(), is(500));
+        assertThat(Files.files(directory).isEmpty(), is(true));
+    }
+
+    @Test
+    public void externalSortIsStable() throws Exception {
+        Sequence<Pair<Integer, String>> unsorted = sequence(pair(2, "a"), pair(1, "b"), pair(2, "c"), pair(1, "d"), pair(2, "e"));
+        SortOptions.Codec<Pair<Integer, String>> codec = new SortOptions.Codec<Pair<Integer, String>>() {
+            @Override
+            public void write(Pair<Integer, String> value, ObjectOutput output) throws Exception {
+                output.writeInt(value.first());
+                output.writeUTF(value.second());
+            }
+
+            @Override
+            public Pair<Integer, String> read(ObjectInput input) throws Exception {
+                return pair(input.readInt(), input.readUTF());
+            }
+        };
+        assertThat(unsorted.sortBy(ascending(Callables.<Integer>first()), SortOptions.external(2).codec(codec)).map(Callables.<String>second()), hasExactly("b", "d", "a", "c", "e"));
+    }
+
+    @Test
+    public void supportsParallelInMemorySort() throws Exception {
+        Sequence<Integer> values = repeat(new Callable<Integer>() {
+            private final Random random = new Random(42);
+
+            @Override
+            public Integer call() throws Exception {
+                return random.nextInt();
+            }
+        }).take(50000).realise();
+        assertThat(values.sortBy(Comparators.<Integer>ascending(), SortOptions.parallelInMemory()).toList(), is(values.sortBy(Comparators.<Integer>ascending()).toList()));
+    }
+
+    @Test
+    public void supportsTopAndBottom() throws Exception {
+        Sequence<Integer> values = sequence(5, 1, 9, 3, 7, 9, 2);
+        assertThat(values.top(3, Comparators.<Integer>ascending()), hasExactly(9, 9, 7));
+        assertThat(values.bottom(3, Comparators.<Integer>ascending()), hasExactly(1, 2, 3));
+        assertThat(values.top(0, Comparators.<Integer>ascending()).isEmpty(), is(true));
+        assertThat(values.bottom(10, Comparators.<Integer>ascending()), hasExactly(1, 2, 3, 5, 7, 9, 9));
+        assertThat(sequence("dan", "bob", "stuart", "al").top(2, length()), hasExactly("stuart", "dan"));
+    }
+
+    @Test
+    public void supportsTopInParallel() throws Exception {
+        Sequence<Number> values = range(1, 10000);
+        assertThat(values.parallel().top(3, Numbers.ascending()), hasExactly((Number) 10000, 9999, 9998));
+    }
+
+    @Test
+    public void sortByIsASnapshotOfTheSource() throws Exception {
+        Sequence<Integer> sorted = forwardOnly(sequence(3, 1, 2).iterator()).sortBy(Comparators.<Integer>ascending());
+        assertThat(sorted.first(), is(1));
+        assertThat(sorted.size(), is(3));
+        assertThat(sorted, hasExactly(1, 2, 3));
+    }
+
+    @Test
+    public void sortedLazilyThenTakeOnlyKeepsWhatIsNeeded() throws Exception {
+        Sequence<Pair<Integer, String>> unsorted = sequence(pair(2, "a"), pair(1, "b"), pair(2, "c"), pair(1, "d"), pair(3, "e"));
+        Sequence<Pair<Integer, String>> sorted = unsorted.sortedLazily(Callables.<Integer>first());
+        assertThat(sorted.take(3).map(Callables.<String>second()), hasExactly("b", "d", "a"));
+        assertThat(sorted.map(Callables.<String>second()), hasExactly("b", "d", "a", "c", "e"));
+        assertThat(sorted.head(), is(pair(1, "b")));
+    }
+
     @Test
     public void supportsSortByWithCompositeComparator() throws Exception {
         Sequence<String> unsorted = Sequences.sequence("dan", "tom", "mateusz", "stuart");
@@ -580,6 +750,33 @@ public class SequenceTest {
         assertThat(count.get(), is(1));
     }
 
+    @Test
+    public void fusedChainsGiveTheSameResultsThroughTerminalsAndIterators() throws Exception {
+        Sequence<Number> chain = range(1).drop(2).filter(even()).map(Numbers.increment()).takeWhile(Numbers.lessThan(30)).dropWhile(Numbers.lessThan(10)).take(5);
+        assertThat(chain.toList(), is(numbers(11, 13, 15, 17, 19).toList()));
+        assertThat(chain, hasExactly((Number) 11, 13, 15, 17, 19));
+        assertThat(chain.size(), is(5));
+        assertThat(chain.fold(0, sum()), NumberMatcher.is(75));
+        assertThat(chain.find(Numbers.greaterThan(14)), is(some((Number) 15)));
+        assertThat(chain.exists(Numbers.greaterThan(19)), is(false));
+        assertThat(chain.forAll(Numbers.lessThan(20)), is(true));
+    }
+
+    @Test
+    public void fusedTakeDoesNotPullMoreThanItNeeds() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger(0);
+        Sequence<Integer> source = repeat(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return pulled.incrementAndGet();
+            }
+        });
+        assertThat(source.map(Callables.<Integer>returnArgument()).take(3).toList(), hasExactly(1, 2, 3));
+        assertThat(pulled.get(), is(3));
+        assertThat(source.take(0).map(Callables.<Integer>returnArgument()).size(), is(0));
+        assertThat(pulled.get(), is(3));
+    }
+
     @Test
     public void canReduceEmptySequence() {
         assertThat(numbers().reduce(sum()), NumberMatcher.is(0));
@@ -659,6 +856,61 @@ public class SequenceTest {
         executorService.shutdown();
     }
 
+    @Test
+    public void supportsBoundedConcurrentMapInInputOrder() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        Sequence<Integer> result = sequence(5, 1, 4, 2, 3, 0).mapConcurrently(new Mapper<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) throws Exception {
+                int now = running.incrementAndGet();
+                synchronized (maximum) {
+                    maximum.set(Math.max(maximum.get(), now));
+                }
+                try {
+                    Thread.sleep(value * 5);
+                    return value;
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        }, 2, executorService);
+        assertThat(result, hasExactly(5, 1, 4, 2, 3, 0));
+        assertThat(maximum.get() <= 2, is(true));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void boundedConcurrentMapAppliesBackpressureToItsSource() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+        Sequence<Integer> source = repeat(1).map(new Mapper<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) throws Exception {
+                return pulled.incrementAndGet();
+            }
+        });
+        Sequence<Integer> result = source.mapConcurrently(Callables.<Integer>returnArgument(), 3).take(4);
+        assertThat(result, hasExactly(1, 2, 3, 4));
+        assertThat(pulled.get() <= 4 + 3, is(true));
+    }
+
+    @Test
+    public void supportsBoundedConcurrentMapInCompletionOrder() throws Exception {
+        ExecutorService executorService = Concurrency.workStealing(3);
+        Sequence<Integer> result = sequence(60, 1, 2).mapInCompletionOrder(new Mapper<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) throws Exception {
+                Thread.sleep(value);
+                return value;
+            }
+        }, 3, executorService);
+        List<Integer> values = result.toList();
+        assertThat(values.get(2), is(60));
+        assertThat(sequence(values).sortBy(Callables.<Integer>returnArgument()), hasExactly(1, 2, 60));
+        executorService.shutdown();
+    }
+
     @Test
     public void mapIsLazy() throws Exception {
         Iterable<Integer> result = sequence(returns(1), callThrows(new Exception(), Integer.class)).
@@ -816,6 +1068,21 @@ public class SequenceTest {
         assertThat(range(1).windowed(3), startsWith(sequence(numbers(1, 2, 3), numbers(2, 3, 4), numbers(3, 4, 5))));
     }
 
+    @Test
+    public void supportsWindowedWithStep() throws Exception {
+        assertThat(sequence(1, 2, 3, 4, 5, 6).windowed(2, 2), is(sequence(sequence(1, 2), sequence(3, 4), sequence(5, 6))));
+        assertThat(sequence(1, 2, 3, 4, 5, 6, 7).windowed(2, 3), is(sequence(sequence(1, 2), sequence(4, 5))));
+        assertThat(sequence(1, 2, 3, 4, 5).windowed(3, 2), is(sequence(sequence(1, 2, 3), sequence(3, 4, 5))));
+    }
+
+    @Test
+    public void windowsRemainValidAfterIterationMovesOn() throws Exception {
+        Sequence<Sequence<Number>> windows = range(1, 100).windowed(10).realise();
+        assertThat(windows.size(), is(91));
+        assertThat(windows.first(), is(numbers(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)));
+        assertThat(windows.last().get(9), is((Number) 100));
+    }
+
     @Test
     public void supportsIntersperse() {
         assertThat(sequence("a", "b", "c").intersperse("x"), hasExactly("a", "x", "b", "x", "c"));
@@ -28,6 +28,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 public class StringsTest {
     @Test
@@ -69,6 +70,14 @@ public class StringsTest {
         assertThat(lines, hasExactly("1", "2"));
     }
 
+    @Test
+    public void parsesLinesOfFilesThatReportNoSize() throws Exception {
+        File status = new File("/proc/self/status");
+        assumeTrue(status.exists());
+        assertThat(lines(status).isEmpty(), is(false));
+        assertThat(lines(write(bytes(""), temporaryFile())).isEmpty(), is(true));
+    }
+
     @Test
     public void canMapToStringFunctions() throws Exception {
         assertThat(sequence("Dan").map(toLowerCase()), hasExactly("dan"));
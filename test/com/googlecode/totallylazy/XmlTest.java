@@ -6,7 +6,10 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.w3c.dom.Document;
 
+import java.io.ByteArrayInputStream;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.googlecode.totallylazy.Sequences.repeat;
 import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
@@ -55,6 +58,35 @@ public class XmlTest {
         assertThat(Xml.selectContents(document, "descendant::foo"), is("baz"));
     }
 
+    @Test
+    public void parsesBytesUsingTheDeclaredEncoding() throws Exception {
+        byte[] latin1 = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><a>caf\u00e9</a>".getBytes("ISO-8859-1");
+        assertThat(Xml.selectContents(Xml.document(latin1), "/a"), is("caf\u00e9"));
+        assertThat(Xml.selectContents(Xml.document(new ByteArrayInputStream(Strings.bytes("<a>\u03bb</a>"))), "/a"), is("\u03bb"));
+    }
+
+    @Test
+    public void sharesCompiledExpressionsAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Sequence<Document> documents = repeat(new Callable<Document>() {
+                @Override
+                public Document call() throws Exception {
+                    return example();
+                }
+            });
+            Sequence<String> results = documents.take(200).mapConcurrently(new Callable1<Document, String>() {
+                @Override
+                public String call(Document document) throws Exception {
+                    return Xml.selectContents(document, "descendant::boo") + Xml.asString(Xml.expectElement(document, "descendant::foo"));
+                }
+            }, executor).realise();
+            assertThat(results.unique().size(), is(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private Document example() {
         return Xml.document(
                 "<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML+RDFa 1.0//EN\" \"http://www.w3.org/MarkUp/DTD/xhtml-rdfa-1.dtd\">\n" +
@@ -1,9 +1,16 @@
 package com.googlecode.totallylazy.collections;
 
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import com.googlecode.totallylazy.numbers.Numbers;
+import com.googlecode.totallylazy.Callable1;
 import com.googlecode.totallylazy.Option;
 import com.googlecode.totallylazy.Pair;
 import org.junit.Test;
 
+import static com.googlecode.totallylazy.numbers.Numbers.range;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
 import static com.googlecode.totallylazy.Option.some;
 import static com.googlecode.totallylazy.Pair.pair;
 import static com.googlecode.totallylazy.collections.AVLTree.constructors.avlTree;
@@ -54,4 +61,99 @@ public class AVLTreeTest extends MapContract {
                 empty(Integer.class, String.class).headOption(),
                 is(Option.<Pair<Integer, String>>none()));
     }
+
+    @Test
+    public void supportsUnionIntersectionAndDifference() throws Exception {
+        AVLTree<Integer, String> a = AVLTree.constructors.<Integer, String>factory().map(1, "a1", 2, "a2", 3, "a3", 5, "a5");
+        AVLTree<Integer, String> b = AVLTree.constructors.<Integer, String>factory().map(2, "b2", 4, "b4", 5, "b5");
+        assertThat(a.union(b).toSequence(), hasExactly(pair(1, "a1"), pair(2, "b2"), pair(3, "a3"), pair(4, "b4"), pair(5, "b5")));
+        assertThat(a.intersection(b).toSequence(), hasExactly(pair(2, "a2"), pair(5, "a5")));
+        assertThat(a.difference(b).toSequence(), hasExactly(pair(1, "a1"), pair(3, "a3")));
+    }
+
+    @Test
+    public void mergeWithCombinesValuesForSharedKeys() throws Exception {
+        AVLTree<String, Number> a = AVLTree.constructors.<String, Number>factory().map("Dan", 1, "Matt", 2);
+        AVLTree<String, Number> b = AVLTree.constructors.<String, Number>factory().map("Matt", 3, "Bob", 4);
+        assertThat(a.mergeWith(b, Numbers.sum()).toSequence(), hasExactly(pair("Bob", (Number) 4), pair("Dan", (Number) 1), pair("Matt", (Number) 5)));
+    }
+
+    @Test
+    public void setOperationsKeepTheTreeBalanced() throws Exception {
+        AVLTree<Integer, Integer> evens = AVLTree.constructors.<Integer, Integer>factory().map(range(0, 20000, 2).map(duplicate()));
+        AVLTree<Integer, Integer> small = AVLTree.constructors.<Integer, Integer>factory().map(range(9000, 9100).map(duplicate()));
+        assertBalanced(evens.union(small));
+        assertBalanced(evens.difference(small));
+        assertBalanced(evens.intersection(small));
+        assertThat(evens.union(small).size(), is(10051));
+        assertThat(evens.difference(small).size(), is(9950));
+        assertThat(evens.intersection(small).size(), is(51));
+    }
+
+    @Test
+    public void parallelSetOperationsMatchSequentialOnes() throws Exception {
+        AVLTree<Integer, Integer> a = AVLTree.constructors.<Integer, Integer>factory().map(range(0, 50000, 3).map(duplicate()));
+        AVLTree<Integer, Integer> b = AVLTree.constructors.<Integer, Integer>factory().map(range(0, 50000, 5).map(duplicate()));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        assertThat(TreeMap.methods.union(a, b, pool).toSequence(), is(a.union(b).toSequence()));
+        assertThat(TreeMap.methods.intersection(a, b, pool).toSequence(), is(a.intersection(b).toSequence()));
+        assertThat(TreeMap.methods.difference(a, b, pool).toSequence(), is(a.difference(b).toSequence()));
+    }
+
+    @Test
+    public void setOperationsOnTreesBuiltByInsertMatchJavaTreeMap() throws Exception {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            AVLTree<Integer, Integer> a = AVLTree.constructors.<Integer, Integer>factory().map();
+            AVLTree<Integer, Integer> b = AVLTree.constructors.<Integer, Integer>factory().map();
+            java.util.TreeMap<Integer, Integer> expectedA = new java.util.TreeMap<Integer, Integer>();
+            java.util.TreeMap<Integer, Integer> expectedB = new java.util.TreeMap<Integer, Integer>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                int key = random.nextInt(60);
+                a = a.insert(key, key);
+                expectedA.put(key, key);
+            }
+            for (int i = random.nextInt(40); i > 0; i--) {
+                int key = random.nextInt(60);
+                b = b.insert(key, -key);
+                expectedB.put(key, -key);
+            }
+            java.util.TreeMap<Integer, Integer> union = new java.util.TreeMap<Integer, Integer>(expectedA);
+            union.putAll(expectedB);
+            java.util.TreeMap<Integer, Integer> intersection = new java.util.TreeMap<Integer, Integer>(expectedA);
+            intersection.keySet().retainAll(expectedB.keySet());
+            java.util.TreeMap<Integer, Integer> difference = new java.util.TreeMap<Integer, Integer>(expectedA);
+            difference.keySet().removeAll(expectedB.keySet());
+            int key = random.nextInt(60);
+            TreeMap.methods.Split<Integer, Integer> split = TreeMap.methods.split(a, key);
+
+            assertSame(a.union(b), union);
+            assertSame(a.intersection(b), intersection);
+            assertSame(a.difference(b), difference);
+            assertSame(split.left, expectedA.headMap(key));
+            assertSame(split.right, expectedA.tailMap(key, false));
+        }
+    }
+
+    private static void assertSame(TreeMap<Integer, Integer> actual, Map<Integer, Integer> expected) {
+        assertThat(actual.size(), is(expected.size()));
+        assertThat(actual.keys(), hasExactly(expected.keySet().toArray(new Integer[0])));
+        assertThat(actual.values(), hasExactly(expected.values().toArray(new Integer[0])));
+    }
+
+    private static Callable1<Number, Pair<Integer, Integer>> duplicate() {
+        return new Callable1<Number, Pair<Integer, Integer>>() {
+            @Override
+            public Pair<Integer, Integer> call(Number number) throws Exception {
+                return pair(number.intValue(), number.intValue());
+            }
+        };
+    }
+
+    private static void assertBalanced(AVLTree<?, ?> tree) {
+        if (tree.isEmpty()) return;
+        assertThat(Math.abs(tree.balance()) <= 1, is(true));
+        assertBalanced(tree.left());
+        assertBalanced(tree.right());
+    }
 }
@@ -0,0 +1,33 @@
+package com.googlecode.totallylazy.collections;
+
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.collections.BloomFilter.bloomFilter;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class BloomFilterTest {
+    @Test
+    public void neverReportsAnAddedValueAsMissing() throws Exception {
+        BloomFilter<String> filter = bloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) filter.add("value" + i);
+        for (int i = 0; i < 10000; i++) assertThat(filter.mightContain("value" + i), is(true));
+    }
+
+    @Test
+    public void falsePositivesStayCloseToTheConfiguredRate() throws Exception {
+        BloomFilter<Integer> filter = bloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) filter.add(i);
+        int falsePositives = 0;
+        for (int i = 10000; i < 110000; i++) if (filter.mightContain(i)) falsePositives++;
+        assertThat(falsePositives, lessThan(2000));
+    }
+
+    @Test
+    public void addReportsWhetherTheValueWasDefinitelyNew() throws Exception {
+        BloomFilter<String> filter = bloomFilter(100, 0.01);
+        assertThat(filter.add("a"), is(true));
+        assertThat(filter.add("a"), is(false));
+    }
+}
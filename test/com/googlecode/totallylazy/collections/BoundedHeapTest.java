@@ -0,0 +1,27 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.comparators.Comparators;
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.Callables.length;
+import static com.googlecode.totallylazy.collections.BoundedHeap.boundedHeap;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BoundedHeapTest {
+    @Test
+    public void keepsTheLeastElementsInOrder() throws Exception {
+        BoundedHeap<Integer> heap = boundedHeap(3, Comparators.<Integer>ascending());
+        for (int value : new int[]{8, 3, 5, 1, 9, 4}) heap.add(value);
+        assertThat(heap.toList(), hasExactly(1, 3, 4));
+    }
+
+    @Test
+    public void mergingKeepsTiesInAdditionOrder() throws Exception {
+        BoundedHeap<String> first = boundedHeap(3, Comparators.<String, Integer>ascending(length()));
+        first.add("aa").add("b").add("cc");
+        BoundedHeap<String> second = boundedHeap(3, Comparators.<String, Integer>ascending(length()));
+        second.add("d").add("ee").add("fff");
+        assertThat(first.merge(second).toList(), hasExactly("b", "d", "aa"));
+    }
+}
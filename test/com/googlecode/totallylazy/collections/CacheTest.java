@@ -0,0 +1,165 @@
+package com.googlecode.totallylazy.collections;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Callable2;
+import com.googlecode.totallylazy.Function1;
+import com.googlecode.totallylazy.time.Seconds;
+import com.googlecode.totallylazy.time.SettableClock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.collections.Cache.cache;
+import static com.googlecode.totallylazy.collections.Cache.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class CacheTest {
+    @Test
+    public void evictsLeastRecentlyUsedWhenFull() throws Exception {
+        Cache<Integer, String> cache = cache(options().maximumSize(2).concurrency(1));
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+        assertThat(cache.get(2), is(none(String.class)));
+        assertThat(cache.get(1), is(some("one")));
+        assertThat(cache.get(3), is(some("three")));
+        assertThat(cache.statistics().evictions, is(1L));
+    }
+
+    @Test
+    public void boundsByWeight() throws Exception {
+        Cache<String, String> cache = cache(options().concurrency(1).maximumWeight(10, new Callable2<String, String, Integer>() {
+            @Override
+            public Integer call(String key, String value) throws Exception {
+                return value.length();
+            }
+        }));
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        cache.put("c", "123");
+        assertThat(cache.weight(), is(7L));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void expiresAfterWriteAndAccessUsingTheClock() throws Exception {
+        SettableClock clock = new SettableClock();
+        Cache<String, String> written = cache(options().expireAfterWrite(10, TimeUnit.SECONDS).clock(clock));
+        Cache<String, String> accessed = cache(options().expireAfterAccess(10, TimeUnit.SECONDS).clock(clock));
+        written.put("key", "value");
+        accessed.put("key", "value");
+        clock.now(Seconds.add(clock.now(), 6));
+        assertThat(written.get("key"), is(some("value")));
+        assertThat(accessed.get("key"), is(some("value")));
+        clock.now(Seconds.add(clock.now(), 6));
+        assertThat(written.get("key"), is(none(String.class)));
+        assertThat(accessed.get("key"), is(some("value")));
+    }
+
+    @Test
+    public void expiresInWriteOrderWhenEntriesAreRewritten() throws Exception {
+        SettableClock clock = new SettableClock();
+        Cache<String, String> cache = cache(options().expireAfterWrite(10, TimeUnit.SECONDS).concurrency(1).clock(clock));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        clock.now(Seconds.add(clock.now(), 6));
+        cache.put("a", "3");
+        assertThat(cache.get("key", new Callable1<String, String>() {
+            @Override
+            public String call(String key) throws Exception {
+                return "loaded";
+            }
+        }), is("loaded"));
+        clock.now(Seconds.add(clock.now(), 6));
+        cache.cleanUp();
+        assertThat(cache.size(), is(2));
+        assertThat(cache.get("a"), is(some("3")));
+        assertThat(cache.get("b"), is(none(String.class)));
+        clock.now(Seconds.add(clock.now(), 6));
+        cache.cleanUp();
+        assertThat(cache.size(), is(0));
+        assertThat(cache.statistics().evictions, is(3L));
+    }
+
+    @Test
+    public void loadsEachKeyOnlyOnceUnderContention() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Cache<String, Integer> cache = cache();
+        final Callable1<String, Integer> slow = new Callable1<String, Integer>() {
+            @Override
+            public Integer call(String key) throws Exception {
+                Thread.sleep(50);
+                return calls.incrementAndGet();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        return cache.get("key", slow);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) assertThat(result.get(), is(1));
+            assertThat(calls.get(), is(1));
+            assertThat(cache.statistics().loads, is(1L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failedLoadsAreNotCached() throws Exception {
+        Cache<String, String> cache = cache();
+        try {
+            cache.get("key", new Callable1<String, String>() {
+                @Override
+                public String call(String key) throws Exception {
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertThat(cache.size(), is(0));
+        assertThat(cache.statistics().failures, is(1L));
+    }
+
+    @Test
+    public void memorisesFunctionsAndTracksHitRate() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        Cache<Integer, Integer> cache = cache(100);
+        Function1<Integer, Integer> square = cache.memorise(new Callable1<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) throws Exception {
+                calls.incrementAndGet();
+                return value * value;
+            }
+        });
+        assertThat(square.call(3), is(9));
+        assertThat(square.call(3), is(9));
+        assertThat(square.call(4), is(16));
+        assertThat(calls.get(), is(2));
+        assertThat(cache.statistics().hits, is(1L));
+        assertThat(cache.statistics().misses, is(2L));
+    }
+}
@@ -0,0 +1,81 @@
+package com.googlecode.totallylazy.collections;
+
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class HashTrieMapTest extends MapContract {
+    @Override
+    protected <K extends Comparable<K>, V> MapFactory<K, V, ? extends PersistentMap<K, V>> factory() {
+        return HashTrieMap.<K, V>factory();
+    }
+
+    @Test
+    public void supportsKeysWithCollidingHashCodes() throws Exception {
+        PersistentMap<Colliding, String> map = HashTrieMap.<Colliding, String>hashTrieMap().
+                insert(new Colliding("a"), "A").insert(new Colliding("b"), "B").insert(new Colliding("c"), "C");
+        assertThat(map.size(), is(3));
+        assertThat(map.lookup(new Colliding("b")), is(some("B")));
+        PersistentMap<Colliding, String> deleted = map.delete(new Colliding("a")).delete(new Colliding("c"));
+        assertThat(deleted.size(), is(1));
+        assertThat(deleted.lookup(new Colliding("a")), is(none(String.class)));
+        assertThat(deleted.lookup(new Colliding("b")), is(some("B")));
+    }
+
+    @Test
+    public void supportsLargeNumbersOfKeys() throws Exception {
+        PersistentMap<Integer, Integer> map = HashTrieMap.hashTrieMap();
+        for (int i = 0; i < 100000; i++) map = map.insert(i * 31, i);
+        assertThat(map.size(), is(100000));
+        for (int i = 0; i < 100000; i++) assertThat(map.get(i * 31), is(i));
+        for (int i = 0; i < 100000; i += 2) map = map.delete(i * 31);
+        assertThat(map.size(), is(50000));
+        assertThat(map.contains(2 * 31), is(false));
+        assertThat(map.lookup(3 * 31), is(some(3)));
+        assertThat(map.toSequence().size(), is(50000));
+    }
+
+    private static class Colliding {
+        private final String value;
+
+        private Colliding(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Colliding && ((Colliding) other).value.equals(value);
+        }
+    }
+
+    @Test
+    public void transientMutatesWithoutAffectingTheOriginal() throws Exception {
+        PersistentMap<Integer, String> original = HashTrieMap.<Integer, String>hashTrieMap().insert(1, "one").insert(2, "two");
+        TransientMap<Integer, String> map = original.transientMap();
+        for (int i = 0; i < 1000; i++) map.insert(i, String.valueOf(i));
+        map.delete(2);
+        assertThat(map.size(), is(999));
+        PersistentMap<Integer, String> result = map.persistent();
+        assertThat(result.size(), is(999));
+        assertThat(result.lookup(1), is(some("1")));
+        assertThat(result.lookup(2), is(none(String.class)));
+        assertThat(original.size(), is(2));
+        assertThat(original.lookup(1), is(some("one")));
+        assertThat(original.lookup(2), is(some("two")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void transientCanNotBeUsedAfterBeingMadePersistent() throws Exception {
+        TransientMap<Integer, String> map = HashTrieMap.<Integer, String>hashTrieMap().transientMap();
+        map.persistent();
+        map.insert(1, "one");
+    }
+}
@@ -0,0 +1,33 @@
+package com.googlecode.totallylazy.collections;
+
+import org.junit.Test;
+
+import static com.googlecode.totallylazy.Option.none;
+import static com.googlecode.totallylazy.Option.some;
+import static com.googlecode.totallylazy.collections.PersistentSet.constructors.set;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+public class HashTrieSetTest {
+    @Test
+    public void ignoresDuplicates() throws Exception {
+        PersistentSet<String> set = set("Dan", "Matt", "Dan");
+        assertThat(set.size(), is(2));
+        assertThat(set, containsInAnyOrder("Dan", "Matt"));
+    }
+
+    @Test
+    public void supportsLookupAndDelete() throws Exception {
+        PersistentSet<Integer> set = set(1, 2, 3);
+        assertThat(set.lookup(2), is(some(2)));
+        assertThat(set.delete(2).lookup(2), is(none(Integer.class)));
+        assertThat(set.delete(2).contains(3), is(true));
+    }
+
+    @Test
+    public void isEqualToOtherSetsWithTheSameValues() throws Exception {
+        assertThat(set(1, 2, 3), is(set(3, 2, 1)));
+        assertThat(set(1, 2, 3).equals(set(1, 2)), is(false));
+    }
+}
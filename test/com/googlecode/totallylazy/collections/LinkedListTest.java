@@ -195,4 +195,11 @@ public class LinkedListTest {
         assertThat(empty(Integer.class).headOption(), is(none(Integer.class)));
     }
 
+    @Test
+    public void transientAppendsAfterExistingElements() throws Exception {
+        TransientList<Integer> list = list(1, 2).transientList();
+        list.append(3).append(4);
+        assertThat(list.size(), is(4));
+        assertThat(list.persistent(), hasExactly(1, 2, 3, 4));
+    }
 }
@@ -195,4 +195,47 @@ public class PersistentSortedMapTest {
     public void supportsMappingValues() throws Exception {
         assertThat(sortedMap("Dan", 2).map(add(2)), is(sortedMap("Dan", (Number) 4)));
     }
+
+    @Test
+    public void transientBuildsABalancedTreeInOrder() throws Exception {
+        TransientMap<Integer, String> map = sortedMap(2, "Two").transientMap();
+        map.insert(3, "Three").insert(1, "One").insert(2, "Deux").delete(3);
+        PersistentMap<Integer, String> result = map.persistent();
+        assertThat(result.keys(), hasExactly(1, 2));
+        assertThat(result.lookup(2), is(some("Deux")));
+    }
+
+    @Test
+    public void transientOfAnExistingTreeAppliesFewAndManyEdits() throws Exception {
+        PersistentSortedMap<Integer, Integer> original = sortedMap(range(0, 999).safeCast(Integer.class).map(asPair()));
+        for (int edits : new int[]{3, 600}) {
+            TransientMap<Integer, Integer> map = original.transientMap();
+            java.util.TreeMap<Integer, Integer> expected = new java.util.TreeMap<Integer, Integer>();
+            for (Pair<Integer, Integer> pair : original) expected.put(pair.first(), pair.second());
+            for (int i = 0; i < edits; i++) {
+                int key = (i * 7919) % 1500;
+                if (i % 3 == 0) {
+                    map.delete(key);
+                    expected.remove(key);
+                } else {
+                    map.insert(key, -key);
+                    expected.put(key, -key);
+                }
+            }
+            assertThat(map.size(), is(expected.size()));
+            assertThat(map.lookup(7919 % 1500), is(Option.option(expected.get(7919 % 1500))));
+            PersistentMap<Integer, Integer> result = map.persistent();
+            assertThat(result.keys(), hasExactly(expected.keySet().toArray(new Integer[0])));
+            assertThat(result.values(), hasExactly(expected.values().toArray(new Integer[0])));
+        }
+        assertThat(original.size(), is(1000));
+        assertThat(original.lookup(0), is(some(0)));
+    }
+
+    @Test
+    public void constructingFromDuplicateKeysKeepsTheLastValue() throws Exception {
+        PersistentSortedMap<Integer, String> map = sortedMap(sequence(pair(1, "a"), pair(2, "b"), pair(1, "c")));
+        assertThat(map.size(), is(2));
+        assertThat(map.lookup(1), is(some("c")));
+    }
 }
@@ -71,4 +71,13 @@ public class PersistentSortedSetTest {
         assertThat(get(1).call(sortedSet(1, 2, 3)), is(some(1)));
         assertThat(get(5).call(sortedSet(1, 2, 3)), is(none(Integer.class)));
     }
+
+    @Test
+    public void supportsSetAlgebra() throws Exception {
+        PersistentSortedSet<Integer> a = sortedSet(1, 2, 3, 4);
+        PersistentSortedSet<Integer> b = sortedSet(3, 4, 5);
+        assertThat(a.union(b), hasExactly(1, 2, 3, 4, 5));
+        assertThat(a.intersection(b), hasExactly(3, 4));
+        assertThat(a.difference(b), hasExactly(1, 2));
+    }
 }
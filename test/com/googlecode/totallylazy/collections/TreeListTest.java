@@ -68,4 +68,11 @@ public class TreeListTest {
     public void supportsRemoveAll() throws Exception {
         assertThat(treeList(1, 2, 3, 4, 5, 6).deleteAll(sequence(3, 4)), hasExactly(1, 2, 5, 6));
     }
+
+    @Test
+    public void transientAppendsAfterExistingElements() throws Exception {
+        TransientList<String> list = treeList("Dan").cons("Matt").transientList();
+        list.append("Bob").append("Ray");
+        assertThat(list.persistent(), hasExactly("Matt", "Dan", "Bob", "Ray"));
+    }
 }
@@ -0,0 +1,150 @@
+package com.googlecode.totallylazy.concurrent;
+
+import com.googlecode.totallylazy.Callers;
+import com.googlecode.totallylazy.Mapper;
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.numbers.Numbers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ConcurrencyTest {
+    @Test
+    public void sharesOneExecutorAcrossCalls() throws Exception {
+        String first = Callers.callConcurrently(threadName()).call();
+        String second = Callers.callConcurrently(threadName()).call();
+        assertThat(first.startsWith(Concurrency.class.getName()) || Concurrency.executor().getClass().getName().contains("ThreadPerTask"), is(true));
+        assertThat(Concurrency.executor() == Concurrency.executor(), is(true));
+        assertThat(second.isEmpty(), is(false));
+    }
+
+    @Test
+    public void boundedExecutorLimitsParallelism() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        Executor executor = Concurrency.bounded(Concurrency.workStealing(8), 2);
+        Sequence<Integer> result = numbers(20).mapConcurrently(new Mapper<Integer, Integer>() {
+            @Override
+            public Integer call(Integer value) throws Exception {
+                int now = running.incrementAndGet();
+                while (true) {
+                    int max = maximum.get();
+                    if (now <= max || maximum.compareAndSet(max, now)) break;
+                }
+                try {
+                    Thread.sleep(5);
+                    return value * 2;
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        }, executor);
+        assertThat(result.take(3), hasExactly(2, 4, 6));
+        assertThat(result.size(), is(20));
+        assertThat(maximum.get() <= 2, is(true));
+    }
+
+    @Test
+    public void stoppingEarlyCancelsOutstandingTasks() throws Exception {
+        final AtomicInteger started = new AtomicInteger();
+        Executor executor = Concurrency.bounded(Concurrency.executor(), 1);
+        Callable<Integer> task = new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                Thread.sleep(5);
+                return started.incrementAndGet();
+            }
+        };
+        Sequence<Integer> result = Callers.callConcurrently(Collections.nCopies(100, task), executor);
+        assertThat(result.take(2).size(), is(2));
+        Thread.sleep(50);
+        assertThat(started.get() < 100, is(true));
+    }
+
+    @Test
+    public void iteratingAgainAfterStoppingEarlyRunsEachTaskOnce() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Concurrency.workStealing(4);
+        Callable<Integer> task = new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                int call = calls.incrementAndGet();
+                Thread.sleep(20);
+                return call;
+            }
+        };
+        Sequence<Integer> result = Callers.callConcurrently(Collections.nCopies(12, task), executor);
+        assertThat(result.take(1).size(), is(1));
+        assertThat(result.size(), is(12));
+        assertThat(result.unique().size(), is(12));
+        assertThat(calls.get(), is(12));
+        executor.shutdown();
+    }
+
+    @Test
+    public void nestedCallsDoNotStarveASingleThreadedPool() throws Exception {
+        final ExecutorService pool = Concurrency.workStealing(1);
+        Sequence<Integer> outer = Callers.callConcurrently(sequence(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return Callers.callConcurrently(sequence(constant(1), constant(2)), pool).reduce(Numbers.sum()).intValue();
+            }
+        }), pool);
+        assertThat(outer, hasExactly(3));
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void virtualThreadsAreUsedWhenAvailable() throws Exception {
+        Option<ExecutorService> virtual = Concurrency.virtualThreads();
+        if (virtual.isEmpty()) return;
+        final CountDownLatch latch = new CountDownLatch(1);
+        virtual.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        assertThat(latch.await(1, TimeUnit.SECONDS), is(true));
+        virtual.get().shutdown();
+    }
+
+    private static Sequence<Integer> numbers(int count) {
+        List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 1; i <= count; i++) numbers.add(i);
+        return sequence(numbers);
+    }
+
+    private static Callable<Integer> constant(final int value) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return value;
+            }
+        };
+    }
+
+    private static Callable<String> threadName() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return Thread.currentThread().getName();
+            }
+        };
+    }
+}
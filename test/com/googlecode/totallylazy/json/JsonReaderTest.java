@@ -0,0 +1,135 @@
+package com.googlecode.totallylazy.json;
+
+import com.googlecode.totallylazy.Pair;
+import com.googlecode.totallylazy.Segment;
+import com.googlecode.totallylazy.Sequence;
+import com.googlecode.totallylazy.matchers.NumberMatcher;
+import com.googlecode.totallylazy.parser.Result;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.googlecode.totallylazy.Strings.bytes;
+import static com.googlecode.totallylazy.json.JsonReader.NumberMode.doubles;
+import static com.googlecode.totallylazy.json.JsonReader.NumberMode.primitive;
+import static com.googlecode.totallylazy.json.JsonReader.jsonReader;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonReaderTest {
+    @Test
+    public void pullsTokensOneAtATime() throws Exception {
+        JsonReader reader = jsonReader("{\"name\" : \"Dan\", \"tags\" : [true, null, 1.5]}");
+        reader.beginObject();
+        assertThat(reader.nextName(), is("name"));
+        assertThat(reader.nextString(), is("Dan"));
+        assertThat(reader.nextName(), is("tags"));
+        reader.beginArray();
+        assertThat(reader.nextBoolean(), is(true));
+        assertThat(reader.nextNull(), is(nullValue()));
+        assertThat(reader.peek(), is(JsonReader.Token.number));
+        assertThat(reader.nextDouble(), is(1.5));
+        assertThat(reader.hasNext(), is(false));
+        reader.endArray();
+        reader.endObject();
+        assertThat(reader.peek(), is(JsonReader.Token.end));
+    }
+
+    @Test
+    public void defaultsToBigDecimalNumbers() throws Exception {
+        List<Object> numbers = Json.list("[1, -2, 12.30, 1e3]");
+        assertThat(numbers.get(0), is((Object) BigDecimal.valueOf(1)));
+        assertThat(numbers.get(1), is((Object) BigDecimal.valueOf(-2)));
+        assertThat(numbers.get(2), is((Object) new BigDecimal("12.30")));
+        assertThat(numbers.get(3), is((Object) new BigDecimal("1e3")));
+    }
+
+    @Test
+    public void supportsPrimitiveNumberModes() throws Exception {
+        List<Object> primitives = Json.list(jsonReader("[1, -2, 12.5, 12345678901234567890]").numbers(primitive));
+        assertThat(primitives.get(0), is((Object) 1L));
+        assertThat(primitives.get(1), is((Object) (-2L)));
+        assertThat(primitives.get(2), is((Object) 12.5));
+        assertThat(primitives.get(3), instanceOf(Double.class));
+
+        List<Object> floating = Json.list(jsonReader("[1, 2.5]").numbers(doubles));
+        assertThat(floating.get(0), is((Object) 1.0));
+        assertThat(floating.get(1), is((Object) 2.5));
+
+        assertThat(jsonReader("9007199254740993").nextLong(), is(9007199254740993L));
+    }
+
+    @Test
+    public void keepsNineteenDigitLongsExactInPrimitiveMode() throws Exception {
+        List<Object> longs = Json.list(jsonReader("[1234567890123456789, 9223372036854775807, -9223372036854775808, 9223372036854775808]").numbers(primitive));
+        assertThat(longs.get(0), is((Object) 1234567890123456789L));
+        assertThat(longs.get(1), is((Object) Long.MAX_VALUE));
+        assertThat(longs.get(2), is((Object) Long.MIN_VALUE));
+        assertThat(longs.get(3), instanceOf(Double.class));
+    }
+
+    @Test
+    public void parsesBytesAsUtf8() throws Exception {
+        Map<String, Object> map = Json.map(jsonReader(bytes("{\"text\":\"λ \\u03BB\"}")));
+        assertThat((String) map.get("text"), is("λ λ"));
+    }
+
+    @Test
+    public void readsTokensThatSpanBufferBoundaries() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) json.append(i == 0 ? "" : ",").append("{\"key\\t").append(i).append("\":").append(i).append(".25}");
+        json.append("]");
+        List<Object> list = Json.list(jsonReader(new OneCharacterAtATime(json.toString())));
+        assertThat(list.size(), is(5000));
+        Map<?, ?> last = (Map<?, ?>) list.get(4999);
+        assertThat((Number) last.get("key\t4999"), NumberMatcher.is(4999.25));
+    }
+
+    @Test
+    public void reportsFailuresWithExpectedAndActual() throws Exception {
+        assertThat(Json.parseMap("{\"foo\" 1}").message(), is("':' expected, '1' encountered."));
+        assertThat(Json.parseList("[1, 2").message(), is("',' or ']' expected, end of input encountered."));
+        assertThat(Json.parseObject("nope").failure(), is(true));
+    }
+
+    @Test
+    public void streamsPairsSeparatedByCommas() throws Exception {
+        assertThat(Json.<Number>pairs(new StringReader("{\"a\":1, \"b\":2}")).map(com.googlecode.totallylazy.Callables.<Number>second()).size(), is(2));
+    }
+
+    @Test
+    public void remainderOfAStreamedSequenceStartsAfterItsClosingBracket() throws Exception {
+        Result<Sequence<Number>> consumed = Json.parseSequence(new StringReader("[1,2,3] tail"));
+        assertThat(consumed.value().size(), is(3));
+        assertThat(Segment.methods.toString(consumed.remainder(), ""), is(" tail"));
+
+        Result<Sequence<Pair<String, Number>>> unconsumed = Json.parsePairs(new StringReader("{\"a\":1, \"b\":[2]} tail"));
+        assertThat(Segment.methods.toString(unconsumed.remainder(), ""), is(" tail"));
+    }
+
+    private static class OneCharacterAtATime extends Reader {
+        private final String value;
+        private int index;
+
+        private OneCharacterAtATime(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (index == value.length()) return -1;
+            buffer[offset] = value.charAt(index++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -78,5 +78,48 @@ public class JsonWriterTest {
         assertThat(actual, is("{\"one\":1,\"two\":2}"));
         assertThat(actual, is(Json.json(values)));
     }
-}
 
+    @Test
+    public void writesArrays() throws Exception {
+        assertThat(Json.json(new Object[]{"a", 1, null}), is("[\"a\",1,null]"));
+        assertThat(Json.json(new int[]{1, 2, 3}), is("[1,2,3]"));
+        assertThat(Json.json(new double[0]), is("[]"));
+    }
+
+    @Test
+    public void escapesControlCharacters() throws Exception {
+        assertThat(Json.json("tab\tform\fbell\u0007"), is("\"tab\\tform\\fbell\\u0007\""));
+        assertThat(Json.<String>list(Json.json(sequence("\u0001\\\""))).get(0), is("\u0001\\\""));
+    }
+
+    @Test
+    public void supportsCustomSerializers() throws Exception {
+        JsonWriter.register(Money.class, new Serializer<Money>() {
+            @Override
+            public void write(Money value, Appendable appendable) throws Exception {
+                JsonWriter.write((Object) sortedMap("amount", (Object) value.amount, "currency", "GBP"), appendable);
+            }
+        });
+        try {
+            assertThat(Json.json(list(new Money(10))), is("[{\"amount\":10,\"currency\":\"GBP\"}]"));
+            assertThat(Json.json(new Pennies(5)), is("{\"amount\":5,\"currency\":\"GBP\"}"));
+        } finally {
+            JsonWriter.unregister(Money.class);
+        }
+        assertThat(Json.json(new Pennies(5)).contains("GBP"), is(false));
+    }
+
+    private static class Money {
+        private final int amount;
+
+        private Money(int amount) {
+            this.amount = amount;
+        }
+    }
+
+    private static class Pennies extends Money {
+        private Pennies(int amount) {
+            super(amount);
+        }
+    }
+}
@@ -201,4 +201,31 @@ public class multiTest {
         }
         assertThat(new Instance().process((Object)1.0f), is("Float"));
     }
+
+    @Test
+    public void keepsDispatchingCorrectlyOnceManyArgumentTypesHaveBeenSeen() throws Exception {
+        Object[] values = {"a", 1, 1L, 1.0, 1.0f, (short) 1, (byte) 1, 'c', new StringBuilder("b"), new HashMap<String, String>(), true, null};
+        for (int i = 0; i < 3; i++) {
+            for (Object value : values) {
+                String expected = value instanceof CharSequence ? "CharSequence processed" : value instanceof Integer ? "Integer processed" : "No match found";
+                assertThat(ManyTypes.process(value), is(expected));
+            }
+        }
+    }
+
+    public static class ManyTypes {
+        public static String process(Object o) { return new multi(){}.<String>methodOption(o).getOrElse("No match found"); }
+        @multimethod static String process(CharSequence s) { return "CharSequence processed"; }
+        @multimethod static String process(Integer s) { return "Integer processed"; }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void propagatesRuntimeExceptionsFromTheTargetMethod() throws Exception {
+        Throws.process("boom");
+    }
+
+    public static class Throws {
+        public static String process(Object o) { return new multi(){}.method(o); }
+        @multimethod static String process(String s) { throw new IllegalStateException(s); }
+    }
 }
@@ -0,0 +1,42 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.numbers.DoubleSequence.doubles;
+import static com.googlecode.totallylazy.numbers.DoubleSequence.range;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DoubleSequenceTest {
+    @Test
+    public void supportsRangeWithFractionalStep() throws Exception {
+        assertThat(range(0, 1, 0.25), hasExactly(0.0, 0.25, 0.5, 0.75, 1.0));
+    }
+
+    @Test
+    public void supportsAggregates() throws Exception {
+        DoubleSequence values = doubles(1.5, -2.0, 4.5);
+        assertThat(values.sum(), is(4.0));
+        assertThat(values.minimum(), is(-2.0));
+        assertThat(values.maximum(), is(4.5));
+        assertThat(IntSequence.ints(1, 2, 3).average(), is(2.0));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void maximumOfNothingIsAnError() throws Exception {
+        doubles().maximum();
+    }
+
+    @Test
+    public void supportsRollingAggregates() throws Exception {
+        DoubleSequence values = doubles(4, 1, 3, 5, 2, 2);
+        assertThat(values.rollingSum(3), hasExactly(8.0, 9.0, 10.0, 9.0));
+        assertThat(values.rollingAverage(2), hasExactly(2.5, 2.0, 4.0, 3.5, 2.0));
+        assertThat(values.rollingMinimum(3), hasExactly(1.0, 1.0, 2.0, 2.0));
+        assertThat(values.rollingMaximum(3), hasExactly(4.0, 5.0, 5.0, 5.0));
+        assertThat(doubles(1, 2).rollingSum(3).isEmpty(), is(true));
+    }
+}
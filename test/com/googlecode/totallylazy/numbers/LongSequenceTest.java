@@ -0,0 +1,81 @@
+package com.googlecode.totallylazy.numbers;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static com.googlecode.totallylazy.Sequences.sequence;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.startsWith;
+import static com.googlecode.totallylazy.numbers.LongSequence.longs;
+import static com.googlecode.totallylazy.numbers.LongSequence.range;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LongSequenceTest {
+    @Test
+    public void supportsRange() throws Exception {
+        assertThat(range(0), startsWith(0L, 1L, 2L, 3L));
+        assertThat(range(1, 5), hasExactly(1L, 2L, 3L, 4L, 5L));
+        assertThat(range(5, 1), hasExactly(5L, 4L, 3L, 2L, 1L));
+        assertThat(range(0, 5, 2), hasExactly(0L, 2L, 4L));
+        assertThat(range(4, 0, -2), hasExactly(4L, 2L, 0L));
+        assertThat(range(1, 0, 1).isEmpty(), is(true));
+    }
+
+    @Test
+    public void rangesNearTheLimitsDoNotOverflow() throws Exception {
+        assertThat(range(Long.MIN_VALUE + 1, Long.MAX_VALUE).take(3), hasExactly(Long.MIN_VALUE + 1, Long.MIN_VALUE + 2, Long.MIN_VALUE + 3));
+        assertThat(range(Long.MAX_VALUE - 2, Long.MAX_VALUE), hasExactly(Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE));
+        assertThat(range(Long.MIN_VALUE + 2, Long.MIN_VALUE), hasExactly(Long.MIN_VALUE + 2, Long.MIN_VALUE + 1, Long.MIN_VALUE));
+        assertThat(range(Long.MIN_VALUE, Long.MIN_VALUE + 4, 3), hasExactly(Long.MIN_VALUE, Long.MIN_VALUE + 3));
+        assertThat(IntSequence.range(-2000000000, 2000000000).take(3), hasExactly(-2000000000, -1999999999, -1999999998));
+        assertThat(IntSequence.range(Integer.MAX_VALUE - 1, Integer.MAX_VALUE), hasExactly(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+        assertThat(IntSequence.range(2000000000, -2000000000).take(2), hasExactly(2000000000, 1999999999));
+    }
+
+    @Test
+    public void supportsMapFilterAndFold() throws Exception {
+        LongSequence evensDoubled = range(1, 10).filter(new LongPredicate() {
+            @Override
+            public boolean matches(long value) {
+                return value % 2 == 0;
+            }
+        }).map(new LongUnary() {
+            @Override
+            public long call(long value) {
+                return value * 2;
+            }
+        });
+        assertThat(evensDoubled, hasExactly(4L, 8L, 12L, 16L, 20L));
+        assertThat(evensDoubled.fold(0, new LongBinary() {
+            @Override
+            public long call(long a, long b) {
+                return a + b;
+            }
+        }), is(60L));
+    }
+
+    @Test
+    public void supportsAggregates() throws Exception {
+        LongSequence values = longs(3, 1, 4, 1, 5);
+        assertThat(values.sum(), is(14L));
+        assertThat(values.minimum(), is(1L));
+        assertThat(values.maximum(), is(5L));
+        assertThat(values.average(), is(2.8));
+        assertThat(values.size(), is(5));
+        assertThat(range(1, 100000000).sum(), is(5000000050000000L));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void minimumOfNothingIsAnError() throws Exception {
+        longs().minimum();
+    }
+
+    @Test
+    public void convertsToAndFromSequenceOfNumber() throws Exception {
+        assertThat(longs(sequence(1, 2L, 3.0)).toArray(), is(new long[]{1, 2, 3}));
+        assertThat(range(1, 3).toSequence(), hasExactly((Number) 1L, 2L, 3L));
+        assertThat(range(1).take(3).toArray(), is(new long[]{1, 2, 3}));
+    }
+}
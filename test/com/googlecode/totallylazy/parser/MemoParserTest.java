@@ -0,0 +1,88 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.Callable1;
+import com.googlecode.totallylazy.Pair;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.googlecode.totallylazy.Segment.constructors.characters;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.Parsers.or;
+import static com.googlecode.totallylazy.parser.Parsers.string;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MemoParserTest {
+    @Test
+    public void reusesResultsForTheSameParserAndOffset() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Parser<String> prefix = string("ab").map(counting(calls)).memoise();
+        Parser<Pair<String, String>> parser = or(prefix.then(string("c")), prefix.then(string("d")));
+        Memo memo = Memo.memo();
+
+        Result<Pair<String, String>> result = parser.parse("abd", memo);
+
+        assertThat(result.value(), is(Pair.pair("ab", "d")));
+        assertThat(calls.get(), is(1));
+        assertThat(memo.hits(), is(1L));
+        assertThat(memo.misses(), is(1L));
+        assertThat(memo.hitRate(), is(0.5));
+    }
+
+    @Test
+    public void memoisesFailures() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Parser<String> prefix = string("ab").map(counting(calls)).memoise();
+        Parser<Pair<String, String>> parser = or(prefix.then(string("c")), prefix.then(string("d")));
+        Memo memo = Memo.memo();
+
+        assertThat(parser.parse("axy", memo).failure(), is(true));
+        assertThat(calls.get(), is(0));
+        assertThat(memo.hits(), is(1L));
+        assertThat(memo.size(), is(1));
+    }
+
+    @Test
+    public void doesNotReuseResultsAcrossInputs() throws Exception {
+        Parser<String> word = Parsers.pattern("[a-z]+").memoise();
+        Memo memo = Memo.memo();
+
+        assertThat(word.parse("abc", memo).value(), is("abc"));
+        assertThat(word.parse("xyz", memo).value(), is("xyz"));
+        assertThat(word.parse("123", memo).failure(), is(true));
+        assertThat(memo.size(), is(1));
+    }
+
+    @Test
+    public void isTransparentWithoutAMemo() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Parser<String> prefix = string("ab").map(counting(calls)).memoise();
+        Parser<Pair<String, String>> parser = or(prefix.then(string("c")), prefix.then(string("d")));
+
+        Result<Pair<String, String>> result = parser.parse("abde");
+
+        assertThat(result.value(), is(Pair.pair("ab", "d")));
+        assertThat(result.remainder(), is(characters("e")));
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void worksWithReaders() throws Exception {
+        Parser<String> prefix = string("ab").memoise();
+        Memo memo = Memo.memo();
+        Result<Pair<String, String>> result = or(prefix.then(string("c")), prefix.then(string("d"))).parse(new StringReader("abd"), memo);
+        assertThat(result.value(), is(Pair.pair("ab", "d")));
+        assertThat(memo.hits(), is(1L));
+    }
+
+    private static Callable1<String, String> counting(final AtomicInteger calls) {
+        return new Callable1<String, String>() {
+            @Override
+            public String call(String value) throws Exception {
+                calls.incrementAndGet();
+                return value;
+            }
+        };
+    }
+}
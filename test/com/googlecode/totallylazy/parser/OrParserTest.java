@@ -1,9 +1,15 @@
 package com.googlecode.totallylazy.parser;
 
+import com.googlecode.totallylazy.Option;
+import com.googlecode.totallylazy.Segment;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static com.googlecode.totallylazy.Segment.constructors.characters;
 import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.Parsers.isChar;
 import static com.googlecode.totallylazy.parser.Parsers.or;
 import static com.googlecode.totallylazy.parser.StringParser.string;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -24,4 +30,55 @@ public class OrParserTest {
         assertThat(result1.value(), is("bar"));
         assertThat(result1.remainder(), is(characters("t")));
     }
+
+    @Test
+    public void onlyRunsAlternativesThatCanStartWithTheNextCharacter() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Parser<String> parser = or(counting(string("foo"), calls), counting(string("bar"), calls), counting(string("baz"), calls));
+        assertThat(parser.parse("baz").value(), is("baz"));
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void failsWithoutRunningAnyAlternativeWhenNoneCanStart() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Parser<String> parser = or(counting(string("foo"), calls), counting(string("bar"), calls));
+        Result<String> result = parser.parse("qux");
+        assertThat(result.failure(), is(true));
+        assertThat(calls.get(), is(0));
+        assertThat(result.message(), is("one of \"bf\" expected, q encountered."));
+    }
+
+    @Test
+    public void stillTriesAlternativesThatCanMatchNothing() throws Exception {
+        Parser<Object> parser = Parsers.<Object>or(string("foo"), isChar('x').optional());
+        assertThat(parser.parse("").value(), is((Object) Option.none()));
+        assertThat(parser.parse("bar").value(), is((Object) Option.none()));
+    }
+
+    @Test
+    public void supportsCharactersOutsideAscii() throws Exception {
+        Parser<String> parser = or(string("\u00e9t\u00e9"), string("hiver"));
+        assertThat(parser.parse("\u00e9t\u00e9").value(), is("\u00e9t\u00e9"));
+    }
+
+    private static Parser<String> counting(final Parser<String> parser, final AtomicInteger calls) {
+        return new Parser<String>() {
+            @Override
+            public Result<String> parse(Segment<Character> characters) {
+                calls.incrementAndGet();
+                return parser.parse(characters);
+            }
+
+            @Override
+            First first(Set<Parse<?>> visiting) {
+                return First.of(parser, visiting);
+            }
+
+            @Override
+            public String toString() {
+                return parser.toString();
+            }
+        };
+    }
 }
@@ -1,6 +1,5 @@
 package com.googlecode.totallylazy.parser;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -43,7 +42,6 @@ public class PatternParserTest {
     }
 
     @Test
-    @Ignore("Not sure if this possible")
     public void canWorkWithPatternsEndingWithStar() throws Exception {
         Result<String> result = pattern("[a-zA-Z][_0-9a-zA-Z]*").parse("hello");
         assertThat(result.value(), is("hello"));
@@ -51,7 +49,6 @@ public class PatternParserTest {
     }
 
     @Test
-    @Ignore("Not sure if this possible")
     public void doesNotConsumeMoreThanItShouldWithStar() throws Exception {
         Result<String> result = pattern("[a-zA-Z][_0-9a-zA-Z]*").parse("hello world");
         assertThat(result.value(), is("hello"));
@@ -0,0 +1,108 @@
+package com.googlecode.totallylazy.parser;
+
+import com.googlecode.totallylazy.json.Grammar;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.googlecode.totallylazy.Lists.list;
+import static com.googlecode.totallylazy.Segment.constructors.characters;
+import static com.googlecode.totallylazy.Sequences.repeat;
+import static com.googlecode.totallylazy.Strings.UTF8;
+import static com.googlecode.totallylazy.Strings.bytes;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.matchers.IterableMatcher.isEmpty;
+import static com.googlecode.totallylazy.matchers.Matchers.is;
+import static com.googlecode.totallylazy.parser.Parsers.string;
+import static com.googlecode.totallylazy.parser.Parsers.wsChar;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PushParserTest {
+    @Test
+    public void emitsElementsAsSoonAsTheyAreComplete() throws Exception {
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        assertThat(parser.feed("[\"fir"), isEmpty());
+        assertThat(parser.feed("st\", 1"), hasExactly((Object) "first"));
+        assertThat(parser.feed("2, [true"), hasExactly((Object) new BigDecimal("12")));
+        assertThat(parser.feed(", null]]"), hasExactly((Object) list(true, null)));
+        assertThat(parser.finished(), is(true));
+        assertThat(parser.remainder(), is(characters("]")));
+    }
+
+    @Test
+    public void supportsAnElementSplitAcrossManyChunks() throws Exception {
+        PushParser<String> parser = PushParser.pushParser(string("hello"));
+        for (char c : "hell".toCharArray()) assertThat(parser.feed(String.valueOf(c)), isEmpty(String.class));
+        assertThat(parser.feed("ohello"), hasExactly("hello", "hello"));
+        assertThat(parser.close(), isEmpty(String.class));
+        assertThat(parser.finished(), is(true));
+    }
+
+    @Test
+    public void waitsForCloseWhenMoreInputCouldExtendAnElement() throws Exception {
+        PushParser<Number> parser = PushParser.pushParser(Grammar.NUMBER, wsChar(','));
+        assertThat(parser.feed("1,23"), hasExactly((Number) new BigDecimal("1")));
+        assertThat(parser.close(), hasExactly((Number) new BigDecimal("23")));
+    }
+
+    @Test
+    public void decodesMultiByteCharactersSplitAcrossByteChunks() throws Exception {
+        byte[] bytes = bytes("[\"café\"]");
+        int split = 6;
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','), UTF8);
+        assertThat(parser.feed(ByteBuffer.wrap(bytes, 0, split)), isEmpty());
+        assertThat(parser.feed(ByteBuffer.wrap(bytes, split, bytes.length - split)), hasExactly((Object) "café"));
+    }
+
+    @Test
+    public void reportsFailureOfThePrefix() throws Exception {
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        assertThat(parser.feed("{}"), isEmpty());
+        assertThat(parser.finished(), is(true));
+        assertThat(parser.failure().isEmpty(), is(false));
+    }
+
+    @Test
+    public void reportsAnElementThatFailsAfterASeparator() throws Exception {
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        assertThat(parser.feed("[1,2,x,3]"), hasExactly((Object) new BigDecimal("1"), new BigDecimal("2")));
+        assertThat(parser.finished(), is(true));
+        assertThat(parser.failure().isEmpty(), is(false));
+    }
+
+    @Test
+    public void endsQuietlyAtTheTerminatorOrTheEndOfInput() throws Exception {
+        PushParser<Object> empty = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        assertThat(empty.feed("[]"), isEmpty());
+        assertThat(empty.failure().isEmpty(), is(true));
+        PushParser<String> words = PushParser.pushParser(string("hello"));
+        assertThat(words.feed("hello"), hasExactly("hello"));
+        assertThat(words.close(), isEmpty(String.class));
+        assertThat(words.failure().isEmpty(), is(true));
+    }
+
+    @Test
+    public void supportsALargeElementFedInSmallChunks() throws Exception {
+        String large = repeat("a").take(64 * 1024).toString("");
+        String json = "[\"" + large + "\"]";
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        List<Object> actual = new ArrayList<Object>();
+        for (int i = 0; i < json.length(); i += 1024) actual.addAll(parser.feed(json.substring(i, Math.min(json.length(), i + 1024))).toList());
+        assertThat(actual, is((List<Object>) list((Object) large)));
+        assertThat(parser.finished(), is(true));
+    }
+
+    @Test
+    public void producesTheSameElementsAsPullParsing() throws Exception {
+        String json = "[1, \"two\", {\"three\": 3}, [4], false, null]";
+        List<Object> expected = Grammar.SEQUENCE.parse(json).value().toList();
+        PushParser<Object> parser = PushParser.pushParser(wsChar('['), Grammar.VALUE, wsChar(','));
+        List<Object> actual = new ArrayList<Object>();
+        for (int i = 0; i < json.length(); i += 3) actual.addAll(parser.feed(json.substring(i, Math.min(json.length(), i + 3))).toList());
+        actual.addAll(parser.close().toList());
+        assertThat(actual, is(expected));
+    }
+}
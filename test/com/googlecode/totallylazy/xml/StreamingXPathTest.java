@@ -0,0 +1,72 @@
+package com.googlecode.totallylazy.xml;
+
+import com.googlecode.totallylazy.Sequence;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static com.googlecode.totallylazy.matchers.IterableMatcher.hasExactly;
+import static com.googlecode.totallylazy.xml.StreamingXPath.streamingXPath;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class StreamingXPathTest {
+    private static final String xml = "<feed xmlns:x=\"urn:x\">" +
+            "<item id=\"1\" type=\"book\"><title>Dune</title><x:price>10</x:price></item>" +
+            "<item id=\"2\" type=\"film\"><title>Alien</title></item>" +
+            "<group><item id=\"3\" type=\"book\"><title>Emma <![CDATA[& co]]></title></item></group>" +
+            "</feed>";
+
+    private Sequence<String> select(String expression) {
+        return streamingXPath(expression).evaluate(new StringReader(xml));
+    }
+
+    @Test
+    public void supportsChildAndDescendantSteps() throws Exception {
+        assertThat(select("/feed/item/title"), hasExactly("Dune", "Alien"));
+        assertThat(select("//title"), hasExactly("Dune", "Alien", "Emma & co"));
+        assertThat(select("/feed//item/@id"), hasExactly("1", "2", "3"));
+        assertThat(select("/feed/*/x:price"), hasExactly("10"));
+    }
+
+    @Test
+    public void supportsAttributePredicates() throws Exception {
+        assertThat(select("//item[@type='book']/title/text()"), hasExactly("Dune", "Emma & co"));
+        assertThat(select("//item[@type=\"film\"][@id]/@id"), hasExactly("2"));
+        assertThat(select("//item[@missing]").isEmpty(), is(true));
+    }
+
+    @Test
+    public void elementsYieldTheirStringValueAndTextOnlyTheirOwnText() throws Exception {
+        String nested = "<a>x<b>y</b>z</a>";
+        assertThat(streamingXPath("/a").evaluate(new StringReader(nested)), hasExactly("xyz"));
+        assertThat(streamingXPath("/a/text()").evaluate(new StringReader(nested)), hasExactly("xz"));
+    }
+
+    @Test
+    public void keepsDocumentOrderForNestedMatches() throws Exception {
+        String nested = "<a><n>1<n>2</n></n><n>3</n></a>";
+        assertThat(streamingXPath("//n").evaluate(new StringReader(nested)), hasExactly("12", "2", "3"));
+        assertThat(XmlReader.select(new StringReader(nested), "//n/text()"), hasExactly("1", "2", "3"));
+    }
+
+    @Test
+    public void descendantTextAndAttributesIncludeTheContextElement() throws Exception {
+        String nested = "<a id=\"1\">x<b id=\"2\">y</b>z</a>";
+        assertThat(streamingXPath("/a//text()").evaluate(new StringReader(nested)), hasExactly("xz", "y"));
+        assertThat(streamingXPath("/a//@id").evaluate(new StringReader(nested)), hasExactly("1", "2"));
+        assertThat(streamingXPath("//@id").evaluate(new StringReader(nested)), hasExactly("1", "2"));
+    }
+
+    @Test
+    public void rejectsUnsupportedExpressions() throws Exception {
+        for (String expression : new String[]{"/a[1]", "//b|//c", "/a/../a", "./a/b", "count(//b)", "/a/b()", "/a/@*", "/a:"}) {
+            try {
+                streamingXPath(expression);
+                fail(expression);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}